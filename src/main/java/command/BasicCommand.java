@@ -1,13 +1,15 @@
 package command;
 
+import zone.ZoneSet;
+
 public abstract class BasicCommand implements Command {
-    private int[] zones;
+    private ZoneSet zones;
 
-    public BasicCommand(int[] zones) {
+    public BasicCommand(ZoneSet zones) {
         this.zones = zones;
     }
 
-    public int[] getZones() {
+    public ZoneSet getZones() {
         return zones;
     }
 
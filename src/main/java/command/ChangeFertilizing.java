@@ -1,10 +1,12 @@
 package command;
 
+import zone.ZoneSet;
+
 public class ChangeFertilizing extends BasicCommand {
     public static final String NAME = "ЗмінитиУдобрювання";
     private int fertilizerVolume;
 
-    public ChangeFertilizing(int[] zones, int fertilizerVolume) {
+    public ChangeFertilizing(ZoneSet zones, int fertilizerVolume) {
         super(zones);
         this.fertilizerVolume = fertilizerVolume;
     }
@@ -1,5 +1,7 @@
 package command;
 
+import zone.ZoneSet;
+
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Map;
@@ -12,7 +14,7 @@ public class ChangeWatering  extends BasicCommand {
     private Double wateringDuration;
     private Map.Entry<Integer, Integer> humidityRange;
 
-    public ChangeWatering(int[] zones,
+    public ChangeWatering(ZoneSet zones,
                           LocalDateTime firstWatering,
                           LocalTime wateringInterval,
                           Integer waterVolume,
@@ -1,10 +1,12 @@
 package command;
 
+import zone.ZoneSet;
+
 public class EnableFertilizing extends BasicCommand {
     public static final String NAME = "ПідключитиУдобрювання";
     private int fertilizerVolume;
 
-    public EnableFertilizing(int[] zones, int fertilizerVolume) {
+    public EnableFertilizing(ZoneSet zones, int fertilizerVolume) {
         super(zones);
         this.fertilizerVolume = fertilizerVolume;
     }
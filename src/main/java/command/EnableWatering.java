@@ -1,5 +1,7 @@
 package command;
 
+import zone.ZoneSet;
+
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Map;
@@ -12,7 +14,7 @@ public class EnableWatering extends BasicCommand {
     private double wateringDuration;
     private Map.Entry<Integer, Integer> humidityRange;
 
-    public EnableWatering(int[] zones,
+    public EnableWatering(ZoneSet zones,
                           LocalDateTime firstWatering,
                           LocalTime wateringInterval,
                           int waterVolume,
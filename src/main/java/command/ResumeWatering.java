@@ -1,11 +1,11 @@
 package command;
 
+import zone.ZoneSet;
+
 public class ResumeWatering extends BasicCommand {
     public static final String NAME = "ВідновитиПолив";
 
-    private int[] zones;
-
-    public ResumeWatering(int[] zones) {
+    public ResumeWatering(ZoneSet zones) {
         super(zones);
     }
 
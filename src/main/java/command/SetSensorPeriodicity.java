@@ -1,13 +1,14 @@
 package command;
 
+import zone.ZoneSet;
+
 import java.time.LocalTime;
 
 public class SetSensorPeriodicity extends BasicCommand {
     public static final String NAME = "ЗадатиПеріодичністьДатчиків";
-    private int[] zones;
     private LocalTime checkInterval;
 
-    public SetSensorPeriodicity(int[] zones, LocalTime checkInterval) {
+    public SetSensorPeriodicity(ZoneSet zones, LocalTime checkInterval) {
         super(zones);
         this.checkInterval = checkInterval;
     }
@@ -0,0 +1,27 @@
+package command;
+
+import java.time.LocalDateTime;
+
+public class ShowActiveZones implements Command {
+    public static final String NAME = "ПоказатиАктивніЗони";
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public ShowActiveZones(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    @Override
+    public String getName() {
+        return ShowActiveZones.NAME;
+    }
+}
@@ -1,9 +1,11 @@
 package command;
 
+import zone.ZoneSet;
+
 public class ShowFertilizing extends BasicCommand {
     public static final String NAME = "ПоказатиУдобрювання";
 
-    public ShowFertilizing(int[] zones) {
+    public ShowFertilizing(ZoneSet zones) {
         super(zones);
     }
 
@@ -1,9 +1,11 @@
 package command;
 
+import zone.ZoneSet;
+
 public class ShowHumidity extends BasicCommand {
     public static final String NAME = "ПоказатиРівеньВологості";
 
-    public ShowHumidity(int[] zones) {
+    public ShowHumidity(ZoneSet zones) {
         super(zones);
     }
 
@@ -0,0 +1,30 @@
+package command;
+
+import zone.ZoneSet;
+
+import java.time.LocalDateTime;
+
+public class ShowHumidityHistory extends BasicCommand {
+    public static final String NAME = "ПоказатиІсторіюВологості";
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public ShowHumidityHistory(ZoneSet zones, LocalDateTime from, LocalDateTime to) {
+        super(zones);
+        this.from = from;
+        this.to = to;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    @Override
+    public String getName() {
+        return ShowHumidityHistory.NAME;
+    }
+}
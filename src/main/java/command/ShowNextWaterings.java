@@ -0,0 +1,19 @@
+package command;
+
+public class ShowNextWaterings implements Command {
+    public static final String NAME = "ПоказатиНаступніПоливи";
+    private int count;
+
+    public ShowNextWaterings(int count) {
+        this.count = count;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String getName() {
+        return ShowNextWaterings.NAME;
+    }
+}
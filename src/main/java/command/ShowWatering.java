@@ -1,9 +1,11 @@
 package command;
 
+import zone.ZoneSet;
+
 public class ShowWatering extends BasicCommand {
     public static final String NAME = "ПоказатиПолив";
 
-    public ShowWatering(int[] zones) {
+    public ShowWatering(ZoneSet zones) {
         super(zones);
     }
 
@@ -1,9 +1,11 @@
 package command;
 
+import zone.ZoneSet;
+
 public class StopFertilizing extends BasicCommand {
     public static final String NAME = "ЗупинитиУдобрювання";
 
-    public StopFertilizing(int[] zones) {
+    public StopFertilizing(ZoneSet zones) {
         super(zones);
     }
 
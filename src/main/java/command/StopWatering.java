@@ -1,9 +1,11 @@
 package command;
 
+import zone.ZoneSet;
+
 public class StopWatering extends BasicCommand {
     public static final String NAME = "ЗупинитиПолив";
 
-    public StopWatering(int[] zones) {
+    public StopWatering(ZoneSet zones) {
         super(zones);
     }
 
@@ -1,164 +1,319 @@
 package core;
 
 import command.*;
-import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
-import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
-import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import parser.CachingParser;
+import parser.CommandReader;
+import parser.ParallelParser;
 import parser.Parser;
-import parser.RegexLexer;
+import parser.ScanningLexer;
 import parser.TokenParser;
-import ui.MainWindow;
+import scheduler.PumpPlanner;
+import scheduler.ScheduledTask;
+import scheduler.Scheduler;
+import scheduler.TimingWheelScheduler;
+import scheduler.WateringCalendar;
+import scheduler.WateringWindow;
+import telemetry.ReadingConsumer;
+import telemetry.Rollup;
+import telemetry.RollupStore;
+import telemetry.TelemetryJournal;
+import telemetry.TimeSeriesStore;
 import zone.*;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
-public class App extends Application{
-    private static final int AMOUNT_OF_ZONES = 15;
+public class App {
+    private static final String DEFAULT_ZONES = "1-15";
+    private static final long CALENDAR_HORIZON = Duration.ofDays(1).toMillis();
     private static final Logger sensorLogger = LogManager.getLogger("sensor");
     private static final Logger generalLogger = LogManager.getLogger("error");
+    private static final Logger commandLogger = LogManager.getLogger("command");
 
     private ZoneDAO zoneDAO;
     private Parser parser;
-    private HashMap<Integer, Timer> zoneWateringTimers = new HashMap<>();
-    private HashMap<Integer, Timer> zoneSensorsTimers = new HashMap<>();
-    private MainWindow mainWindowController;
-
-    public static void main(String... args) {
-        Application.launch();
-    }
+    private Scheduler scheduler;
+    private HashMap<Integer, ScheduledTask> zoneWateringTimers = new HashMap<>();
+    private HashMap<Integer, ScheduledTask> zoneSensorsTimers = new HashMap<>();
+    private final Map<Integer, WateringStop> zoneWateringStops = new ConcurrentHashMap<>();
+    private EventSink eventSink = new NoOpSink();
+    private ZonePopulation zonePopulation = ZonePopulation.parse(DEFAULT_ZONES);
+    private boolean sensorsStarted;
+    private volatile PumpPlanner pumpPlanner;
+    private WateringCalendar wateringCalendar = new WateringCalendar(CALENDAR_HORIZON);
+    private final CommandHandlers handlers = new CommandHandlers();
+    private volatile TelemetryJournal telemetryJournal;
+    private TimeSeriesStore humidityHistory = new TimeSeriesStore();
+    private final RollupStore humidityRollups;
 
     public App() {
-        this(new ZoneDAOLocal(), new TokenParser(new RegexLexer()));
+        this(new ZoneDAOConcurrent(),
+                new CachingParser(new ParallelParser(new TokenParser(new ScanningLexer()))));
     }
 
     public App(ZoneDAO zoneDAO, Parser parser) {
+        this(zoneDAO, parser, new TimingWheelScheduler());
+    }
+
+    public App(ZoneDAO zoneDAO, Parser parser, Scheduler scheduler) {
         this.zoneDAO = zoneDAO;
         this.parser = parser;
-
-        for (int i = 1; i < AMOUNT_OF_ZONES + 1; i++) {
-            zoneDAO.add(new Zone(i));
-        }
+        this.scheduler = scheduler;
+        Clock clock = scheduler.getClock();
+        this.humidityRollups = new RollupStore(clock.getZone());
+
+        handlers.register(EnableWatering.class, this::enableWatering);
+        handlers.register(ShowWatering.class, this::showWatering);
+        handlers.register(StopWatering.class, this::stopWatering);
+        handlers.register(ResumeWatering.class, this::resumeWatering);
+        handlers.register(ChangeWatering.class, this::changeWatering);
+        handlers.register(SetSensorPeriodicity.class, this::setSensorPeriodicity);
+        handlers.register(ShowHumidity.class, this::showHumidity);
+        handlers.register(EnableFertilizing.class, this::enableFertilizing);
+        handlers.register(ShowFertilizing.class, this::showFertilizing);
+        handlers.register(ChangeFertilizing.class, this::changeFertilizing);
+        handlers.register(StopFertilizing.class, this::stopFertilizing);
+        handlers.register(ShowActiveZones.class, this::showActiveZones);
+        handlers.register(ShowNextWaterings.class, this::showNextWaterings);
+        handlers.register(ShowHumidityHistory.class, this::showHumidityHistory);
     }
 
-    @Override
-    public void start(Stage primaryStage) throws Exception {
-        FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource("ui/main_window.fxml"));
-        AnchorPane root = loader.load();
-
-        mainWindowController = loader.getController();
-        mainWindowController.setApp(this);
-        mainWindowController.initGridPane(root);
-
-        Scene scene = new Scene(root, 725, 500);
-        primaryStage.setTitle("Irrigation");
-        primaryStage.setScene(scene);
-        primaryStage.show();
+    public void startSensors() {
+        sensorsStarted = true;
+        setSensorsTimersForZones(zoneDAO.findAll());
+    }
 
-        for (int i = 1; i < AMOUNT_OF_ZONES + 1; i++) {
-            setSensorsTimersForZone(zoneDAO.find(i));
+    public void restoreWateringSchedules() {
+        List<Zone> zones = new ArrayList<>();
+        for (Zone zone : zoneDAO.findAll()) {
+            if (zone.getWateringStatus() == WateringStatus.ENABLED && zone.getFirstWatering() != null
+                    && zone.getWateringInterval() != null) {
+                zones.add(zone);
+            }
         }
+        setWateringTimersForZones(zones);
     }
 
     public void handleCommands(String input) throws ParseException {
-        Collection<Command> commands = parser.parse(input);
+        handleCommands(parser.parse(input));
+    }
+
+    public void handleCommands(Iterable<Command> commands) {
         for (Command command : commands) {
             handleCommand(command);
         }
     }
 
-    private void enableWatering(EnableWatering command) {
-        for(int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
+    public void handleCommands(Reader input) throws IOException, ParseException {
+        CommandReader commands = parser.parse(input);
+        Command command;
+        while ((command = commands.next()) != null) {
+            handleCommand(command);
+            commandLogger.info(commands.getCommandText());
+        }
+    }
 
+    private void enableWatering(EnableWatering command) {
+        List<Zone> zones = findOrCreateZones(command.getZones());
+        for (Zone zone : zones) {
             zone.setFirstWatering(command.getFirstWatering());
             zone.setWateringInterval(command.getWateringInterval());
             zone.setWaterVolume(command.getWaterVolume());
             zone.setWateringDuration(command.getWateringDuration());
             zone.setHumidityRange(command.getHumidityRange());
             zone.setWateringStatus(WateringStatus.ENABLED);
-            zoneDAO.update(zone);
+        }
+        zoneDAO.updateAll(zones);
+
+        setWateringTimersForZones(zones);
+        for (Zone zone : zones) {
+            eventSink.print("Enable watering zone " + zone.getId());
+        }
+    }
 
-            setWateringTimersForZone(zone);
-            mainWindowController.print("Enable watering zone " + zoneId);
+    /**
+     * Arms the watering timers of many zones at once. Zones sharing a schedule are handed to the scheduler and
+     * the calendar as one batch.
+     */
+    private void setWateringTimersForZones(List<Zone> zones) {
+        Clock clock = scheduler.getClock();
+        long now = clock.millis();
+
+        Map<List<Object>, List<Zone>> groups = new LinkedHashMap<>();
+        for (Zone zone : zones) {
+            groups.computeIfAbsent(Arrays.asList(zone.getFirstWatering(), zone.getWateringInterval(),
+                    zone.getWateringDuration()), key -> new ArrayList<>()).add(zone);
+        }
 
+        for (List<Zone> group : groups.values()) {
+            Zone first = group.get(0);
+            long firstWatering = first.getFirstWatering().atZone(clock.getZone()).toInstant().toEpochMilli();
+            long initialDelay = Math.max(0, firstWatering - now);
+            long period = first.getWateringInterval().toNanoOfDay() / 1000000;
+
+            List<Runnable> tasks = new ArrayList<>(group.size());
+            int[] zoneIds = new int[group.size()];
+            for (int i = 0; i < group.size(); i++) {
+                tasks.add(wateringTask(group.get(i)));
+                zoneIds[i] = group.get(i).getId();
+            }
+
+            List<ScheduledTask> timers = scheduler.scheduleAllAtFixedRate(tasks, initialDelay, period);
+            for (int i = 0; i < zoneIds.length; i++) {
+                zoneWateringTimers.put(zoneIds[i], timers.get(i));
+            }
+            wateringCalendar.putAll(zoneIds, Math.max(firstWatering, now), period,
+                    (long) (first.getWateringDuration() * 60000), now);
         }
     }
 
-    private void setWateringTimersForZone(Zone zone) {
+    private Runnable wateringTask(Zone zone) {
         int zoneId = zone.getId();
-        Timer timer = new Timer(true);
-
-        TimerTask task = new TimerTask() {
-            @Override
-            public void run() {
-                if(zone.isWaterSensorNotResponding()) {
-                    mainWindowController.print("Zone " + zoneId +
-                            "'s water sensor is not responding! Please check it!");
-                }
-                mainWindowController.print("Watering zone " + zoneId);
-                mainWindowController.changeZoneColor(zoneId, Color.GREEN);
-
-                if (zone.getFertilizingStatus() == FertilizingStatus.ENABLED) {
-                    if(zone.isFertilizerSensorNotResponding()) {
-                        mainWindowController.print("Zone " + zoneId +
-                                "'s fertilizing sensor is not responding! Please check it!");
+        Clock clock = scheduler.getClock();
+
+        return () -> {
+            long duration = (long) (zone.getWateringDuration() * 60000);
+            PumpPlanner planner = pumpPlanner;
+            if (planner == null || duration <= 0) {
+                startWatering(zone, duration);
+                return;
+            }
+
+            long now = clock.millis();
+            if (planner.hasPendingStart(zoneId, now)) {
+                eventSink.print("Watering zone " + zoneId + " skipped: still waiting for the pump");
+                return;
+            }
+
+            PumpPlanner.Reservation reservation = planner.reserve(zoneId,
+                    zone.getWaterVolume() / zone.getWateringDuration(), now, duration);
+            if (reservation.getStart() <= now) {
+                startWatering(zone, duration);
+                return;
+            }
+
+            eventSink.print(String.format("Watering zone %d postponed until %s: pump capacity exceeded", zoneId,
+                    toLocalDateTime(reservation.getStart())));
+            try {
+                scheduler.schedule(() -> {
+                    if (!reservation.isCancelled()) {
+                        startWatering(zone, duration);
                     }
-                    mainWindowController.print("Fertilizing zone " + zoneId);
-                    mainWindowController.changeZoneBorderSize(zoneId, 5.0);
-                }
-
-                int delay = (int) (zone.getWateringDuration() * 60000);
-                try {
-                    timer.schedule(new TimerTask() {
-                        @Override
-                        public void run() {
-                            mainWindowController.print("Watering zone stopped: " + zoneId);
-                            mainWindowController.changeZoneColor(zoneId, Color.BLACK);
-                            mainWindowController.changeZoneBorderSize(zoneId, 0);
-                        }
-                    }, delay);
-                } catch (IllegalStateException ise) {
-                    generalLogger.error(ise.getMessage());
-                }
+                }, reservation.getStart() - now);
+            } catch (IllegalStateException ise) {
+                generalLogger.error(ise.getMessage());
             }
         };
-        timer.schedule(task,
-                Date.from(zone.getFirstWatering().atZone(ZoneId.systemDefault()).toInstant()),
-                zone.getWateringInterval().toNanoOfDay() / 1000000);
-        zoneWateringTimers.put(zoneId, timer);
     }
 
-    private void setSensorsTimersForZone(Zone zone) {
+    private void startWatering(Zone zone, long duration) {
         int zoneId = zone.getId();
-        Timer timer = new Timer(true);
-
-        TimerTask task = new TimerTask() {
-            @Override
-            public void run() {
-                int humidity = zone.getHumidityValue();
-                sensorLogger.info(zone.getId() + " " + humidity);
-                mainWindowController.print(String.format("Zone %d: humidity - %d", zoneId, humidity));
+        if(zone.isWaterSensorNotResponding()) {
+            eventSink.print("Zone " + zoneId +
+                    "'s water sensor is not responding! Please check it!");
+        }
+        eventSink.print("Watering zone " + zoneId);
+        eventSink.wateringStarted(zoneId);
+
+        if (zone.getFertilizingStatus() == FertilizingStatus.ENABLED) {
+            if(zone.isFertilizerSensorNotResponding()) {
+                eventSink.print("Zone " + zoneId +
+                        "'s fertilizing sensor is not responding! Please check it!");
             }
-        };
+            eventSink.print("Fertilizing zone " + zoneId);
+            eventSink.fertilizingStarted(zoneId);
+        }
+
+        WateringStop stop = new WateringStop(zoneId);
+        WateringStop previous = zoneWateringStops.put(zoneId, stop);
+        if (previous != null) {
+            previous.cancel();
+        }
+        try {
+            stop.task = scheduler.schedule(stop, duration);
+        } catch (IllegalStateException ise) {
+            generalLogger.error(ise.getMessage());
+        }
+    }
+
+    private void reportWateringStopped(int zoneId) {
+        eventSink.print("Watering zone stopped: " + zoneId);
+        eventSink.wateringStopped(zoneId);
+        eventSink.fertilizingStopped(zoneId);
+    }
+
+    /**
+     * Cancels the zone's watering timer and calendar entry. A watering that is running is stopped now rather than
+     * by its pending stop task.
+     */
+    private void cancelWatering(int zoneId) {
+        cancelTimer(zoneWateringTimers, zoneId);
+        WateringStop stop = zoneWateringStops.remove(zoneId);
+        if (stop != null) {
+            stop.cancel();
+            reportWateringStopped(zoneId);
+        }
+        wateringCalendar.remove(zoneId);
+        PumpPlanner planner = pumpPlanner;
+        if (planner != null) {
+            planner.release(zoneId, scheduler.getClock().millis());
+        }
+    }
+
+    private void setSensorsTimersForZones(List<Zone> zones) {
+        Map<LocalTime, List<Zone>> groups = new LinkedHashMap<>();
+        for (Zone zone : zones) {
+            groups.computeIfAbsent(zone.getSensorsCheckInterval(), interval -> new ArrayList<>()).add(zone);
+        }
+
+        for (Map.Entry<LocalTime, List<Zone>> group : groups.entrySet()) {
+            List<Runnable> tasks = new ArrayList<>(group.getValue().size());
+            for (Zone zone : group.getValue()) {
+                tasks.add(sensorsTask(zone));
+            }
+
+            List<ScheduledTask> timers = scheduler.scheduleAllAtFixedRate(tasks, 0,
+                    group.getKey().toNanoOfDay() / 1000000);
+            for (int i = 0; i < timers.size(); i++) {
+                zoneSensorsTimers.put(group.getValue().get(i).getId(), timers.get(i));
+            }
+        }
+    }
 
-        timer.schedule(task, Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant()),
-                zone.getSensorsCheckInterval().toNanoOfDay() / 1000000);
-        zoneSensorsTimers.put(zoneId, timer);
+    private Runnable sensorsTask(Zone zone) {
+        int zoneId = zone.getId();
+        Clock clock = scheduler.getClock();
+
+        return () -> {
+            int humidity = zone.getHumidityValue();
+            long now = clock.millis();
+            humidityHistory.append(zoneId, now, humidity);
+            humidityRollups.add(zoneId, now, humidity);
+            TelemetryJournal journal = telemetryJournal;
+            if (journal != null) {
+                journal.record(zoneId, now, humidity);
+            } else if (sensorLogger.isInfoEnabled()) {
+                sensorLogger.info(zoneId + " " + humidity);
+            }
+            eventSink.humidityMeasured(zoneId, humidity);
+        };
     }
 
     private void showWatering(ShowWatering command) {
-        for (int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
+        for (Zone zone : findZones(command.getZones())) {
+            int zoneId = zone.getId();
             String data = String.format("Zone %d: watering enabled - %b",
                     zoneId, zone.getWateringStatus() == WateringStatus.ENABLED);
             if (zone.getWateringStatus() == WateringStatus.ENABLED) {
@@ -173,42 +328,49 @@ public class App extends Application{
             }
             data += String.format(", sensors' check interval - %s", zone.getSensorsCheckInterval());
 
-            mainWindowController.print(data);
+            eventSink.print(data);
         }
     }
 
     private void stopWatering(StopWatering command) {
-        for (int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
-
+        List<Zone> stopped = new ArrayList<>();
+        for (Zone zone : findOrCreateZones(command.getZones())) {
             if (zone.getWateringStatus() != WateringStatus.ENABLED) {
                 continue;
             }
 
             zone.setWateringStatus(WateringStatus.DISABLED);
-            zoneDAO.update(zone);
-            zoneWateringTimers.get(zoneId).cancel();
-            mainWindowController.print("Stop watering zone " + zoneId);
+            stopped.add(zone);
+        }
+        zoneDAO.updateAll(stopped);
+
+        for (Zone zone : stopped) {
+            cancelWatering(zone.getId());
+            eventSink.print("Stop watering zone " + zone.getId());
         }
     }
 
     private void resumeWatering(ResumeWatering command) {
-        for (int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
+        List<Zone> resumed = new ArrayList<>();
+        for (Zone zone : findOrCreateZones(command.getZones())) {
             if (zone.getWateringStatus() != WateringStatus.DISABLED) {
                 continue;
             }
             zone.setWateringStatus(WateringStatus.ENABLED);
-            zoneDAO.update(zone);
-            setWateringTimersForZone(zone);
-            mainWindowController.print("Resuming watering zone " + zoneId);
+            resumed.add(zone);
+        }
+        zoneDAO.updateAll(resumed);
+
+        setWateringTimersForZones(resumed);
+        for (Zone zone : resumed) {
+            eventSink.print("Resuming watering zone " + zone.getId());
         }
     }
 
     private void changeWatering(ChangeWatering command) {
-        for (int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
-
+        List<Zone> zones = findOrCreateZones(command.getZones());
+        List<Zone> enabled = new ArrayList<>();
+        for (Zone zone : zones) {
             LocalDateTime firstWatering = command.getFirstWatering();
             if (firstWatering != null) {
                 zone.setFirstWatering(firstWatering);
@@ -234,30 +396,41 @@ public class App extends Application{
                 zone.setHumidityRange(humidityRange);
             }
 
-            zoneDAO.update(zone);
+            if (zone.getWateringStatus() == WateringStatus.ENABLED) {
+                enabled.add(zone);
+            }
+        }
+        zoneDAO.updateAll(zones);
 
-            zoneWateringTimers.get(zoneId).cancel();
-            setWateringTimersForZone(zone);
-            mainWindowController.print("Change watering zone " + zoneId);
+        for (Zone zone : enabled) {
+            cancelWatering(zone.getId());
+        }
+        setWateringTimersForZones(enabled);
+        for (Zone zone : zones) {
+            eventSink.print("Change watering zone " + zone.getId());
         }
     }
 
     private void setSensorPeriodicity(SetSensorPeriodicity command) {
-        for (int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
-
+        List<Zone> zones = findOrCreateZones(command.getZones());
+        for (Zone zone : zones) {
             zone.setSensorsCheckInterval(command.getCheckInterval());
-            zoneDAO.update(zone);
-            zoneSensorsTimers.get(zoneId).cancel();
-            setSensorsTimersForZone(zone);
+        }
+        zoneDAO.updateAll(zones);
 
-            mainWindowController.print("Set sensor periodicity for zone " + zoneId);
+        if (sensorsStarted) {
+            for (Zone zone : zones) {
+                cancelTimer(zoneSensorsTimers, zone.getId());
+            }
+            setSensorsTimersForZones(zones);
+        }
+        for (Zone zone : zones) {
+            eventSink.print("Set sensor periodicity for zone " + zone.getId());
         }
     }
 
     private void showHumidity(ShowHumidity command) {
-        for (int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
+        for (Zone zone : findZones(command.getZones())) {
             if (zone.getWateringStatus() != WateringStatus.ENABLED) {
                 continue;
             }
@@ -265,156 +438,340 @@ public class App extends Application{
             int min = zone.getHumidityRange().getKey();
             int max = zone.getHumidityRange().getValue() + 1;
             String data = String.format("Zone %d: humidity - %d%%",
-                    zoneId, ThreadLocalRandom.current().nextInt(min, max));
-            mainWindowController.print(data);
+                    zone.getId(), ThreadLocalRandom.current().nextInt(min, max));
+            eventSink.print(data);
         }
     }
 
     private void enableFertilizing(EnableFertilizing command) {
-        for(int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
-
+        List<Zone> zones = findOrCreateZones(command.getZones());
+        for (Zone zone : zones) {
             zone.setFertilizerVolume(command.getFertilizerVolume());
             zone.setFertilizingStatus(FertilizingStatus.ENABLED);
-            zoneDAO.update(zone);
+        }
+        zoneDAO.updateAll(zones);
 
-            mainWindowController.print("Enable fertilizing zone " + zoneId);
+        for (Zone zone : zones) {
+            eventSink.print("Enable fertilizing zone " + zone.getId());
         }
     }
 
     private void showFertilizing(ShowFertilizing command) {
-        for(int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
-
+        for (Zone zone : findZones(command.getZones())) {
             String data = String.format("Zone %d: fertilizing enabled - %b, fertilizer volume - %dL",
-                    zoneId, zone.getFertilizingStatus() == FertilizingStatus.ENABLED, zone.getFertilizerVolume());
-            mainWindowController.print(data);
+                    zone.getId(), zone.getFertilizingStatus() == FertilizingStatus.ENABLED, zone.getFertilizerVolume());
+            eventSink.print(data);
         }
     }
 
     private void changeFertilizing(ChangeFertilizing command) {
-        for(int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
-
+        List<Zone> zones = findOrCreateZones(command.getZones());
+        for (Zone zone : zones) {
             zone.setFertilizerVolume(command.getFertilizerVolume());
-            zoneDAO.update(zone);
+        }
+        zoneDAO.updateAll(zones);
 
-            mainWindowController.print("Change fertilizing zone " + zoneId);
+        for (Zone zone : zones) {
+            eventSink.print("Change fertilizing zone " + zone.getId());
         }
     }
 
     private void stopFertilizing(StopFertilizing command) {
-        for(int zoneId : command.getZones()) {
-            Zone zone = zoneDAO.find(zoneId);
-
+        for (Zone zone : findOrCreateZones(command.getZones())) {
             if (zone.getFertilizingStatus() != FertilizingStatus.ENABLED) {
                 continue;
             }
 
             zone.setFertilizingStatus(FertilizingStatus.DISABLED);
-            mainWindowController.print("Stop fertilizing zone " + zoneId);
+            eventSink.print("Stop fertilizing zone " + zone.getId());
+        }
+    }
+
+    private void showActiveZones(ShowActiveZones command) {
+        SortedSet<Integer> zones = findZonesWateringBetween(command.getFrom(), command.getTo());
+        String data = String.format("Zones watering between %s and %s: %s", command.getFrom(), command.getTo(),
+                zones.isEmpty() ? "none" : zones.stream().map(String::valueOf).collect(Collectors.joining(", ")));
+
+        LocalDateTime horizonEnd = toLocalDateTime(scheduler.getClock().millis() + wateringCalendar.getHorizon());
+        if (command.getTo().isAfter(horizonEnd)) {
+            data += String.format(" (schedule is only indexed until %s)", horizonEnd);
         }
+        eventSink.print(data);
+    }
+
+    private void showNextWaterings(ShowNextWaterings command) {
+        for (WateringWindow window : findNextWaterings(command.getCount())) {
+            eventSink.print(String.format("Zone %d: watering %s - %s", window.getZoneId(),
+                    toLocalDateTime(window.getStart()), toLocalDateTime(window.getEnd())));
+        }
+    }
+
+    private void showHumidityHistory(ShowHumidityHistory command) {
+        for (Zone zone : findZones(command.getZones())) {
+            Rollup humidity;
+            try {
+                humidity = findHumidityRollup(zone.getId(), command.getFrom(), command.getTo());
+            } catch (IOException e) {
+                generalLogger.error(e.getMessage());
+                eventSink.print("Humidity history of zone " + zone.getId() + " is unavailable");
+                continue;
+            }
+
+            String data = String.format("Zone %d: humidity between %s and %s - ", zone.getId(), command.getFrom(),
+                    command.getTo());
+            data += humidity.getCount() == 0 ? "no readings" : String.format("%d readings, min - %d%%, " +
+                    "average - %.1f%%, max - %d%%", humidity.getCount(), humidity.getMin(), humidity.getAverage(),
+                    humidity.getMax());
+            eventSink.print(data);
+        }
+    }
+
+    /**
+     * Passes the recorded humidity readings of the zones between from and to, inclusive, zone by zone.
+     */
+    public void queryHumidityHistory(ZoneSet zones, LocalDateTime from, LocalDateTime to,
+                                     ReadingConsumer consumer) throws IOException {
+        for (PrimitiveIterator.OfInt iterator = zones.iterator(); iterator.hasNext(); ) {
+            humidityHistory.query(iterator.nextInt(), toEpochMilli(from), toEpochMilli(to), consumer);
+        }
+    }
+
+    /**
+     * Aggregates the zone's humidity between from and to from the rollups, reading raw history only for the spans
+     * they do not cover.
+     */
+    public Rollup findHumidityRollup(int zoneId, LocalDateTime from, LocalDateTime to) throws IOException {
+        return humidityRollups.aggregate(zoneId, toEpochMilli(from), toEpochMilli(to), humidityHistory);
+    }
+
+    public List<Rollup> findHumidityRollups(int zoneId, RollupStore.Resolution resolution, LocalDateTime from,
+                                            LocalDateTime to) {
+        return humidityRollups.query(zoneId, resolution, toEpochMilli(from), toEpochMilli(to));
+    }
+
+    public SortedSet<Integer> findZonesWateringBetween(LocalDateTime from, LocalDateTime to) {
+        Clock clock = scheduler.getClock();
+        return wateringCalendar.findZonesActiveBetween(from.atZone(clock.getZone()).toInstant().toEpochMilli(),
+                to.atZone(clock.getZone()).toInstant().toEpochMilli(), clock.millis());
+    }
+
+    public List<WateringWindow> findNextWaterings(int count) {
+        return wateringCalendar.findNextWaterings(count, scheduler.getClock().millis());
+    }
+
+    private long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(scheduler.getClock().getZone()).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), scheduler.getClock().getZone());
     }
 
     public void resetAllZones(){
         for(int i : zoneWateringTimers.keySet()){
             resetZoneState(i);
-            mainWindowController.showLines(i);
+            eventSink.alarmRaised(i);
         }
 
-        for(Timer sensorsTimer : zoneSensorsTimers.values()) {
+        for(ScheduledTask sensorsTimer : zoneSensorsTimers.values()) {
             sensorsTimer.cancel();
         }
 
-        mainWindowController.print("System urgently stopped");
+        eventSink.print("System urgently stopped");
     }
 
     public void waterShortage() {
         for(int i : zoneWateringTimers.keySet()){
             resetZoneState(i);
-            mainWindowController.showLines(i);
+            eventSink.alarmRaised(i);
         }
-        mainWindowController.print("Water shortage! Please refill the water tank");
+        eventSink.print("Water shortage! Please refill the water tank");
     }
 
     public void fertilizerShortage() {
         for(Zone zone : zoneDAO.findAll())
         {
             zone.setFertilizingStatus(FertilizingStatus.DISABLED);
-            mainWindowController.changeZoneBorderSize(zone.getId(), 0);
+            eventSink.fertilizingStopped(zone.getId());
         }
-        mainWindowController.print("Fertilizer shortage! Please refill the fertilizer tank");
+        eventSink.print("Fertilizer shortage! Please refill the fertilizer tank");
     }
 
     public void invalidHumidity(){
-        Zone zone = zoneDAO.find(7);
+        Zone zone = findOrCreateZone(7);
+        if (zone == null) {
+            return;
+        }
         zone.setHumidityValue(50);
         resetZoneState(7);
     }
 
     public void resumeWateringButton(){
-       int[] zones = new int[]{1,2,3,4,5,6,7,8,9,10,11,12,13,14,15};
-       for(int i : zones){
-           mainWindowController.hideLines(i);
-       }
+       ZoneSet zones = ZoneSet.of(zoneWateringTimers.keySet().stream().mapToInt(Integer::intValue).toArray());
+       zones.forEachZone(eventSink::alarmCleared);
 
        resumeWatering(new ResumeWatering(zones));
     }
 
+    private Zone findOrCreateZone(int zoneId) {
+        Zone zone = zoneDAO.find(zoneId);
+        if (zone != null) {
+            return zone;
+        }
+
+        if (!zonePopulation.contains(zoneId)) {
+            eventSink.print("Zone " + zoneId + " doesn't exist");
+            return null;
+        }
+
+        zone = zoneDAO.create(zoneId);
+        if (sensorsStarted) {
+            setSensorsTimersForZones(Collections.singletonList(zone));
+        }
+        return zone;
+    }
+
+    /**
+     * Looks up the requested zones with one bulk read, without materialising any, for commands that only show
+     * zone state. Zones of the population that were never referenced are skipped. Returns the zones in ascending
+     * id order.
+     */
+    private List<Zone> findZones(ZoneSet requested) {
+        List<Zone> zones = zoneDAO.findAll(requested);
+        if (zones.size() < requested.size()) {
+            reportUnknownZones(missingZones(requested, zones));
+        }
+        return zones;
+    }
+
+    /**
+     * Looks up the requested zones with one bulk read and materialises the missing ones of the population with
+     * one bulk create. Returns the zones in ascending id order.
+     */
+    private List<Zone> findOrCreateZones(ZoneSet requested) {
+        List<Zone> zones = zoneDAO.findAll(requested);
+        if (zones.size() == requested.size()) {
+            return zones;
+        }
+
+        ZoneSet missing = missingZones(requested, zones);
+        reportUnknownZones(missing);
+        List<Zone> created = zoneDAO.createAll(missing.intersect(zonePopulation.getZones()));
+        if (created.isEmpty()) {
+            return zones;
+        }
+        if (sensorsStarted) {
+            setSensorsTimersForZones(created);
+        }
+
+        List<Zone> all = new ArrayList<>(zones.size() + created.size());
+        all.addAll(zones);
+        all.addAll(created);
+        all.sort(Comparator.comparingInt(Zone::getId));
+        return all;
+    }
+
+    private static ZoneSet missingZones(ZoneSet requested, List<Zone> found) {
+        ZoneSet.Builder foundIds = new ZoneSet.Builder();
+        for (Zone zone : found) {
+            foundIds.add(zone.getId());
+        }
+        return requested.subtract(foundIds.build());
+    }
+
+    private void reportUnknownZones(ZoneSet missing) {
+        missing.subtract(zonePopulation.getZones())
+                .forEachZone(zoneId -> eventSink.print("Zone " + zoneId + " doesn't exist"));
+    }
+
+    private static void cancelTimer(Map<Integer, ScheduledTask> timers, int zoneId) {
+        ScheduledTask timer = timers.get(zoneId);
+        if (timer != null) {
+            timer.cancel();
+        }
+    }
+
     private void resetZoneState(int id) {
-        zoneDAO.find(id).setWateringStatus(WateringStatus.DISABLED);
-        zoneWateringTimers.get(id).cancel();
-        mainWindowController.changeZoneColor(id, Color.BLACK);
-        mainWindowController.changeZoneBorderSize(id, 0);
-    }
-
-    private void handleCommand(Command command) {
-        switch (command.getName()) {
-            case EnableWatering.NAME:
-                enableWatering((EnableWatering) command);
-                break;
-            case ShowWatering.NAME:
-                showWatering((ShowWatering) command);
-                break;
-            case StopWatering.NAME:
-                stopWatering((StopWatering) command);
-                break;
-            case ResumeWatering.NAME:
-                resumeWatering((ResumeWatering) command);
-                break;
-            case ChangeWatering.NAME:
-                changeWatering((ChangeWatering) command);
-                break;
-            case SetSensorPeriodicity.NAME:
-                setSensorPeriodicity((SetSensorPeriodicity) command);
-                break;
-            case ShowHumidity.NAME:
-                showHumidity((ShowHumidity) command);
-                break;
-            case EnableFertilizing.NAME:
-                enableFertilizing((EnableFertilizing) command);
-                break;
-            case ShowFertilizing.NAME:
-                showFertilizing((ShowFertilizing) command);
-                break;
-            case ChangeFertilizing.NAME:
-                changeFertilizing((ChangeFertilizing) command);
-                break;
-            case StopFertilizing.NAME:
-                stopFertilizing((StopFertilizing) command);
-                break;
-        }
-    }
-
-    public void setMainWindowController(MainWindow mainWindowController) {
-        this.mainWindowController = mainWindowController;
+        Zone zone = zoneDAO.find(id);
+        if (zone != null) {
+            zone.setWateringStatus(WateringStatus.DISABLED);
+        }
+        cancelWatering(id);
+        eventSink.wateringStopped(id);
+        eventSink.fertilizingStopped(id);
+    }
+
+    public void handleCommand(Command command) {
+        if (!handlers.handle(command)) {
+            generalLogger.error("No handler for command: " + command.getName());
+        }
+    }
+
+    public <C extends Command> void registerHandler(Class<C> commandClass, CommandHandler<? super C> handler) {
+        handlers.register(commandClass, handler);
+    }
+
+    public void setEventSink(EventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    public void setZonePopulation(ZonePopulation zonePopulation) {
+        this.zonePopulation = zonePopulation;
+    }
+
+    /**
+     * Sends sensor readings to the journal instead of the "sensor" log.
+     */
+    public void setTelemetryJournal(TelemetryJournal telemetryJournal) {
+        this.telemetryJournal = telemetryJournal;
+    }
+
+    public void setHumidityHistory(TimeSeriesStore humidityHistory) {
+        this.humidityHistory = humidityHistory;
+    }
+
+    public void setPumpCapacity(double litresPerMinute) {
+        this.pumpPlanner = litresPerMinute > 0 ? new PumpPlanner(litresPerMinute) : null;
     }
 
     public void waterSensorNotResponding() {
-        zoneDAO.find(9).setWaterSensorNotResponding(true);
+        Zone zone = findOrCreateZone(9);
+        if (zone != null) {
+            zone.setWaterSensorNotResponding(true);
+        }
     }
 
     public void fertilizerSensorNotResponding() {
-        zoneDAO.find(9).setFertilizerSensorNotResponding(true);
+        Zone zone = findOrCreateZone(9);
+        if (zone != null) {
+            zone.setFertilizerSensorNotResponding(true);
+        }
+    }
+
+    /**
+     * Pending end of a running watering. Whoever takes it out of the zone's slot, the task itself or
+     * {@link #cancelWatering(int)}, reports the stop; a stop replaced by a newer watering stays silent.
+     */
+    private final class WateringStop implements Runnable {
+        private final int zoneId;
+        private volatile ScheduledTask task;
+
+        WateringStop(int zoneId) {
+            this.zoneId = zoneId;
+        }
+
+        @Override
+        public void run() {
+            if (zoneWateringStops.remove(zoneId, this)) {
+                reportWateringStopped(zoneId);
+            }
+        }
+
+        void cancel() {
+            ScheduledTask scheduled = task;
+            if (scheduled != null) {
+                scheduled.cancel();
+            }
+        }
     }
 }
@@ -0,0 +1,7 @@
+package core;
+
+import command.Command;
+
+public interface CommandHandler<C extends Command> {
+    void handle(C command);
+}
@@ -0,0 +1,30 @@
+package core;
+
+import command.Command;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Handlers keyed by command class. A command is dispatched to the handler of its own class or, failing that,
+ * of its nearest registered superclass.
+ */
+public class CommandHandlers {
+    private final Map<Class<?>, CommandHandler<Command>> handlers = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <C extends Command> void register(Class<C> commandClass, CommandHandler<? super C> handler) {
+        handlers.put(commandClass, (CommandHandler<Command>) handler);
+    }
+
+    public boolean handle(Command command) {
+        for (Class<?> type = command.getClass(); type != null; type = type.getSuperclass()) {
+            CommandHandler<Command> handler = handlers.get(type);
+            if (handler != null) {
+                handler.handle(command);
+                return true;
+            }
+        }
+        return false;
+    }
+}
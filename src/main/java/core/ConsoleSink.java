@@ -0,0 +1,53 @@
+package core;
+
+import java.io.PrintStream;
+import java.time.Clock;
+import java.time.LocalTime;
+
+public class ConsoleSink implements EventSink {
+    private final PrintStream out;
+    private final Clock clock;
+
+    public ConsoleSink(PrintStream out, Clock clock) {
+        this.out = out;
+        this.clock = clock;
+    }
+
+    @Override
+    public void print(String message) {
+        out.println("[" + LocalTime.now(clock) + "] " + message);
+    }
+
+    @Override
+    public void wateringStarted(int zoneId) {
+    }
+
+    @Override
+    public void wateringStopped(int zoneId) {
+    }
+
+    @Override
+    public void fertilizingStarted(int zoneId) {
+    }
+
+    @Override
+    public void fertilizingStopped(int zoneId) {
+    }
+
+    @Override
+    public void humidityMeasured(int zoneId, int humidity) {
+        print(String.format("Zone %d: humidity - %d", zoneId, humidity));
+    }
+
+    @Override
+    public void alarmRaised(int zoneId) {
+    }
+
+    @Override
+    public void alarmCleared(int zoneId) {
+    }
+
+    public void flush() {
+        out.flush();
+    }
+}
@@ -0,0 +1,12 @@
+package core;
+
+public interface EventSink {
+    void print(String message);
+    void wateringStarted(int zoneId);
+    void wateringStopped(int zoneId);
+    void fertilizingStarted(int zoneId);
+    void fertilizingStopped(int zoneId);
+    void humidityMeasured(int zoneId, int humidity);
+    void alarmRaised(int zoneId);
+    void alarmCleared(int zoneId);
+}
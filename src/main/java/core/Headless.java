@@ -0,0 +1,165 @@
+package core;
+
+import command.Command;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import parser.CachingParser;
+import parser.CommandReader;
+import parser.CompiledProgram;
+import parser.ParallelParser;
+import parser.Parser;
+import parser.ScanningLexer;
+import parser.TokenParser;
+import scheduler.Scheduler;
+import scheduler.TimingWheelScheduler;
+import telemetry.TelemetryJournal;
+import telemetry.TimeSeriesStore;
+import zone.ZoneDAO;
+import zone.ZoneDAOColumnar;
+import zone.ZoneDAOConcurrent;
+import zone.ZoneDAOMapped;
+import zone.ZonePopulation;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+public class Headless {
+    private static final Logger commandLogger = LogManager.getLogger("command");
+    private static final Logger generalLogger = LogManager.getLogger("error");
+    private static final String USAGE = "Usage: Headless [--zones=1-15] [--pump-capacity=<L/min>] " +
+            "[--output=console|none|<file>] [--zone-store=concurrent|columnar|<file>] [--telemetry=<directory>|none] " +
+            "[--history=<directory>|memory] " +
+            "[programme files, text or compiled...]";
+    private static final String DEFAULT_TELEMETRY = "logs/telemetry";
+    private static final String DEFAULT_HISTORY = "logs/history";
+    private static final long FLUSH_PERIOD = 1000;
+
+    public static void main(String... args) throws IOException, InterruptedException {
+        ZonePopulation zonePopulation = null;
+        double pumpCapacity = 0;
+        String output = "console";
+        String telemetry = DEFAULT_TELEMETRY;
+        String history = DEFAULT_HISTORY;
+        ZoneDAO zoneDAO = new ZoneDAOConcurrent();
+        List<String> programmes = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--zones=")) {
+                zonePopulation = ZonePopulation.parse(arg.substring("--zones=".length()));
+            } else if (arg.startsWith("--pump-capacity=")) {
+                pumpCapacity = Double.parseDouble(arg.substring("--pump-capacity=".length()));
+            } else if (arg.startsWith("--output=")) {
+                output = arg.substring("--output=".length());
+            } else if (arg.startsWith("--telemetry=")) {
+                telemetry = arg.substring("--telemetry=".length());
+            } else if (arg.startsWith("--history=")) {
+                history = arg.substring("--history=".length());
+            } else if (arg.equals("--zone-store=columnar")) {
+                zoneDAO = new ZoneDAOColumnar();
+            } else if (arg.equals("--zone-store=concurrent")) {
+                zoneDAO = new ZoneDAOConcurrent();
+            } else if (arg.startsWith("--zone-store=")) {
+                ZoneDAOMapped zoneFile = new ZoneDAOMapped(Paths.get(arg.substring("--zone-store=".length())));
+                Runtime.getRuntime().addShutdownHook(new Thread(zoneFile::flush));
+                zoneDAO = zoneFile;
+            } else if (arg.startsWith("--")) {
+                System.err.println(USAGE);
+                System.exit(1);
+            } else {
+                programmes.add(arg);
+            }
+        }
+
+        Scheduler scheduler = new TimingWheelScheduler();
+        Parser parser = new CachingParser(new ParallelParser(new TokenParser(new ScanningLexer())));
+        App app = new App(zoneDAO, parser, scheduler);
+        if (zonePopulation != null) {
+            app.setZonePopulation(zonePopulation);
+        }
+        app.setPumpCapacity(pumpCapacity);
+        if (!telemetry.equals("none")) {
+            TelemetryJournal journal = new TelemetryJournal(Paths.get(telemetry));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    generalLogger.error(e.getMessage());
+                }
+            }));
+            app.setTelemetryJournal(journal);
+        }
+        if (!history.equals("memory")) {
+            TimeSeriesStore store = new TimeSeriesStore(Paths.get(history));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    generalLogger.error(e.getMessage());
+                }
+            }));
+            app.setHumidityHistory(store);
+        }
+
+        EventSink sink;
+        if (output.equals("none")) {
+            sink = new NoOpSink();
+        } else {
+            PrintStream out = output.equals("console") ? System.out : new PrintStream(
+                    new BufferedOutputStream(new FileOutputStream(output, true), 1 << 16),
+                    false, StandardCharsets.UTF_8.name());
+            ConsoleSink consoleSink = new ConsoleSink(out, scheduler.getClock());
+            scheduler.scheduleAtFixedRate(consoleSink::flush, FLUSH_PERIOD, FLUSH_PERIOD);
+            Runtime.getRuntime().addShutdownHook(new Thread(consoleSink::flush));
+            sink = consoleSink;
+        }
+        app.setEventSink(sink);
+        app.startSensors();
+        app.restoreWateringSchedules();
+
+        for (String programme : programmes) {
+            Path file = Paths.get(programme);
+            try {
+                if (CompiledProgram.isCompiled(file)) {
+                    try (CompiledProgram commands = new CompiledProgram(file)) {
+                        app.handleCommands(commands);
+                    }
+                } else {
+                    try (Reader input = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                        app.handleCommands(input);
+                    }
+                }
+            } catch (ParseException | IOException e) {
+                reportError(e);
+            } catch (UncheckedIOException e) {
+                reportError(e.getCause());
+            }
+        }
+
+        CommandReader commands = parser.parse(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        while (true) {
+            try {
+                Command command = commands.next();
+                if (command == null) {
+                    break;
+                }
+                app.handleCommand(command);
+                commandLogger.info(commands.getCommandText());
+            } catch (ParseException e) {
+                reportError(e);
+            }
+        }
+
+        new CountDownLatch(1).await();
+    }
+
+    private static void reportError(Exception e) {
+        generalLogger.error(e.getMessage());
+        System.err.println(e.getMessage());
+    }
+}
@@ -0,0 +1,35 @@
+package core;
+
+public class NoOpSink implements EventSink {
+    @Override
+    public void print(String message) {
+    }
+
+    @Override
+    public void wateringStarted(int zoneId) {
+    }
+
+    @Override
+    public void wateringStopped(int zoneId) {
+    }
+
+    @Override
+    public void fertilizingStarted(int zoneId) {
+    }
+
+    @Override
+    public void fertilizingStopped(int zoneId) {
+    }
+
+    @Override
+    public void humidityMeasured(int zoneId, int humidity) {
+    }
+
+    @Override
+    public void alarmRaised(int zoneId) {
+    }
+
+    @Override
+    public void alarmCleared(int zoneId) {
+    }
+}
@@ -0,0 +1,14 @@
+package parser;
+
+public enum ArgumentType {
+    ZONES,
+    DATE_TIME,
+    TIME,
+    INTEGER,
+    DOUBLE,
+    INTEGER_RANGE;
+
+    boolean startsWith(TokenType type) {
+        return type == TokenType.INTEGER_NUMBER || (this == ZONES && type == TokenType.OPEN_BRACKET);
+    }
+}
@@ -0,0 +1,106 @@
+package parser;
+
+import command.Command;
+
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parser decorator that remembers the commands of recently parsed inputs.
+ * Entries are evicted in least-recently-used order; inputs longer than the key limit are never cached so that
+ * whole programme files do not crowd out short, repeated commands. Cached command lists are shared and must not
+ * be modified.
+ */
+public class CachingParser implements Parser {
+    private static final int DEFAULT_CAPACITY = 256;
+    private static final int DEFAULT_MAX_KEY_LENGTH = 4096;
+
+    private final Parser parser;
+    private final int maxKeyLength;
+    private final LinkedHashMap<String, List<Command>> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CachingParser(Parser parser) {
+        this(parser, DEFAULT_CAPACITY, DEFAULT_MAX_KEY_LENGTH);
+    }
+
+    public CachingParser(Parser parser, int capacity, int maxKeyLength) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.parser = parser;
+        this.maxKeyLength = maxKeyLength;
+        cache = new LinkedHashMap<String, List<Command>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Command>> eldest) {
+                if (size() > capacity) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public List<Command> parse(String input) throws ParseException {
+        if (input.length() > maxKeyLength) {
+            misses.incrementAndGet();
+            return delegate(input);
+        }
+
+        synchronized (cache) {
+            List<Command> commands = cache.get(input);
+            if (commands != null) {
+                hits.incrementAndGet();
+                return commands;
+            }
+        }
+
+        misses.incrementAndGet();
+        List<Command> commands = delegate(input);
+        synchronized (cache) {
+            cache.put(input, commands);
+        }
+        return commands;
+    }
+
+    /**
+     * Streams go straight to the wrapped parser: every command of a programme file would otherwise be cached one
+     * by one and evict the short interactive inputs the cache is for.
+     */
+    @Override
+    public CommandReader parse(Reader input) {
+        return parser.parse(input);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private List<Command> delegate(String input) throws ParseException {
+        return Collections.unmodifiableList(new ArrayList<>(parser.parse(input)));
+    }
+}
@@ -0,0 +1,11 @@
+package parser;
+
+import command.Command;
+
+public interface CommandFactory {
+    /**
+     * Builds a command from its decoded arguments, with null for each omitted optional argument.
+     * The array is reused by the parser and must not be kept.
+     */
+    Command create(Object[] arguments);
+}
@@ -0,0 +1,184 @@
+package parser;
+
+import command.*;
+import zone.ZoneSet;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static parser.ArgumentType.*;
+
+/**
+ * Registry of command specs, looked up by name straight from the source text.
+ * Names are kept in an open-addressed table keyed by the String hash of the name, which is computed over the
+ * token's characters in place, so a lookup costs one hash pass and one comparison however many commands exist.
+ * Registration publishes a new immutable snapshot of the table, so lookups need no lock. The shared
+ * {@link #standard()} grammar is frozen; to extend it, register on a {@link #copy()}.
+ */
+public class CommandGrammar {
+    private static final CommandGrammar STANDARD = createStandard().freeze();
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList(), new CommandSpec[16], 0);
+    private volatile boolean frozen;
+
+    public static CommandGrammar standard() {
+        return STANDARD;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CommandGrammar createStandard() {
+        CommandGrammar grammar = new CommandGrammar();
+        grammar.register(new CommandSpec.Builder(EnableWatering.NAME, args -> new EnableWatering((ZoneSet) args[0],
+                (LocalDateTime) args[1], (LocalTime) args[2], (Integer) args[3], (Double) args[4],
+                (Map.Entry<Integer, Integer>) args[5]))
+                .argument(ZONES).argument(DATE_TIME).argument(TIME).argument(INTEGER).argument(DOUBLE)
+                .argument(INTEGER_RANGE).build());
+        grammar.register(new CommandSpec.Builder(ShowWatering.NAME, args -> new ShowWatering((ZoneSet) args[0]))
+                .argument(ZONES).build());
+        grammar.register(new CommandSpec.Builder(StopWatering.NAME, args -> new StopWatering((ZoneSet) args[0]))
+                .argument(ZONES).build());
+        grammar.register(new CommandSpec.Builder(ResumeWatering.NAME, args -> new ResumeWatering((ZoneSet) args[0]))
+                .argument(ZONES).build());
+        grammar.register(new CommandSpec.Builder(ChangeWatering.NAME, args -> new ChangeWatering((ZoneSet) args[0],
+                (LocalDateTime) args[1], (LocalTime) args[2], (Integer) args[3], (Double) args[4],
+                (Map.Entry<Integer, Integer>) args[5]))
+                .argument(ZONES).optionalArgument(DATE_TIME).optionalArgument(TIME).optionalArgument(INTEGER)
+                .optionalArgument(DOUBLE).optionalArgument(INTEGER_RANGE).build());
+        grammar.register(new CommandSpec.Builder(SetSensorPeriodicity.NAME,
+                args -> new SetSensorPeriodicity((ZoneSet) args[0], (LocalTime) args[1]))
+                .argument(ZONES).argument(TIME).build());
+        grammar.register(new CommandSpec.Builder(ShowHumidity.NAME, args -> new ShowHumidity((ZoneSet) args[0]))
+                .argument(ZONES).build());
+        grammar.register(new CommandSpec.Builder(EnableFertilizing.NAME,
+                args -> new EnableFertilizing((ZoneSet) args[0], (Integer) args[1]))
+                .argument(ZONES).argument(INTEGER).build());
+        grammar.register(new CommandSpec.Builder(ShowFertilizing.NAME, args -> new ShowFertilizing((ZoneSet) args[0]))
+                .argument(ZONES).build());
+        grammar.register(new CommandSpec.Builder(ChangeFertilizing.NAME,
+                args -> new ChangeFertilizing((ZoneSet) args[0], (Integer) args[1]))
+                .argument(ZONES).argument(INTEGER).build());
+        grammar.register(new CommandSpec.Builder(StopFertilizing.NAME, args -> new StopFertilizing((ZoneSet) args[0]))
+                .argument(ZONES).build());
+        grammar.register(new CommandSpec.Builder(ShowActiveZones.NAME,
+                args -> new ShowActiveZones((LocalDateTime) args[0], (LocalDateTime) args[1]))
+                .argument(DATE_TIME).argument(DATE_TIME).build());
+        grammar.register(new CommandSpec.Builder(ShowNextWaterings.NAME,
+                args -> new ShowNextWaterings((Integer) args[0]))
+                .argument(INTEGER).build());
+        grammar.register(new CommandSpec.Builder(ShowHumidityHistory.NAME, args -> new ShowHumidityHistory(
+                (ZoneSet) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2]))
+                .argument(ZONES).argument(DATE_TIME).argument(DATE_TIME).build());
+        return grammar;
+    }
+
+    public synchronized void register(CommandSpec spec) {
+        if (frozen) {
+            throw new IllegalStateException("Grammar is frozen, register on a copy: " + spec.getName());
+        }
+        if (find(spec.getName()) != null) {
+            throw new IllegalArgumentException("Command already registered: " + spec.getName());
+        }
+
+        Snapshot current = snapshot;
+        List<CommandSpec> specs = new ArrayList<>(current.specs);
+        specs.add(spec);
+        int capacity = current.table.length;
+        while (specs.size() * 2 > capacity) {
+            capacity *= 2;
+        }
+        CommandSpec[] table = new CommandSpec[capacity];
+        for (CommandSpec existing : specs) {
+            insert(table, existing);
+        }
+        snapshot = new Snapshot(Collections.unmodifiableList(specs), table,
+                Math.max(current.maxArity, spec.getArity()));
+    }
+
+    /**
+     * Stops further registration. Returns this grammar.
+     */
+    public CommandGrammar freeze() {
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Returns a grammar sharing the same immutable specs that accepts registrations of its own.
+     */
+    public CommandGrammar copy() {
+        CommandGrammar copy = new CommandGrammar();
+        copy.snapshot = snapshot;
+        return copy;
+    }
+
+    public CommandSpec find(String name) {
+        return find(name, 0, name.length());
+    }
+
+    public CommandSpec find(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+
+        CommandSpec[] current = snapshot.table;
+        int mask = current.length - 1;
+        for (int slot = spread(hash) & mask; current[slot] != null; slot = (slot + 1) & mask) {
+            String name = current[slot].getName();
+            if (name.hashCode() == hash && name.length() == end - start && regionMatches(source, start, name)) {
+                return current[slot];
+            }
+        }
+        return null;
+    }
+
+    public List<CommandSpec> getSpecs() {
+        return snapshot.specs;
+    }
+
+    public int getMaxArity() {
+        return snapshot.maxArity;
+    }
+
+    private static void insert(CommandSpec[] table, CommandSpec spec) {
+        int mask = table.length - 1;
+        int slot = spread(spec.getName().hashCode()) & mask;
+        while (table[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = spec;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionMatches(CharSequence source, int start, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (source.charAt(start + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Snapshot {
+        private final List<CommandSpec> specs;
+        private final CommandSpec[] table;
+        private final int maxArity;
+
+        Snapshot(List<CommandSpec> specs, CommandSpec[] table, int maxArity) {
+            this.specs = specs;
+            this.table = table;
+            this.maxArity = maxArity;
+        }
+    }
+}
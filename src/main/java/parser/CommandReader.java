@@ -0,0 +1,105 @@
+package parser;
+
+import command.Command;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.Collection;
+
+/**
+ * Reads commands one by one from a character stream.
+ * Only the text of the current command is held in memory: input is consumed up to the next ';' and handed to
+ * the parser, so a programme of any size is parsed with memory bounded by its longest command. Error offsets are
+ * shifted to count from the start of the stream.
+ */
+public class CommandReader {
+    private static final int MAX_COMMAND_LENGTH = 1 << 20;
+
+    private final Reader input;
+    private final Parser parser;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+    private long bufferOffset;
+    private long commandOffset;
+    private String commandText;
+
+    public CommandReader(Reader input, Parser parser) {
+        this.input = input;
+        this.parser = parser;
+    }
+
+    public Command next() throws IOException, ParseException {
+        while (readCommandText()) {
+            commandText = text.toString().trim();
+            Collection<Command> commands;
+            try {
+                commands = parser.parse(text.toString());
+            } catch (ParseException e) {
+                throw new ParseException(e.getMessage(), streamOffset(commandOffset + e.getErrorOffset()));
+            }
+            if (!commands.isEmpty()) {
+                return commands.iterator().next();
+            }
+        }
+        commandText = null;
+        return null;
+    }
+
+    public String getCommandText() {
+        return commandText;
+    }
+
+    private boolean readCommandText() throws IOException, ParseException {
+        text.setLength(0);
+        commandOffset = bufferOffset + position;
+        while (true) {
+            if (position == limit && !fill()) {
+                return text.length() > 0;
+            }
+
+            int start = position;
+            while (position < limit && buffer[position] != ';') {
+                position++;
+            }
+            if (position < limit) {
+                position++;
+                text.append(buffer, start, position - start);
+                return true;
+            }
+            text.append(buffer, start, position - start);
+
+            if (text.length() > MAX_COMMAND_LENGTH) {
+                skipCommand();
+                throw new ParseException("Command is longer than " + MAX_COMMAND_LENGTH + " characters",
+                        streamOffset(commandOffset));
+            }
+        }
+    }
+
+    private void skipCommand() throws IOException {
+        while (true) {
+            while (position < limit) {
+                if (buffer[position++] == ';') {
+                    return;
+                }
+            }
+            if (!fill()) {
+                return;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        bufferOffset += limit;
+        limit = Math.max(0, input.read(buffer));
+        position = 0;
+        return limit > 0;
+    }
+
+    private static int streamOffset(long offset) {
+        return (int) Math.min(Integer.MAX_VALUE, offset);
+    }
+}
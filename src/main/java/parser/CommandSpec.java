@@ -0,0 +1,77 @@
+package parser;
+
+import java.util.Arrays;
+
+/**
+ * Grammar of one command: its name and the comma-separated arguments that follow the colon.
+ * An optional argument may be left empty between its commas and is then passed to the factory as null.
+ * Specs are immutable once built, so grammars and parsers on any thread may share them.
+ */
+public class CommandSpec {
+    private final String name;
+    private final CommandFactory factory;
+    private final ArgumentType[] argumentTypes;
+    private final boolean[] optional;
+
+    private CommandSpec(String name, CommandFactory factory, ArgumentType[] argumentTypes, boolean[] optional) {
+        this.name = name;
+        this.factory = factory;
+        this.argumentTypes = argumentTypes;
+        this.optional = optional;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CommandFactory getFactory() {
+        return factory;
+    }
+
+    public int getArity() {
+        return argumentTypes.length;
+    }
+
+    public ArgumentType getArgumentType(int index) {
+        return argumentTypes[index];
+    }
+
+    public boolean isOptional(int index) {
+        return optional[index];
+    }
+
+    /**
+     * Collects the arguments of a spec in order.
+     */
+    public static class Builder {
+        private final String name;
+        private final CommandFactory factory;
+        private ArgumentType[] argumentTypes = new ArgumentType[0];
+        private boolean[] optional = new boolean[0];
+
+        public Builder(String name, CommandFactory factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        public Builder argument(ArgumentType type) {
+            return add(type, false);
+        }
+
+        public Builder optionalArgument(ArgumentType type) {
+            return add(type, true);
+        }
+
+        public CommandSpec build() {
+            return new CommandSpec(name, factory, argumentTypes.clone(), optional.clone());
+        }
+
+        private Builder add(ArgumentType type, boolean isOptional) {
+            argumentTypes = Arrays.copyOf(argumentTypes, argumentTypes.length + 1);
+            argumentTypes[argumentTypes.length - 1] = type;
+            optional = Arrays.copyOf(optional, optional.length + 1);
+            optional[optional.length - 1] = isOptional;
+            return this;
+        }
+    }
+}
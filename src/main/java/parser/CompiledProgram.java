@@ -0,0 +1,230 @@
+package parser;
+
+import command.*;
+import zone.ZoneSet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.Map;
+
+/**
+ * Programme compiled by {@link ProgramCompiler}, memory-mapped read-only.
+ * Commands are decoded on access straight from the mapping, so opening a programme of any size costs only the
+ * header check and no lexing or parsing happens at all.
+ */
+public class CompiledProgram extends AbstractList<Command> implements Closeable {
+    static final int MAGIC = 0x52505247;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    static final byte ENABLE_WATERING = 1;
+    static final byte SHOW_WATERING = 2;
+    static final byte STOP_WATERING = 3;
+    static final byte RESUME_WATERING = 4;
+    static final byte CHANGE_WATERING = 5;
+    static final byte SET_SENSOR_PERIODICITY = 6;
+    static final byte SHOW_HUMIDITY = 7;
+    static final byte ENABLE_FERTILIZING = 8;
+    static final byte SHOW_FERTILIZING = 9;
+    static final byte CHANGE_FERTILIZING = 10;
+    static final byte STOP_FERTILIZING = 11;
+    static final byte SHOW_ACTIVE_ZONES = 12;
+    static final byte SHOW_NEXT_WATERINGS = 13;
+    static final byte SHOW_HUMIDITY_HISTORY = 14;
+
+    static final int HAS_WATER_VOLUME = 1;
+    static final int HAS_WATERING_DURATION = 1 << 1;
+    static final int HAS_HUMIDITY_RANGE = 1 << 2;
+
+    static final long NO_DATE_TIME = Long.MIN_VALUE;
+    static final int NO_TIME = -1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int indexOffset;
+
+    public CompiledProgram(Path file) throws IOException {
+        this.file = file;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Not a compiled programme: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            count = buffer.getInt(8);
+            indexOffset = buffer.getInt(12);
+            if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION || count < 0
+                    || indexOffset < HEADER_SIZE || (long) indexOffset + 4L * count != fileSize) {
+                throw new IOException("Not a compiled programme: " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static boolean isCompiled(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            return channel.read(header, 0) == 4 && header.getInt(0) == MAGIC;
+        }
+    }
+
+    @Override
+    public Command get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Command " + index + " of " + count);
+        }
+        try {
+            return new Decoder(buffer.getInt(indexOffset + 4 * index)).readCommand();
+        } catch (RuntimeException e) {
+            throw new UncheckedIOException(new IOException("Corrupt compiled programme: " + file, e));
+        }
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private class Decoder {
+        private int position;
+
+        Decoder(int position) {
+            this.position = position;
+        }
+
+        Command readCommand() {
+            byte opcode = buffer.get(position++);
+            switch (opcode) {
+                case ENABLE_WATERING: {
+                    ZoneSet zones = readZones();
+                    int present = buffer.get(position++);
+                    LocalDateTime firstWatering = readDateTime();
+                    LocalTime wateringInterval = readTime();
+                    int waterVolume = readSigned();
+                    double wateringDuration = readDouble();
+                    return new EnableWatering(zones, firstWatering, wateringInterval, waterVolume,
+                            wateringDuration, (present & HAS_HUMIDITY_RANGE) != 0 ? readHumidityRange() : null);
+                }
+                case CHANGE_WATERING: {
+                    ZoneSet zones = readZones();
+                    int present = buffer.get(position++);
+                    LocalDateTime firstWatering = readDateTime();
+                    LocalTime wateringInterval = readTime();
+                    Integer waterVolume = (present & HAS_WATER_VOLUME) != 0 ? readSigned() : null;
+                    Double wateringDuration = (present & HAS_WATERING_DURATION) != 0 ? readDouble() : null;
+                    return new ChangeWatering(zones, firstWatering, wateringInterval, waterVolume,
+                            wateringDuration, (present & HAS_HUMIDITY_RANGE) != 0 ? readHumidityRange() : null);
+                }
+                case SHOW_WATERING:
+                    return new ShowWatering(readZones());
+                case STOP_WATERING:
+                    return new StopWatering(readZones());
+                case RESUME_WATERING:
+                    return new ResumeWatering(readZones());
+                case SET_SENSOR_PERIODICITY: {
+                    ZoneSet zones = readZones();
+                    return new SetSensorPeriodicity(zones, readTime());
+                }
+                case SHOW_HUMIDITY:
+                    return new ShowHumidity(readZones());
+                case ENABLE_FERTILIZING: {
+                    ZoneSet zones = readZones();
+                    return new EnableFertilizing(zones, readSigned());
+                }
+                case SHOW_FERTILIZING:
+                    return new ShowFertilizing(readZones());
+                case CHANGE_FERTILIZING: {
+                    ZoneSet zones = readZones();
+                    return new ChangeFertilizing(zones, readSigned());
+                }
+                case STOP_FERTILIZING:
+                    return new StopFertilizing(readZones());
+                case SHOW_ACTIVE_ZONES: {
+                    LocalDateTime from = readDateTime();
+                    return new ShowActiveZones(from, readDateTime());
+                }
+                case SHOW_NEXT_WATERINGS:
+                    return new ShowNextWaterings(readSigned());
+                case SHOW_HUMIDITY_HISTORY: {
+                    ZoneSet zones = readZones();
+                    LocalDateTime from = readDateTime();
+                    return new ShowHumidityHistory(zones, from, readDateTime());
+                }
+                default:
+                    throw new IllegalStateException("Unknown opcode " + opcode + " at " + (position - 1));
+            }
+        }
+
+        private ZoneSet readZones() {
+            int ranges = readUnsigned();
+            ZoneSet.Builder zones = new ZoneSet.Builder();
+            int previous = 0;
+            for (int range = 0; range < ranges; range++) {
+                int first = previous + readSigned();
+                previous = first + readUnsigned();
+                zones.add(first, previous);
+            }
+            return zones.build();
+        }
+
+        private Map.Entry<Integer, Integer> readHumidityRange() {
+            int min = readSigned();
+            return new AbstractMap.SimpleImmutableEntry<>(min, readSigned());
+        }
+
+        private LocalDateTime readDateTime() {
+            long epochSecond = buffer.getLong(position);
+            position += 8;
+            return epochSecond == NO_DATE_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        }
+
+        private LocalTime readTime() {
+            int secondOfDay = readSigned();
+            return secondOfDay == NO_TIME ? null : LocalTime.ofSecondOfDay(secondOfDay);
+        }
+
+        private double readDouble() {
+            double value = buffer.getDouble(position);
+            position += 8;
+            return value;
+        }
+
+        private int readSigned() {
+            int value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private int readUnsigned() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = buffer.get(position++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed number at " + position);
+        }
+    }
+}
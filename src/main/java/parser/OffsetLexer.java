@@ -0,0 +1,7 @@
+package parser;
+
+import java.text.ParseException;
+
+public interface OffsetLexer extends Lexer {
+    void tokenize(CharSequence input, TokenArray tokens) throws ParseException;
+}
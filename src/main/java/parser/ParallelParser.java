@@ -0,0 +1,129 @@
+package parser;
+
+import command.Command;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses large inputs in parallel.
+ * Commands carry no state across ';' terminators, so the input is cut into chunks at terminators, every chunk is
+ * lexed and parsed on a fork-join pool by the shared reentrant parser, and the command lists are joined in source
+ * order. Error offsets are shifted back to the whole input, and the first error in source order wins.
+ */
+public class ParallelParser implements Parser {
+    private static final int DEFAULT_MIN_CHUNK_LENGTH = 64 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Parser parser;
+    private final ForkJoinPool pool;
+    private final int minChunkLength;
+
+    public ParallelParser(Parser parser) {
+        this(parser, ForkJoinPool.commonPool(), DEFAULT_MIN_CHUNK_LENGTH);
+    }
+
+    public ParallelParser(Parser parser, ForkJoinPool pool, int minChunkLength) {
+        this.parser = parser;
+        this.pool = pool;
+        this.minChunkLength = Math.max(1, minChunkLength);
+    }
+
+    @Override
+    public List<Command> parse(String input) throws ParseException {
+        int[] bounds = split(input);
+        if (bounds.length == 2) {
+            return new ArrayList<>(parser.parse(input));
+        }
+
+        try {
+            return pool.invoke(new ParseTask(input, bounds, 0, bounds.length - 1));
+        } catch (ChunkParseException e) {
+            throw e.getCause();
+        }
+    }
+
+    private int[] split(String input) {
+        int length = input.length();
+        if (pool.getParallelism() < 2) {
+            return new int[] {0, length};
+        }
+        int chunkLength = Math.max(minChunkLength, length / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int start = 0;
+        while (length - start > chunkLength) {
+            int terminator = input.indexOf(';', start + chunkLength);
+            if (terminator < 0 || terminator == length - 1) {
+                break;
+            }
+            start = terminator + 1;
+            bounds.add(start);
+        }
+        bounds.add(length);
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private class ParseTask extends RecursiveTask<List<Command>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String input;
+        private final int[] bounds;
+        private final int from;
+        private final int to;
+
+        ParseTask(String input, int[] bounds, int from, int to) {
+            this.input = input;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Command> compute() {
+            if (to - from == 1) {
+                return parseChunk(bounds[from], bounds[to]);
+            }
+
+            int middle = (from + to) >>> 1;
+            ParseTask left = new ParseTask(input, bounds, from, middle);
+            ParseTask right = new ParseTask(input, bounds, middle, to);
+            left.fork();
+
+            List<Command> rightCommands;
+            try {
+                rightCommands = right.compute();
+            } catch (ChunkParseException e) {
+                left.join();
+                throw e;
+            }
+            List<Command> commands = left.join();
+            commands.addAll(rightCommands);
+            return commands;
+        }
+
+        private List<Command> parseChunk(int start, int end) {
+            try {
+                return new ArrayList<>(parser.parse(input.substring(start, end)));
+            } catch (ParseException e) {
+                throw new ChunkParseException(new ParseException(e.getMessage(), start + e.getErrorOffset()));
+            }
+        }
+    }
+
+    private static class ChunkParseException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ChunkParseException(ParseException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ParseException getCause() {
+            return (ParseException) super.getCause();
+        }
+    }
+}
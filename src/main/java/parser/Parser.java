@@ -2,9 +2,17 @@ package parser;
 
 import command.Command;
 
+import java.io.Reader;
 import java.text.ParseException;
 import java.util.Collection;
 
+/**
+ * Turns command text into commands. Implementations keep no state between calls and may be shared by threads.
+ */
 public interface Parser {
     public Collection<Command> parse(String input) throws ParseException;
+
+    default CommandReader parse(Reader input) {
+        return new CommandReader(input, this);
+    }
 }
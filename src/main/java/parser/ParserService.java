@@ -0,0 +1,96 @@
+package parser;
+
+import command.Command;
+
+import java.io.Closeable;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parses inputs from independent command sources (GUI, file loader, automation) concurrently.
+ * All sources share one reentrant parser; every input is parsed on the service's executor and its result is
+ * delivered through a future, so a slow programme file never holds up a short command typed in the GUI.
+ */
+public class ParserService implements Closeable {
+    private final Parser parser;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    public ParserService(Parser parser) {
+        this(parser, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParserService(Parser parser, int threadCount) {
+        this(parser, newExecutor(threadCount), true);
+    }
+
+    public ParserService(Parser parser, ExecutorService executor) {
+        this(parser, executor, false);
+    }
+
+    private ParserService(Parser parser, ExecutorService executor, boolean ownsExecutor) {
+        this.parser = parser;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public CompletableFuture<Collection<Command>> submit(String input) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return parser.parse(input);
+            } catch (ParseException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    public List<Collection<Command>> parseAll(List<String> inputs) throws ParseException {
+        List<CompletableFuture<Collection<Command>>> futures = new ArrayList<>(inputs.size());
+        for (String input : inputs) {
+            futures.add(submit(input));
+        }
+
+        List<Collection<Command>> results = new ArrayList<>(inputs.size());
+        for (CompletableFuture<Collection<Command>> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof ParseException) {
+                    throw (ParseException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    public Parser getParser() {
+        return parser;
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private static ExecutorService newExecutor(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "parser-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
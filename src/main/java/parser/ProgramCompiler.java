@@ -0,0 +1,222 @@
+package parser;
+
+import command.*;
+import zone.ZoneSet;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles parsed commands into the binary programme format read by {@link CompiledProgram}.
+ * Every command is an opcode followed by its operands; zone sets are stored as their ranges, dates as epoch
+ * seconds and times as seconds of day. An offset table at the end of the file lets the loader decode any
+ * command without touching the ones before it.
+ */
+public class ProgramCompiler {
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+    public void compile(Collection<Command> commands, Path file) throws IOException {
+        int[] offsets = new int[commands.size()];
+        buffer.clear();
+        buffer.position(CompiledProgram.HEADER_SIZE);
+        int count = 0;
+        for (Command command : commands) {
+            offsets[count++] = buffer.position();
+            writeCommand(command);
+        }
+
+        int indexOffset = buffer.position();
+        ensureCapacity(4 * count);
+        for (int i = 0; i < count; i++) {
+            buffer.putInt(offsets[i]);
+        }
+        buffer.putInt(0, CompiledProgram.MAGIC);
+        buffer.putShort(4, CompiledProgram.VERSION);
+        buffer.putInt(8, count);
+        buffer.putInt(12, indexOffset);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private void writeCommand(Command command) {
+        switch (command.getName()) {
+            case EnableWatering.NAME: {
+                EnableWatering enableWatering = (EnableWatering) command;
+                writeOpcode(CompiledProgram.ENABLE_WATERING, enableWatering);
+                writeWatering(enableWatering.getFirstWatering(), enableWatering.getWateringInterval(),
+                        enableWatering.getWaterVolume(), enableWatering.getWateringDuration(),
+                        enableWatering.getHumidityRange());
+                break;
+            }
+            case ChangeWatering.NAME: {
+                ChangeWatering changeWatering = (ChangeWatering) command;
+                writeOpcode(CompiledProgram.CHANGE_WATERING, changeWatering);
+                writeWatering(changeWatering.getFirstWatering(), changeWatering.getWateringInterval(),
+                        changeWatering.getWaterVolume(), changeWatering.getWateringDuration(),
+                        changeWatering.getHumidityRange());
+                break;
+            }
+            case ShowWatering.NAME:
+                writeOpcode(CompiledProgram.SHOW_WATERING, (BasicCommand) command);
+                break;
+            case StopWatering.NAME:
+                writeOpcode(CompiledProgram.STOP_WATERING, (BasicCommand) command);
+                break;
+            case ResumeWatering.NAME:
+                writeOpcode(CompiledProgram.RESUME_WATERING, (BasicCommand) command);
+                break;
+            case SetSensorPeriodicity.NAME: {
+                SetSensorPeriodicity setSensorPeriodicity = (SetSensorPeriodicity) command;
+                writeOpcode(CompiledProgram.SET_SENSOR_PERIODICITY, setSensorPeriodicity);
+                writeTime(setSensorPeriodicity.getCheckInterval());
+                break;
+            }
+            case ShowHumidity.NAME:
+                writeOpcode(CompiledProgram.SHOW_HUMIDITY, (BasicCommand) command);
+                break;
+            case EnableFertilizing.NAME:
+                writeOpcode(CompiledProgram.ENABLE_FERTILIZING, (BasicCommand) command);
+                writeSigned(((EnableFertilizing) command).getFertilizerVolume());
+                break;
+            case ShowFertilizing.NAME:
+                writeOpcode(CompiledProgram.SHOW_FERTILIZING, (BasicCommand) command);
+                break;
+            case ChangeFertilizing.NAME:
+                writeOpcode(CompiledProgram.CHANGE_FERTILIZING, (BasicCommand) command);
+                writeSigned(((ChangeFertilizing) command).getFertilizerVolume());
+                break;
+            case StopFertilizing.NAME:
+                writeOpcode(CompiledProgram.STOP_FERTILIZING, (BasicCommand) command);
+                break;
+            case ShowActiveZones.NAME: {
+                ShowActiveZones showActiveZones = (ShowActiveZones) command;
+                ensureCapacity(1);
+                buffer.put(CompiledProgram.SHOW_ACTIVE_ZONES);
+                writeDateTime(showActiveZones.getFrom());
+                writeDateTime(showActiveZones.getTo());
+                break;
+            }
+            case ShowNextWaterings.NAME:
+                ensureCapacity(1);
+                buffer.put(CompiledProgram.SHOW_NEXT_WATERINGS);
+                writeSigned(((ShowNextWaterings) command).getCount());
+                break;
+            case ShowHumidityHistory.NAME: {
+                ShowHumidityHistory showHumidityHistory = (ShowHumidityHistory) command;
+                writeOpcode(CompiledProgram.SHOW_HUMIDITY_HISTORY, showHumidityHistory);
+                writeDateTime(showHumidityHistory.getFrom());
+                writeDateTime(showHumidityHistory.getTo());
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Cannot compile command: " + command.getName());
+        }
+    }
+
+    private void writeOpcode(byte opcode, BasicCommand command) {
+        ensureCapacity(1);
+        buffer.put(opcode);
+        writeZones(command.getZones());
+    }
+
+    private void writeZones(ZoneSet zones) {
+        writeUnsigned(zones.getRangeCount());
+        int previous = 0;
+        for (int range = 0; range < zones.getRangeCount(); range++) {
+            writeSigned(zones.getFirst(range) - previous);
+            writeUnsigned(zones.getLast(range) - zones.getFirst(range));
+            previous = zones.getLast(range);
+        }
+    }
+
+    private void writeWatering(LocalDateTime firstWatering, LocalTime wateringInterval, Integer waterVolume,
+                               Double wateringDuration, Map.Entry<Integer, Integer> humidityRange) {
+        int present = (waterVolume != null ? CompiledProgram.HAS_WATER_VOLUME : 0)
+                | (wateringDuration != null ? CompiledProgram.HAS_WATERING_DURATION : 0)
+                | (humidityRange != null ? CompiledProgram.HAS_HUMIDITY_RANGE : 0);
+        ensureCapacity(1);
+        buffer.put((byte) present);
+        writeDateTime(firstWatering);
+        writeTime(wateringInterval);
+        if (waterVolume != null) {
+            writeSigned(waterVolume);
+        }
+        if (wateringDuration != null) {
+            ensureCapacity(8);
+            buffer.putDouble(wateringDuration);
+        }
+        if (humidityRange != null) {
+            writeSigned(humidityRange.getKey());
+            writeSigned(humidityRange.getValue());
+        }
+    }
+
+    private void writeDateTime(LocalDateTime dateTime) {
+        ensureCapacity(8);
+        buffer.putLong(dateTime == null ? CompiledProgram.NO_DATE_TIME : dateTime.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private void writeTime(LocalTime time) {
+        writeSigned(time == null ? CompiledProgram.NO_TIME : time.toSecondOfDay());
+    }
+
+    private void writeSigned(int value) {
+        writeUnsigned((value << 1) ^ (value >> 31));
+    }
+
+    private void writeUnsigned(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+
+    public static void main(String... args) throws IOException, ParseException {
+        if (args.length != 2) {
+            System.err.println("Usage: ProgramCompiler <programme.txt> <programme.bin>");
+            System.exit(1);
+        }
+
+        List<Command> commands = new ArrayList<>();
+        try (Reader input = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            CommandReader reader = new TokenParser(new ScanningLexer()).parse(input);
+            Command command;
+            while ((command = reader.next()) != null) {
+                commands.add(command);
+            }
+        }
+        new ProgramCompiler().compile(commands, Paths.get(args[1]));
+    }
+}
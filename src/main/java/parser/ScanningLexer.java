@@ -0,0 +1,97 @@
+package parser;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+public class ScanningLexer implements OffsetLexer {
+    @Override
+    public List<Token> tokenize(String input) throws ParseException {
+        TokenArray tokens = new TokenArray();
+        tokenize(input, tokens);
+
+        List<Token> list = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            list.add(tokens.getToken(i));
+        }
+        return list;
+    }
+
+    @Override
+    public void tokenize(CharSequence input, TokenArray tokens) throws ParseException {
+        tokens.reset(input);
+        int length = input.length();
+        int offset = 0;
+        while (offset < length) {
+            int codePoint = Character.codePointAt(input, offset);
+            int start = offset;
+            TokenType type;
+
+            if (Character.isAlphabetic(codePoint)) {
+                offset = skip(input, offset, Character::isAlphabetic);
+                type = TokenType.STRING;
+            } else if (Character.isDigit(codePoint)) {
+                offset = skip(input, offset, Character::isDigit);
+                type = TokenType.INTEGER_NUMBER;
+            } else if (isWhiteSpace(codePoint)) {
+                offset = skip(input, offset, ScanningLexer::isWhiteSpace);
+                continue;
+            } else {
+                type = separator(codePoint);
+                if (type == null) {
+                    int lineEnd = lineEnd(input, offset);
+                    throw new ParseException("Unexpected character: " + input.subSequence(offset, lineEnd), offset);
+                }
+                offset++;
+            }
+
+            tokens.add(type, start, offset);
+        }
+    }
+
+    static TokenType separator(int codePoint) {
+        switch (codePoint) {
+            case ':':
+                return TokenType.COLON_SEPARATOR;
+            case ';':
+                return TokenType.SEMICOLON_SEPARATOR;
+            case ',':
+                return TokenType.COMMA_SEPARATOR;
+            case '.':
+                return TokenType.DOT_SEPARATOR;
+            case '-':
+                return TokenType.HYPHEN_SEPARATOR;
+            case '(':
+                return TokenType.OPEN_BRACKET;
+            case ')':
+                return TokenType.CLOSE_BRACKET;
+            default:
+                return null;
+        }
+    }
+
+    static boolean isWhiteSpace(int codePoint) {
+        return Character.isSpaceChar(codePoint) || (codePoint >= '\t' && codePoint <= '\r') || codePoint == '\u0085';
+    }
+
+    private static int skip(CharSequence input, int offset, IntPredicate charClass) {
+        int length = input.length();
+        while (offset < length) {
+            int codePoint = Character.codePointAt(input, offset);
+            if (!charClass.test(codePoint)) {
+                break;
+            }
+            offset += Character.charCount(codePoint);
+        }
+        return offset;
+    }
+
+    private static int lineEnd(CharSequence input, int offset) {
+        int end = offset;
+        while (end < input.length() && input.charAt(end) != '\n' && input.charAt(end) != '\r') {
+            end++;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,58 @@
+package parser;
+
+import java.util.Arrays;
+
+/**
+ * Tokens of one input kept as (type, start, end) triples in a single int array.
+ * Token values are not copied out of the source; they are read back from it by offset.
+ */
+public class TokenArray {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private CharSequence source = "";
+    private int[] data = new int[3 * 64];
+    private int size;
+
+    public void reset(CharSequence source) {
+        this.source = source;
+        size = 0;
+    }
+
+    public void add(TokenType type, int start, int end) {
+        if (3 * size == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[3 * size] = type.ordinal();
+        data[3 * size + 1] = start;
+        data[3 * size + 2] = end;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CharSequence getSource() {
+        return source;
+    }
+
+    public TokenType getType(int index) {
+        return TYPES[data[3 * index]];
+    }
+
+    public int getStart(int index) {
+        return data[3 * index + 1];
+    }
+
+    public int getEnd(int index) {
+        return data[3 * index + 2];
+    }
+
+    public String getValue(int index) {
+        return source.subSequence(getStart(index), getEnd(index)).toString();
+    }
+
+    public Token getToken(int index) {
+        return new Token(getType(index), getValue(index));
+    }
+}
@@ -1,257 +1,328 @@
 package parser;
 
 import command.*;
-import parser.Utils.SupplierWithParseException;
+import zone.ZoneSet;
 
 import java.text.ParseException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TokenParser implements Parser {
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15};
+
+    private static final int MAX_POOLED_CONTEXTS = 16;
+    private static final int MAX_POOLED_TOKENS = 1 << 16;
+
     private Lexer lexer;
-    private ListIterator<Token> iterator;
+    private final CommandGrammar grammar;
+    private final Queue<ParseContext> contexts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledContexts = new AtomicInteger();
 
     public TokenParser(Lexer lexer) {
+        this(lexer, CommandGrammar.standard());
+    }
+
+    public TokenParser(Lexer lexer, CommandGrammar grammar) {
         this.lexer = lexer;
+        this.grammar = grammar;
     }
 
     @Override
     public List<Command> parse(String input) throws ParseException {
-        List<Command> commands = new ArrayList<>();
-        List<Token> tokens = lexer.tokenize(input);
-        iterator = tokens.listIterator();
-        while (iterator.hasNext()) {
-            commands.add(parseCommand());
+        ParseContext context = contexts.poll();
+        if (context == null) {
+            context = new ParseContext();
+        } else {
+            pooledContexts.decrementAndGet();
+        }
+
+        try {
+            return context.parse(input);
+        } finally {
+            if (context.release()) {
+                if (pooledContexts.incrementAndGet() <= MAX_POOLED_CONTEXTS) {
+                    contexts.offer(context);
+                } else {
+                    pooledContexts.decrementAndGet();
+                }
+            }
         }
-        return commands;
     }
 
-    private Command parseCommand() throws ParseException {
-        Token commandToken = expectAndReturn(TokenType.STRING);
-        expect(TokenType.COLON_SEPARATOR);
-
-        Command command;
-        int[] zones;
-        LocalDateTime dateTime;
-        LocalTime wateringInterval;
-        Integer waterVolume;
-        Double wateringDuration;
-        LocalTime sensorInterval;
-        Integer fertilizerVolume;
-
-        switch (commandToken.getValue()) {
-            case EnableWatering.NAME:
-                zones = consumeIntOrIntGroup();
-                expect(TokenType.COMMA_SEPARATOR);
-                dateTime = consumeDateTime();
-                expect(TokenType.COMMA_SEPARATOR);
-                wateringInterval = consumeTime();
-                expect(TokenType.COMMA_SEPARATOR);
-                waterVolume = consumeInt();
-                expect(TokenType.COMMA_SEPARATOR);
-                wateringDuration = consumeDouble();
-                expect(TokenType.COMMA_SEPARATOR);
-                Map.Entry<Integer, Integer> humidity = consumeIntRange();
-                command = new EnableWatering(zones, dateTime, wateringInterval, waterVolume, wateringDuration, humidity);
-                break;
-            case ShowWatering.NAME:
-                zones = consumeIntOrIntGroup();
-                command = new ShowWatering(zones);
-                break;
-            case StopWatering.NAME:
-                zones = consumeIntOrIntGroup();
-                command = new StopWatering(zones);
-                break;
-            case ResumeWatering.NAME:
-                zones = consumeIntOrIntGroup();
-                command = new ResumeWatering(zones);
-                break;
-            case ChangeWatering.NAME:
-                zones = consumeIntOrIntGroup();
-                expect(TokenType.COMMA_SEPARATOR);
-                dateTime = consumeOptional(this::consumeDateTime, TokenType.INTEGER_NUMBER).orElse(null);
-                expect(TokenType.COMMA_SEPARATOR);
-                wateringInterval = consumeOptional(this::consumeTime, TokenType.INTEGER_NUMBER).orElse(null);
-                expect(TokenType.COMMA_SEPARATOR);
-                waterVolume = consumeOptional(this::consumeInt, TokenType.INTEGER_NUMBER).orElse(null);
-                expect(TokenType.COMMA_SEPARATOR);
-                wateringDuration = consumeOptional(this::consumeDouble, TokenType.INTEGER_NUMBER).orElse(null);
-                expect(TokenType.COMMA_SEPARATOR);
-                humidity = consumeOptional(this::consumeIntRange, TokenType.INTEGER_NUMBER).orElse(null);
-                command = new ChangeWatering(zones, dateTime, wateringInterval, waterVolume, wateringDuration, humidity);
-                break;
-            case SetSensorPeriodicity.NAME:
-                zones = consumeIntOrIntGroup();
-                expect(TokenType.COMMA_SEPARATOR);
-                sensorInterval = consumeTime();
-                command = new SetSensorPeriodicity(zones, sensorInterval);
-                break;
-            case ShowHumidity.NAME:
-                zones = consumeIntOrIntGroup();
-                command = new ShowHumidity(zones);
-                break;
-            case EnableFertilizing.NAME:
-                zones = consumeIntOrIntGroup();
-                expect(TokenType.COMMA_SEPARATOR);
-                fertilizerVolume = consumeInt();
-                command = new EnableFertilizing(zones, fertilizerVolume);
-                break;
-            case ShowFertilizing.NAME:
-                zones = consumeIntOrIntGroup();
-                command = new ShowFertilizing(zones);
-                break;
-            case ChangeFertilizing.NAME:
-                zones = consumeIntOrIntGroup();
-                expect(TokenType.COMMA_SEPARATOR);
-                fertilizerVolume = consumeInt();
-                command = new ChangeFertilizing(zones, fertilizerVolume);
-                break;
-            case StopFertilizing.NAME:
-                zones = consumeIntOrIntGroup();
-                command = new StopFertilizing(zones);
-                break;
-            default:
-                throw new ParseException("Unknown command: " + commandToken.getValue(), iterator.previousIndex() + 1);
+    /**
+     * State of one parse call. Every call works in a context of its own, taken from a small pool, so a single
+     * parser can be shared by any number of threads. Contexts grown by very large inputs are not pooled.
+     */
+    private class ParseContext {
+        private final TokenArray tokens = new TokenArray();
+        private int position;
+        private boolean inputOffsets;
+        private final ZoneSet.Builder zoneBuilder = new ZoneSet.Builder();
+        private Object[] arguments = new Object[0];
+
+        List<Command> parse(String input) throws ParseException {
+            tokenize(input);
+            position = 0;
+
+            List<Command> commands = new ArrayList<>();
+            while (position < tokens.size()) {
+                commands.add(parseCommand());
+            }
+            return commands;
+        }
 
+        boolean release() {
+            boolean reusable = tokens.size() <= MAX_POOLED_TOKENS;
+            tokens.reset("");
+            return reusable;
         }
-        expect(TokenType.SEMICOLON_SEPARATOR);
 
-        return command;
-    }
+        private void tokenize(String input) throws ParseException {
+            if (lexer instanceof OffsetLexer) {
+                ((OffsetLexer) lexer).tokenize(input, tokens);
+                inputOffsets = true;
+                return;
+            }
 
-    private int consumeInt() throws ParseException {
-        Token token = expectAndReturn(TokenType.INTEGER_NUMBER);
-        return Integer.parseInt(token.getValue());
-    }
+            List<Token> list = lexer.tokenize(input);
+            tokens.reset(input);
+            inputOffsets = true;
+            int cursor = 0;
+            for (Token token : list) {
+                int start = input.indexOf(token.getValue(), cursor);
+                if (start < 0) {
+                    copyTokens(list);
+                    return;
+                }
+                cursor = start + token.getValue().length();
+                tokens.add(token.getType(), start, cursor);
+            }
+        }
 
-    private int[] consumeIntGroup() throws ParseException {
-        List<Integer> integers = new ArrayList<>();
-
-        expect(TokenType.OPEN_BRACKET);
-        TokenType nextTokenType = peekType();
-        while (nextTokenType != TokenType.CLOSE_BRACKET) {
-            if (nextTokenType == TokenType.INTEGER_NUMBER) {
-                integers.add(consumeInt());
-            } else if (nextTokenType == TokenType.HYPHEN_SEPARATOR) {
-                integers.remove(integers.size() - 1);
-                iterator.previous();
-                Map.Entry<Integer, Integer> range = consumeIntRange();
-                IntStream
-                        .range(range.getKey(), range.getValue() + 1)
-                        .boxed()
-                        .collect(Collectors.toCollection(() -> integers));
-            } else {
-                expect(TokenType.COMMA_SEPARATOR);
+        /**
+         * Fallback for lexers whose token values can't be found in order in the input: values are read from a
+         * concatenated copy and error offsets are token indices, as they were before character offsets.
+         */
+        private void copyTokens(List<Token> list) {
+            StringBuilder source = new StringBuilder();
+            tokens.reset(source);
+            inputOffsets = false;
+            for (Token token : list) {
+                int start = source.length();
+                source.append(token.getValue());
+                tokens.add(token.getType(), start, source.length());
             }
-            nextTokenType = peekType();
         }
-        expect(TokenType.CLOSE_BRACKET);
 
-        return integers.stream().mapToInt(i->i).toArray();
-    }
+        private Command parseCommand() throws ParseException {
+            int commandToken = expectAndReturn(TokenType.STRING);
+            expect(TokenType.COLON_SEPARATOR);
 
-    private int[] consumeIntOrIntGroup() throws ParseException {
-        if (peekType() == TokenType.INTEGER_NUMBER) {
-            return new int[] {consumeInt()};
+            CommandSpec spec = grammar.find(tokens.getSource(), tokens.getStart(commandToken),
+                    tokens.getEnd(commandToken));
+            if (spec == null) {
+                throw new ParseException("Unknown command: " + tokens.getValue(commandToken), offsetOf(commandToken));
+            }
+
+            int arity = spec.getArity();
+            if (arguments.length < arity) {
+                arguments = new Object[Math.max(arity, grammar.getMaxArity())];
+            }
+            for (int i = 0; i < arity; i++) {
+                if (i > 0) {
+                    expect(TokenType.COMMA_SEPARATOR);
+                }
+                ArgumentType type = spec.getArgumentType(i);
+                arguments[i] = spec.isOptional(i) && !type.startsWith(peekType()) ? null
+                        : consumeArgument(type);
+            }
+            expect(TokenType.SEMICOLON_SEPARATOR);
+
+            return spec.getFactory().create(arguments);
         }
 
-        return consumeIntGroup();
-    }
+        private Object consumeArgument(ArgumentType type) throws ParseException {
+            switch (type) {
+                case ZONES:
+                    return consumeIntOrIntGroup();
+                case DATE_TIME:
+                    return consumeDateTime();
+                case TIME:
+                    return consumeTime();
+                case INTEGER:
+                    return consumeInt();
+                case DOUBLE:
+                    return consumeDouble();
+                case INTEGER_RANGE:
+                    return consumeIntRange();
+                default:
+                    throw new IllegalArgumentException("Unknown argument type: " + type);
+            }
+        }
 
-    private Map.Entry<Integer, Integer> consumeIntRange() throws ParseException {
-        Token firstNumeric = expectAndReturn(TokenType.INTEGER_NUMBER);
-        int first = Integer.parseInt(firstNumeric.getValue());
+        private int consumeInt() throws ParseException {
+            return parseInt(expectAndReturn(TokenType.INTEGER_NUMBER));
+        }
 
-        expect(TokenType.HYPHEN_SEPARATOR);
+        private ZoneSet consumeIntGroup() throws ParseException {
+            zoneBuilder.clear();
+
+            expect(TokenType.OPEN_BRACKET);
+            TokenType nextTokenType = peekType();
+            while (nextTokenType != TokenType.CLOSE_BRACKET) {
+                if (nextTokenType == TokenType.INTEGER_NUMBER) {
+                    int first = consumeInt();
+                    int last = first;
+                    if (peekType() == TokenType.HYPHEN_SEPARATOR) {
+                        expect(TokenType.HYPHEN_SEPARATOR);
+                        last = consumeInt();
+                    }
+                    zoneBuilder.add(first, last);
+                } else {
+                    expect(TokenType.COMMA_SEPARATOR);
+                }
+                nextTokenType = peekType();
+            }
+            expect(TokenType.CLOSE_BRACKET);
 
-        Token secondNumeric = expectAndReturn(TokenType.INTEGER_NUMBER);
-        int second = Integer.parseInt(secondNumeric.getValue());
+            return zoneBuilder.build();
+        }
 
-        return new AbstractMap.SimpleImmutableEntry<>(first, second);
-    }
+        private ZoneSet consumeIntOrIntGroup() throws ParseException {
+            if (peekType() == TokenType.INTEGER_NUMBER) {
+                int zone = consumeInt();
+                return ZoneSet.range(zone, zone);
+            }
+
+            return consumeIntGroup();
+        }
 
-    private double consumeDouble() throws ParseException {
-        Token integerPart = expectAndReturn(TokenType.INTEGER_NUMBER);
-        String value = integerPart.getValue();
+        private Map.Entry<Integer, Integer> consumeIntRange() throws ParseException {
+            int first = consumeInt();
+            expect(TokenType.HYPHEN_SEPARATOR);
+            int second = consumeInt();
 
-        if (peekType() == TokenType.DOT_SEPARATOR) {
-            expect(TokenType.DOT_SEPARATOR);
-            Token fractionalPart = expectAndReturn(TokenType.INTEGER_NUMBER);
-            value = value + "." + fractionalPart.getValue();
+            return new AbstractMap.SimpleImmutableEntry<>(first, second);
         }
 
-        return Double.parseDouble(value);
-    }
+        private double consumeDouble() throws ParseException {
+            int integerPart = expectAndReturn(TokenType.INTEGER_NUMBER);
+            int integerDigits = tokens.getEnd(integerPart) - tokens.getStart(integerPart);
+            if (peekType() != TokenType.DOT_SEPARATOR) {
+                return integerDigits <= MAX_EXACT_DIGITS ? parseLong(integerPart, 0)
+                        : Double.parseDouble(toAsciiDigits(integerPart));
+            }
 
-    private LocalDateTime consumeDateTime() throws ParseException {
-        Token year = expectAndReturn(TokenType.INTEGER_NUMBER);
-        expect(TokenType.HYPHEN_SEPARATOR);
-        Token month = expectAndReturn(TokenType.INTEGER_NUMBER);
-        expect(TokenType.HYPHEN_SEPARATOR);
-        Token day = expectAndReturn(TokenType.INTEGER_NUMBER);
-        Token hour = expectAndReturn(TokenType.INTEGER_NUMBER);
-        expect(TokenType.COLON_SEPARATOR);
-        Token minute = expectAndReturn(TokenType.INTEGER_NUMBER);
-
-        return LocalDateTime.of(Integer.parseInt(year.getValue()),
-                Integer.parseInt(month.getValue()),
-                Integer.parseInt(day.getValue()),
-                Integer.parseInt(hour.getValue()),
-                Integer.parseInt(minute.getValue()));
-    }
+            expect(TokenType.DOT_SEPARATOR);
+            int fractionalPart = expectAndReturn(TokenType.INTEGER_NUMBER);
+            int fractionalDigits = tokens.getEnd(fractionalPart) - tokens.getStart(fractionalPart);
+            if (integerDigits + fractionalDigits <= MAX_EXACT_DIGITS) {
+                long mantissa = parseLong(fractionalPart, parseLong(integerPart, 0));
+                return mantissa / POWERS_OF_TEN[fractionalDigits];
+            }
 
-    private LocalTime consumeTime() throws ParseException {
-        Token hour = expectAndReturn(TokenType.INTEGER_NUMBER);
-        expect(TokenType.COLON_SEPARATOR);
-        Token minute = expectAndReturn(TokenType.INTEGER_NUMBER);
+            return Double.parseDouble(toAsciiDigits(integerPart) + "." + toAsciiDigits(fractionalPart));
+        }
 
-        int second = 0;
-        if (peekType() == TokenType.COLON_SEPARATOR) {
+        private LocalDateTime consumeDateTime() throws ParseException {
+            int year = consumeInt();
+            expect(TokenType.HYPHEN_SEPARATOR);
+            int month = consumeInt();
+            expect(TokenType.HYPHEN_SEPARATOR);
+            int day = consumeInt();
+            int hour = consumeInt();
             expect(TokenType.COLON_SEPARATOR);
-            Token secondToken = expectAndReturn(TokenType.INTEGER_NUMBER);
-            second = Integer.parseInt(secondToken.getValue());
+            int minute = consumeInt();
+
+            try {
+                return LocalDateTime.of(year, month, day, hour, minute);
+            } catch (DateTimeException dte) {
+                throw new ParseException(dte.getMessage(), offsetOf(position - 1));
+            }
         }
 
-        return LocalTime.of(Integer.parseInt(hour.getValue()),
-                Integer.parseInt(minute.getValue()),
-                second);
-    }
+        private LocalTime consumeTime() throws ParseException {
+            int hour = consumeInt();
+            expect(TokenType.COLON_SEPARATOR);
+            int minute = consumeInt();
 
-    private void expect(TokenType type) throws ParseException {
-        expectAndReturn(type);
-    }
+            int second = 0;
+            if (peekType() == TokenType.COLON_SEPARATOR) {
+                expect(TokenType.COLON_SEPARATOR);
+                second = consumeInt();
+            }
 
-    private Token expectAndReturn(TokenType type) throws ParseException {
-        Token token;
-        try {
-            token = iterator.next();
-        } catch (NoSuchElementException nsee) {
-            throw new ParseException("Couldn't find token type: " + type, iterator.previousIndex());
+            try {
+                return LocalTime.of(hour, minute, second);
+            } catch (DateTimeException dte) {
+                throw new ParseException(dte.getMessage(), offsetOf(position - 1));
+            }
+        }
+
+        private int parseInt(int token) throws ParseException {
+            long value = parseLong(token, 0);
+            if (value > Integer.MAX_VALUE) {
+                throw new ParseException("Number is too large: " + tokens.getValue(token), offsetOf(token));
+            }
+            return (int) value;
         }
-        if (token.getType() != type) {
-            throw new ParseException("Wrong token type: " + token.getType() + ", expected " + type, iterator.previousIndex() + 1);
+
+        private long parseLong(int token, long prefix) throws ParseException {
+            CharSequence source = tokens.getSource();
+            long value = prefix;
+            for (int i = tokens.getStart(token); i < tokens.getEnd(token); i++) {
+                int digit = Character.digit(source.charAt(i), 10);
+                if (digit < 0 || value > (Long.MAX_VALUE - digit) / 10) {
+                    throw new ParseException("Invalid number: " + tokens.getValue(token), offsetOf(token));
+                }
+                value = value * 10 + digit;
+            }
+            return value;
         }
-        return token;
-    }
 
-    private <T> Optional<T> consumeOptional(SupplierWithParseException<T> supplier, TokenType expectedType)
-            throws ParseException {
-        Optional<T> value = Optional.empty();
-        if (peekType() == expectedType) {
-            value = Optional.of(supplier.get());
+        private String toAsciiDigits(int token) {
+            CharSequence source = tokens.getSource();
+            StringBuilder digits = new StringBuilder();
+            for (int i = tokens.getStart(token); i < tokens.getEnd(token); i++) {
+                digits.append((char) ('0' + Character.digit(source.charAt(i), 10)));
+            }
+            return digits.toString();
         }
 
-        return value;
-    }
+        private int offsetOf(int token) {
+            if (!inputOffsets) {
+                return token;
+            }
+            return token < tokens.size() ? tokens.getStart(token) : tokens.getSource().length();
+        }
 
-    private TokenType peekType() throws ParseException {
-        try {
-            return Utils.peek(iterator).getType();
-        } catch (NoSuchElementException nsee) {
-            throw new ParseException("Couldn't find next token", iterator.nextIndex());
+        private void expect(TokenType type) throws ParseException {
+            expectAndReturn(type);
+        }
+
+        private int expectAndReturn(TokenType type) throws ParseException {
+            if (position >= tokens.size()) {
+                throw new ParseException("Couldn't find token type: " + type, offsetOf(position));
+            }
+            int token = position++;
+            if (tokens.getType(token) != type) {
+                throw new ParseException("Wrong token type: " + tokens.getType(token) + ", expected " + type,
+                        offsetOf(token));
+            }
+            return token;
+        }
+
+        private TokenType peekType() throws ParseException {
+            if (position >= tokens.size()) {
+                throw new ParseException("Couldn't find next token", offsetOf(position));
+            }
+            return tokens.getType(position);
         }
     }
 }
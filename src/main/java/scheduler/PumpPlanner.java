@@ -0,0 +1,150 @@
+package scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Books watering windows against a global pump flow capacity.
+ * Planned flow is kept as a step function (time -> flow in ml/min from that time on), so finding the
+ * earliest start that fits only walks the steps overlapping the requested window.
+ */
+public class PumpPlanner {
+    private final long capacity;
+    private final TreeMap<Long, Long> steps = new TreeMap<>();
+    private final Map<Integer, Reservation> reservations = new HashMap<>();
+
+    public PumpPlanner(double capacityLitresPerMinute) {
+        if (capacityLitresPerMinute <= 0) {
+            throw new IllegalArgumentException("Pump capacity must be positive");
+        }
+        this.capacity = Math.round(capacityLitresPerMinute * 1000);
+    }
+
+    public double getCapacity() {
+        return capacity / 1000.0;
+    }
+
+    public synchronized Reservation reserve(int zoneId, double flowLitresPerMinute, long now, long duration) {
+        prune(now);
+
+        long flow = Math.min(capacity, Math.max(0, Math.round(flowLitresPerMinute * 1000)));
+        long start = earliestFit(now, duration, flow);
+        Reservation reservation = new Reservation(zoneId, start, start + duration, flow);
+        addFlow(reservation.start, reservation.end, flow);
+        reservations.put(zoneId, reservation);
+        return reservation;
+    }
+
+    public synchronized void release(int zoneId, long now) {
+        Reservation reservation = reservations.remove(zoneId);
+        if (reservation == null || reservation.cancelled) {
+            return;
+        }
+        reservation.cancelled = true;
+        long from = Math.max(reservation.start, now);
+        if (from < reservation.end) {
+            addFlow(from, reservation.end, -reservation.flow);
+        }
+    }
+
+    public synchronized boolean hasPendingStart(int zoneId, long now) {
+        Reservation reservation = reservations.get(zoneId);
+        return reservation != null && !reservation.cancelled && reservation.start > now;
+    }
+
+    public synchronized double getPlannedFlow(long time) {
+        Map.Entry<Long, Long> step = steps.floorEntry(time);
+        return step == null ? 0 : step.getValue() / 1000.0;
+    }
+
+    private long earliestFit(long earliestStart, long duration, long flow) {
+        long candidate = earliestStart;
+        boolean fits = false;
+        while (!fits) {
+            fits = true;
+            Long from = steps.floorKey(candidate);
+            NavigableMap<Long, Long> window = steps.subMap(from == null ? candidate : from, true,
+                    candidate + Math.max(1, duration), false);
+            for (Map.Entry<Long, Long> step : window.entrySet()) {
+                Long next = steps.higherKey(step.getKey());
+                if (step.getValue() + flow > capacity && next != null) {
+                    candidate = Math.max(candidate, next);
+                    fits = false;
+                    break;
+                }
+            }
+        }
+        return candidate;
+    }
+
+    private void addFlow(long from, long to, long flow) {
+        if (from >= to || flow == 0) {
+            return;
+        }
+        split(from);
+        split(to);
+        for (Map.Entry<Long, Long> step : steps.subMap(from, true, to, false).entrySet()) {
+            step.setValue(step.getValue() + flow);
+        }
+        coalesce(from);
+        coalesce(to);
+    }
+
+    private void split(long time) {
+        if (!steps.containsKey(time)) {
+            Map.Entry<Long, Long> previous = steps.floorEntry(time);
+            steps.put(time, previous == null ? 0 : previous.getValue());
+        }
+    }
+
+    private void coalesce(long time) {
+        Long value = steps.get(time);
+        if (value == null) {
+            return;
+        }
+        Map.Entry<Long, Long> previous = steps.lowerEntry(time);
+        if (previous == null ? value == 0 : previous.getValue().equals(value)) {
+            steps.remove(time);
+        }
+    }
+
+    private void prune(long now) {
+        Long current = steps.floorKey(now);
+        if (current != null) {
+            steps.headMap(current, false).clear();
+        }
+    }
+
+    public static class Reservation {
+        private final int zoneId;
+        private final long start;
+        private final long end;
+        private final long flow;
+        private volatile boolean cancelled;
+
+        Reservation(int zoneId, long start, long end, long flow) {
+            this.zoneId = zoneId;
+            this.start = start;
+            this.end = end;
+            this.flow = flow;
+        }
+
+        public int getZoneId() {
+            return zoneId;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package scheduler;
+
+public interface ScheduledTask {
+    boolean cancel();
+    boolean isCancelled();
+}
@@ -0,0 +1,20 @@
+package scheduler;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+public interface Scheduler {
+    Clock getClock();
+    ScheduledTask schedule(Runnable task, long delay);
+    ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period);
+    void shutdown();
+
+    default List<ScheduledTask> scheduleAllAtFixedRate(List<Runnable> tasks, long initialDelay, long period) {
+        List<ScheduledTask> scheduled = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            scheduled.add(scheduleAtFixedRate(task, initialDelay, period));
+        }
+        return scheduled;
+    }
+}
@@ -0,0 +1,147 @@
+package scheduler;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel with four levels of 256 slots, covering 2^32 ticks.
+ * Entries are kept in intrusive doubly linked lists, so adding and removing are O(1).
+ * Not thread-safe, callers are expected to synchronize.
+ */
+class TimingWheel {
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void add(Entry entry) {
+        if (entry.level >= 0) {
+            throw new IllegalStateException("Entry is already scheduled");
+        }
+        place(entry, currentTick + 1);
+        size++;
+    }
+
+    boolean remove(Entry entry) {
+        if (entry.level < 0) {
+            return false;
+        }
+        unlink(entry);
+        size--;
+        return true;
+    }
+
+    void advance(long tick, Consumer<Entry> expired) {
+        while (currentTick < tick) {
+            currentTick++;
+
+            int index = (int) (currentTick & SLOT_MASK);
+            for (int level = 1; level < LEVELS && index == 0; level++) {
+                index = (int) ((currentTick >>> (level * SLOT_BITS)) & SLOT_MASK);
+                cascade(level, index);
+            }
+
+            int slot = (int) (currentTick & SLOT_MASK);
+            Entry entry = detach(0, slot);
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                if (entry.expiryTick <= currentTick) {
+                    size--;
+                    expired.accept(entry);
+                } else {
+                    place(entry, currentTick);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    private void cascade(int level, int index) {
+        Entry entry = detach(level, index);
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.next = null;
+            place(entry, currentTick);
+            entry = next;
+        }
+    }
+
+    private Entry detach(int level, int index) {
+        Entry head = slots[level][index];
+        slots[level][index] = null;
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            entry.level = -1;
+            entry.prev = null;
+        }
+        return head;
+    }
+
+    private void place(Entry entry, long earliestTick) {
+        long expiry = Math.max(entry.expiryTick, earliestTick);
+        long delta = expiry - currentTick;
+
+        if (delta >= MAX_SPAN) {
+            expiry = currentTick + MAX_SPAN - 1;
+            delta = MAX_SPAN - 1;
+        }
+
+        int level = 0;
+        while (delta >= 1L << ((level + 1) * SLOT_BITS)) {
+            level++;
+        }
+        int index = (int) ((expiry >>> (level * SLOT_BITS)) & SLOT_MASK);
+
+        Entry head = slots[level][index];
+        entry.next = head;
+        entry.prev = null;
+        if (head != null) {
+            head.prev = entry;
+        }
+        slots[level][index] = entry;
+        entry.level = level;
+        entry.index = index;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.level][entry.index] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        entry.level = -1;
+    }
+
+    static class Entry {
+        long expiryTick;
+        private Entry prev;
+        private Entry next;
+        private int level = -1;
+        private int index;
+
+        boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package scheduler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TimingWheelScheduler implements Scheduler {
+    private static final Logger generalLogger = LogManager.getLogger("error");
+    private static final long DEFAULT_TICK_MILLIS = 10;
+    private static final int DEFAULT_WORKERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private final Object lock = new Object();
+    private final Clock clock;
+    private final long tickMillis;
+    private final long startMillis;
+    private final TimingWheel wheel;
+    private final ExecutorService workers;
+    private final Thread ticker;
+    private volatile boolean running = true;
+
+    public TimingWheelScheduler() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public TimingWheelScheduler(Clock clock) {
+        this(clock, DEFAULT_TICK_MILLIS, DEFAULT_WORKERS);
+    }
+
+    public TimingWheelScheduler(Clock clock, long tickMillis, int workerCount) {
+        if (tickMillis <= 0 || workerCount <= 0) {
+            throw new IllegalArgumentException("Tick duration and worker count must be positive");
+        }
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.startMillis = clock.millis();
+        this.wheel = new TimingWheel(0);
+
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "scheduler-worker-" + workerNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.ticker = new Thread(this::tickLoop, "scheduler-ticker");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    @Override
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public ScheduledTask schedule(Runnable task, long delay) {
+        return submit(Collections.singletonList(task), delay, 0).get(0);
+    }
+
+    @Override
+    public ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Non-positive period.");
+        }
+        return submit(Collections.singletonList(task), initialDelay, period).get(0);
+    }
+
+    @Override
+    public List<ScheduledTask> scheduleAllAtFixedRate(List<Runnable> runnables, long initialDelay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Non-positive period.");
+        }
+        return submit(runnables, initialDelay, period);
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        ticker.interrupt();
+        workers.shutdownNow();
+    }
+
+    int size() {
+        synchronized (lock) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Adds the tasks to the wheel under one lock. Due times are kept in milliseconds since start and rounded up
+     * to a tick only when placed, so a period that is not a multiple of the tick does not drift.
+     */
+    private List<ScheduledTask> submit(List<Runnable> runnables, long delay, long period) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Negative delay.");
+        }
+        if (!running) {
+            throw new IllegalStateException("Scheduler already shut down.");
+        }
+
+        long dueMillis = clock.millis() - startMillis + delay;
+        List<ScheduledTask> tasks = new ArrayList<>(runnables.size());
+        synchronized (lock) {
+            for (Runnable runnable : runnables) {
+                Task task = new Task(runnable, period, dueMillis);
+                wheel.add(task);
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    private long toTick(long elapsedMillis) {
+        return (elapsedMillis + tickMillis - 1) / tickMillis;
+    }
+
+    private void tickLoop() {
+        List<Task> expired = new ArrayList<>();
+        while (running) {
+            long targetTick = (clock.millis() - startMillis) / tickMillis;
+
+            synchronized (lock) {
+                wheel.advance(targetTick, entry -> {
+                    Task task = (Task) entry;
+                    if (task.periodMillis > 0) {
+                        task.setDueMillis(task.dueMillis + task.periodMillis);
+                        wheel.add(task);
+                    }
+                    expired.add(task);
+                });
+            }
+
+            for (Task task : expired) {
+                try {
+                    workers.execute(task);
+                } catch (RejectedExecutionException ree) {
+                    return;
+                }
+            }
+            expired.clear();
+
+            long nextTickMillis = startMillis + (targetTick + 1) * tickMillis;
+            long sleep = nextTickMillis - clock.millis();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(sleep);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private class Task extends TimingWheel.Entry implements ScheduledTask, Runnable {
+        private final Runnable runnable;
+        private final long periodMillis;
+        private long dueMillis;
+        private volatile boolean cancelled;
+
+        Task(Runnable runnable, long periodMillis, long dueMillis) {
+            this.runnable = runnable;
+            this.periodMillis = periodMillis;
+            setDueMillis(dueMillis);
+        }
+
+        private void setDueMillis(long dueMillis) {
+            this.dueMillis = dueMillis;
+            this.expiryTick = toTick(dueMillis);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                runnable.run();
+            } catch (RuntimeException re) {
+                generalLogger.error(re.getMessage(), re);
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            synchronized (lock) {
+                if (cancelled) {
+                    return false;
+                }
+                cancelled = true;
+                wheel.remove(this);
+                return true;
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
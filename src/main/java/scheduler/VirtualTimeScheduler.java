@@ -0,0 +1,200 @@
+package scheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Scheduler that runs tasks on the calling thread in simulated time.
+ * The clock stands still until {@link #runNext()} or one of the advance methods jumps it to the next due task.
+ */
+public class VirtualTimeScheduler implements Scheduler {
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final VirtualClock clock;
+    private long currentMillis;
+    private long sequence;
+    private long executedTasks;
+
+    public VirtualTimeScheduler(LocalDateTime start, ZoneId zone) {
+        this(start.atZone(zone).toInstant(), zone);
+    }
+
+    public VirtualTimeScheduler(Instant start, ZoneId zone) {
+        this.currentMillis = start.toEpochMilli();
+        this.clock = new VirtualClock(this, zone);
+    }
+
+    @Override
+    public Clock getClock() {
+        return clock;
+    }
+
+    @Override
+    public synchronized ScheduledTask schedule(Runnable task, long delay) {
+        return submit(task, delay, 0);
+    }
+
+    @Override
+    public synchronized ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Non-positive period.");
+        }
+        return submit(task, initialDelay, period);
+    }
+
+    @Override
+    public synchronized List<ScheduledTask> scheduleAllAtFixedRate(List<Runnable> tasks, long initialDelay,
+                                                                   long period) {
+        return Scheduler.super.scheduleAllAtFixedRate(tasks, initialDelay, period);
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        queue.clear();
+    }
+
+    public synchronized boolean runNext() {
+        Task task = pollActive();
+        if (task == null) {
+            return false;
+        }
+        run(task);
+        return true;
+    }
+
+    public synchronized void advanceTo(long targetMillis) {
+        Task task = peekActive();
+        while (task != null && task.time <= targetMillis) {
+            queue.poll();
+            run(task);
+            task = peekActive();
+        }
+        currentMillis = Math.max(currentMillis, targetMillis);
+    }
+
+    public void advanceTo(Instant instant) {
+        advanceTo(instant.toEpochMilli());
+    }
+
+    public synchronized void advanceBy(Duration duration) {
+        advanceTo(currentMillis + duration.toMillis());
+    }
+
+    public synchronized long currentMillis() {
+        return currentMillis;
+    }
+
+    public synchronized int pendingTasks() {
+        return queue.size();
+    }
+
+    public synchronized long executedTasks() {
+        return executedTasks;
+    }
+
+    private ScheduledTask submit(Runnable runnable, long delay, long period) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Negative delay.");
+        }
+        Task task = new Task(runnable, currentMillis + delay, period, sequence++);
+        queue.add(task);
+        return task;
+    }
+
+    private void run(Task task) {
+        currentMillis = Math.max(currentMillis, task.time);
+        if (task.period > 0) {
+            task.time += task.period;
+            task.sequence = sequence++;
+            queue.add(task);
+        }
+        executedTasks++;
+        task.runnable.run();
+    }
+
+    private Task peekActive() {
+        Task task = queue.peek();
+        while (task != null && task.cancelled) {
+            queue.poll();
+            task = queue.peek();
+        }
+        return task;
+    }
+
+    private Task pollActive() {
+        Task task = peekActive();
+        if (task != null) {
+            queue.poll();
+        }
+        return task;
+    }
+
+    private static class Task implements ScheduledTask, Comparable<Task> {
+        private final Runnable runnable;
+        private final long period;
+        private long time;
+        private long sequence;
+        private volatile boolean cancelled;
+
+        Task(Runnable runnable, long time, long period, long sequence) {
+            this.runnable = runnable;
+            this.time = time;
+            this.period = period;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int result = Long.compare(time, other.time);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static class VirtualClock extends Clock {
+        private final VirtualTimeScheduler scheduler;
+        private final ZoneId zone;
+
+        VirtualClock(VirtualTimeScheduler scheduler, ZoneId zone) {
+            this.scheduler = scheduler;
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new VirtualClock(scheduler, zone);
+        }
+
+        @Override
+        public long millis() {
+            return scheduler.currentMillis();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+    }
+}
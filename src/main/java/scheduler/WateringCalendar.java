@@ -0,0 +1,159 @@
+package scheduler;
+
+import java.util.*;
+
+/**
+ * Index of upcoming watering windows of periodic zone schedules.
+ * Windows are materialised lazily up to a rolling horizon and kept ordered by start, so overlap and
+ * "next N" queries only touch the windows near the requested time.
+ */
+public class WateringCalendar {
+    private static final int MAX_WINDOWS_PER_ZONE = 1024;
+    private static final Comparator<WateringWindow> BY_START = Comparator
+            .comparingLong(WateringWindow::getStart)
+            .thenComparingInt(WateringWindow::getZoneId);
+    private static final Comparator<Schedule> BY_NEXT_START = Comparator
+            .comparingLong((Schedule schedule) -> schedule.nextStart)
+            .thenComparingInt(schedule -> schedule.zoneId);
+
+    private final long horizon;
+    private final TreeSet<WateringWindow> windows = new TreeSet<>(BY_START);
+    private final TreeSet<Schedule> pending = new TreeSet<>(BY_NEXT_START);
+    private final Map<Integer, Schedule> schedules = new HashMap<>();
+    private final TreeMap<Long, Integer> durations = new TreeMap<>();
+    private long lastNow = Long.MIN_VALUE;
+
+    public WateringCalendar(long horizon) {
+        if (horizon <= 0) {
+            throw new IllegalArgumentException("Horizon must be positive");
+        }
+        this.horizon = horizon;
+    }
+
+    public long getHorizon() {
+        return horizon;
+    }
+
+    public synchronized void put(int zoneId, long firstStart, long period, long duration, long now) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Non-positive period.");
+        }
+        remove(zoneId);
+
+        Schedule schedule = new Schedule(zoneId, period, Math.max(0, duration));
+        long skipped = Math.max(0, Math.floorDiv(now - schedule.duration - firstStart, period) + 1);
+        schedule.nextStart = firstStart + skipped * period;
+        schedules.put(zoneId, schedule);
+        pending.add(schedule);
+        durations.merge(schedule.duration, 1, Integer::sum);
+        lastNow = Math.max(lastNow, now);
+    }
+
+    public synchronized void putAll(int[] zoneIds, long firstStart, long period, long duration, long now) {
+        for (int zoneId : zoneIds) {
+            put(zoneId, firstStart, period, duration, now);
+        }
+    }
+
+    public synchronized void remove(int zoneId) {
+        Schedule schedule = schedules.remove(zoneId);
+        if (schedule == null) {
+            return;
+        }
+        pending.remove(schedule);
+        for (WateringWindow window : schedule.windows) {
+            windows.remove(window);
+        }
+        durations.computeIfPresent(schedule.duration, (duration, count) -> count > 1 ? count - 1 : null);
+    }
+
+    public synchronized SortedSet<Integer> findZonesActiveBetween(long from, long to, long now) {
+        advance(now);
+
+        SortedSet<Integer> zones = new TreeSet<>();
+        if (windows.isEmpty() || from >= to) {
+            return zones;
+        }
+
+        long earliestStart = from - durations.lastKey();
+        for (WateringWindow window : windows.subSet(probe(earliestStart), true, probe(to), false)) {
+            if (window.getEnd() > from || window.getStart() >= from) {
+                zones.add(window.getZoneId());
+            }
+        }
+        return zones;
+    }
+
+    public synchronized List<WateringWindow> findNextWaterings(int count, long now) {
+        advance(now);
+
+        List<WateringWindow> next = new ArrayList<>(Math.min(count, windows.size()));
+        for (WateringWindow window : windows.tailSet(probe(now), true)) {
+            if (next.size() >= count) {
+                break;
+            }
+            next.add(window);
+        }
+        return next;
+    }
+
+    public synchronized int size() {
+        extend(lastNow);
+        return windows.size();
+    }
+
+    private void advance(long now) {
+        lastNow = Math.max(lastNow, now);
+        prune(now);
+        extend(now);
+    }
+
+    private void prune(long now) {
+        while (!windows.isEmpty() && windows.first().getEnd() <= now && windows.first().getStart() < now) {
+            WateringWindow window = windows.pollFirst();
+            Schedule schedule = schedules.get(window.getZoneId());
+            schedule.windows.pollFirst();
+            if (schedule.capped) {
+                schedule.capped = false;
+                pending.add(schedule);
+            }
+        }
+    }
+
+    private void extend(long now) {
+        long horizonEnd = now + horizon;
+        while (!pending.isEmpty() && pending.first().nextStart < horizonEnd) {
+            Schedule schedule = pending.pollFirst();
+            WateringWindow window = new WateringWindow(schedule.zoneId, schedule.nextStart,
+                    schedule.nextStart + schedule.duration);
+            windows.add(window);
+            schedule.windows.addLast(window);
+            schedule.nextStart += schedule.period;
+
+            if (schedule.windows.size() >= MAX_WINDOWS_PER_ZONE) {
+                schedule.capped = true;
+            } else {
+                pending.add(schedule);
+            }
+        }
+    }
+
+    private static WateringWindow probe(long time) {
+        return new WateringWindow(Integer.MIN_VALUE, time, time);
+    }
+
+    private static class Schedule {
+        private final int zoneId;
+        private final long period;
+        private final long duration;
+        private final ArrayDeque<WateringWindow> windows = new ArrayDeque<>();
+        private long nextStart;
+        private boolean capped;
+
+        Schedule(int zoneId, long period, long duration) {
+            this.zoneId = zoneId;
+            this.period = period;
+            this.duration = duration;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package scheduler;
+
+public class WateringWindow {
+    private final int zoneId;
+    private final long start;
+    private final long end;
+
+    public WateringWindow(int zoneId, long start, long end) {
+        this.zoneId = zoneId;
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getZoneId() {
+        return zoneId;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,120 @@
+package simulation;
+
+import core.App;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import parser.ScanningLexer;
+import parser.TokenParser;
+import scheduler.VirtualTimeScheduler;
+import zone.ZoneDAO;
+import zone.ZoneDAOLocal;
+import zone.ZonePopulation;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+public class Simulation {
+    private static final String USAGE = "Usage: Simulation <programme file> <horizon, e.g. P30D> " +
+            "[--start=2017-11-10T00:00] [--zones=1-15] [--pump-capacity=<L/min>] [--trace=<trace file>]";
+
+    private final VirtualTimeScheduler scheduler;
+    private final App app;
+    private final SimulationRecorder recorder;
+
+    public Simulation(LocalDateTime start, ZonePopulation zonePopulation, Writer trace) {
+        ZoneId zone = ZoneId.systemDefault();
+        ZoneDAO zoneDAO = new ZoneDAOLocal();
+        scheduler = new VirtualTimeScheduler(start, zone);
+        recorder = new SimulationRecorder(zoneDAO, scheduler.getClock(), trace);
+        app = new App(zoneDAO, new TokenParser(new ScanningLexer()), scheduler);
+        app.setEventSink(recorder);
+        app.setZonePopulation(zonePopulation);
+        app.startSensors();
+    }
+
+    public void setPumpCapacity(double litresPerMinute) {
+        app.setPumpCapacity(litresPerMinute);
+    }
+
+    public void load(String programme) throws ParseException {
+        app.handleCommands(programme);
+    }
+
+    public void load(Reader programme) throws IOException, ParseException {
+        app.handleCommands(programme);
+    }
+
+    public void run(Duration horizon) {
+        scheduler.advanceBy(horizon);
+        recorder.flush();
+    }
+
+    public long getExecutedEvents() {
+        return scheduler.executedTasks();
+    }
+
+    public SimulationRecorder getRecorder() {
+        return recorder;
+    }
+
+    public static void main(String... args) throws IOException, ParseException {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+
+        Path programme = Paths.get(args[0]);
+        Duration horizon = Duration.parse(args[1]);
+        LocalDateTime start = LocalDate.now().atStartOfDay();
+        ZonePopulation zonePopulation = ZonePopulation.range(1, 15);
+        double pumpCapacity = 0;
+        String tracePath = null;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--start=")) {
+                start = LocalDateTime.parse(args[i].substring("--start=".length()));
+            } else if (args[i].startsWith("--zones=")) {
+                zonePopulation = ZonePopulation.parse(args[i].substring("--zones=".length()));
+            } else if (args[i].startsWith("--pump-capacity=")) {
+                pumpCapacity = Double.parseDouble(args[i].substring("--pump-capacity=".length()));
+            } else if (args[i].startsWith("--trace=")) {
+                tracePath = args[i].substring("--trace=".length());
+            } else {
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+        }
+
+        Configurator.setLevel("sensor", Level.OFF);
+
+        Writer trace = tracePath == null ? null : new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tracePath), StandardCharsets.UTF_8), 1 << 16);
+        try {
+            Simulation simulation = new Simulation(start, zonePopulation, trace);
+            simulation.setPumpCapacity(pumpCapacity);
+            try (Reader input = Files.newBufferedReader(programme, StandardCharsets.UTF_8)) {
+                simulation.load(input);
+            }
+
+            long startNanos = System.nanoTime();
+            simulation.run(horizon);
+            long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1000000);
+
+            System.out.println(String.format("Simulated %s from %s: %d events in %d ms (%.0f events/s)",
+                    horizon, start, simulation.getExecutedEvents(), elapsedMillis,
+                    simulation.getExecutedEvents() * 1000.0 / elapsedMillis));
+            simulation.getRecorder().writeSummary(System.out);
+        } finally {
+            if (trace != null) {
+                trace.close();
+            }
+        }
+    }
+}
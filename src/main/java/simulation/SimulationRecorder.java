@@ -0,0 +1,188 @@
+package simulation;
+
+import core.EventSink;
+import zone.Zone;
+import zone.ZoneDAO;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SimulationRecorder implements EventSink {
+    private final ZoneDAO zoneDAO;
+    private final Clock clock;
+    private final long startMillis;
+    private final Writer trace;
+
+    private final Map<Integer, ZoneStatistics> zones = new HashMap<>();
+    private int activeWaterings;
+    private int maxConcurrentWaterings;
+    private long overlappingWaterings;
+    private long sensorSamples;
+    private long messages;
+
+    public SimulationRecorder(ZoneDAO zoneDAO, Clock clock, Writer trace) {
+        this.zoneDAO = zoneDAO;
+        this.clock = clock;
+        this.startMillis = clock.millis();
+        this.trace = trace;
+    }
+
+    @Override
+    public void print(String message) {
+        messages++;
+    }
+
+    @Override
+    public void wateringStarted(int zoneId) {
+        ZoneStatistics statistics = statistics(zoneId);
+        Zone zone = zoneDAO.find(zoneId);
+        statistics.waterings++;
+        statistics.waterUsed += zone.getWaterVolume();
+
+        if (!statistics.watering) {
+            statistics.watering = true;
+            activeWaterings++;
+            if (activeWaterings > 1) {
+                overlappingWaterings++;
+            }
+            maxConcurrentWaterings = Math.max(maxConcurrentWaterings, activeWaterings);
+        }
+        trace("W+", zoneId, -1);
+    }
+
+    @Override
+    public void wateringStopped(int zoneId) {
+        ZoneStatistics statistics = statistics(zoneId);
+        if (statistics.watering) {
+            statistics.watering = false;
+            activeWaterings--;
+            trace("W-", zoneId, -1);
+        }
+    }
+
+    @Override
+    public void fertilizingStarted(int zoneId) {
+        ZoneStatistics statistics = statistics(zoneId);
+        statistics.fertilizings++;
+        statistics.fertilizerUsed += zoneDAO.find(zoneId).getFertilizerVolume();
+        trace("F+", zoneId, -1);
+    }
+
+    @Override
+    public void fertilizingStopped(int zoneId) {
+    }
+
+    @Override
+    public void humidityMeasured(int zoneId, int humidity) {
+        ZoneStatistics statistics = statistics(zoneId);
+        statistics.sensorSamples++;
+        statistics.humiditySum += humidity;
+        sensorSamples++;
+        trace("H", zoneId, humidity);
+    }
+
+    @Override
+    public void alarmRaised(int zoneId) {
+        trace("A+", zoneId, -1);
+    }
+
+    @Override
+    public void alarmCleared(int zoneId) {
+        trace("A-", zoneId, -1);
+    }
+
+    public long getSensorSamples() {
+        return sensorSamples;
+    }
+
+    public long getOverlappingWaterings() {
+        return overlappingWaterings;
+    }
+
+    public int getMaxConcurrentWaterings() {
+        return maxConcurrentWaterings;
+    }
+
+    public long getWaterUsed(int zoneId) {
+        ZoneStatistics statistics = zones.get(zoneId);
+        return statistics != null ? statistics.waterUsed : 0;
+    }
+
+    public long getWaterings(int zoneId) {
+        ZoneStatistics statistics = zones.get(zoneId);
+        return statistics != null ? statistics.waterings : 0;
+    }
+
+    public void flush() {
+        if (trace == null) {
+            return;
+        }
+        try {
+            trace.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeSummary(PrintStream out) {
+        out.println("Zone  Waterings  Water, L  Fertilizings  Fertilizer, L  Sensor samples  Avg humidity");
+        long totalWater = 0;
+        for (Map.Entry<Integer, ZoneStatistics> entry : new TreeMap<>(zones).entrySet()) {
+            int zoneId = entry.getKey();
+            ZoneStatistics statistics = entry.getValue();
+            totalWater += statistics.waterUsed;
+            double averageHumidity = statistics.sensorSamples == 0 ? 0 :
+                    (double) statistics.humiditySum / statistics.sensorSamples;
+            out.println(String.format("%4d  %9d  %8d  %12d  %13d  %14d  %11.1f%%",
+                    zoneId, statistics.waterings, statistics.waterUsed, statistics.fertilizings,
+                    statistics.fertilizerUsed, statistics.sensorSamples, averageHumidity));
+        }
+        out.println(String.format("Total water used: %dL", totalWater));
+        out.println(String.format("Overlapping waterings: %d, max concurrent waterings: %d",
+                overlappingWaterings, maxConcurrentWaterings));
+        out.println(String.format("Sensor samples: %d, messages: %d", sensorSamples, messages));
+    }
+
+    /**
+     * Statistics are kept by zone id rather than indexed by it, so a sparse population costs one entry per zone.
+     */
+    private ZoneStatistics statistics(int zoneId) {
+        return zones.computeIfAbsent(zoneId, id -> new ZoneStatistics());
+    }
+
+    private void trace(String event, int zoneId, int value) {
+        if (trace == null) {
+            return;
+        }
+        try {
+            trace.write(Long.toString((clock.millis() - startMillis) / 1000));
+            trace.write(' ');
+            trace.write(event);
+            trace.write(' ');
+            trace.write(Integer.toString(zoneId));
+            if (value >= 0) {
+                trace.write(' ');
+                trace.write(Integer.toString(value));
+            }
+            trace.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class ZoneStatistics {
+        private long waterings;
+        private long waterUsed;
+        private long fertilizings;
+        private long fertilizerUsed;
+        private long sensorSamples;
+        private long humiditySum;
+        private boolean watering;
+    }
+}
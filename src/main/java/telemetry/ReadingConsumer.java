@@ -0,0 +1,5 @@
+package telemetry;
+
+public interface ReadingConsumer {
+    void accept(int zoneId, long time, int value);
+}
@@ -0,0 +1,65 @@
+package telemetry;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring of readings with one writer thread and one reader thread. Records live in preallocated primitive arrays
+ * and the two sides only publish their positions, so a write is three array stores and an ordered store.
+ */
+class ReadingRing {
+    private final Thread owner;
+    private final int[] zoneIds;
+    private final long[] times;
+    private final int[] values;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private long cachedHead;
+
+    ReadingRing(Thread owner, int capacity) {
+        this.owner = owner;
+        this.zoneIds = new int[capacity];
+        this.times = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    boolean offer(int zoneId, long time, int value) {
+        long position = tail.get();
+        if (position - cachedHead > mask) {
+            cachedHead = head.get();
+            if (position - cachedHead > mask) {
+                return false;
+            }
+        }
+        int slot = (int) position & mask;
+        zoneIds[slot] = zoneId;
+        times[slot] = time;
+        values[slot] = value;
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Moves as many readings as fit into the buffer. Returns the number moved.
+     */
+    int drainTo(ByteBuffer buffer) {
+        long position = head.get();
+        long available = Math.min(tail.get() - position, buffer.remaining() / TelemetryJournal.RECORD_SIZE);
+        for (long i = 0; i < available; i++) {
+            int slot = (int) (position + i) & mask;
+            buffer.putInt(zoneIds[slot]).putLong(times[slot]).putInt(values[slot]);
+        }
+        head.lazySet(position + available);
+        return (int) available;
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    boolean isAbandoned() {
+        return !owner.isAlive() && isEmpty();
+    }
+}
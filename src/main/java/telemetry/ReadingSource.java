@@ -0,0 +1,7 @@
+package telemetry;
+
+import java.io.IOException;
+
+public interface ReadingSource {
+    void query(int zoneId, long from, long to, ReadingConsumer consumer) throws IOException;
+}
@@ -0,0 +1,60 @@
+package telemetry;
+
+/**
+ * Count, minimum, maximum and sum of the readings of a time span.
+ */
+public class Rollup {
+    private final long start;
+    private final long end;
+    private int count;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private long sum;
+
+    public Rollup(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public void add(int value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sum += value;
+    }
+
+    void add(int count, int min, int max, long sum) {
+        this.count += count;
+        this.min = Math.min(this.min, min);
+        this.max = Math.max(this.max, max);
+        this.sum += sum;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getAverage() {
+        return count == 0 ? Double.NaN : (double) sum / count;
+    }
+}
@@ -0,0 +1,275 @@
+package telemetry;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-zone minute, hour and day aggregates of readings, each kept in a fixed ring of buckets.
+ * Adding a reading updates one bucket per resolution. A range is answered from the coarsest buckets that fit
+ * inside it, narrowing to finer ones towards its ends; whatever the rings no longer (or never did) cover, including
+ * the parts of minutes cut by the ends of the range, is read from a source of raw readings.
+ */
+public class RollupStore {
+    public enum Resolution {
+        MINUTE(60_000L), HOUR(3_600_000L), DAY(86_400_000L);
+
+        private final long millis;
+
+        Resolution(long millis) {
+            this.millis = millis;
+        }
+
+        /**
+         * Returns the nominal length; hours and days follow the local clock and may be shorter or longer.
+         */
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    private static final int DEFAULT_MINUTES = 180;
+    private static final int DEFAULT_HOURS = 168;
+    private static final int DEFAULT_DAYS = 365;
+    private static final long MAX_TIME = Long.MAX_VALUE / 4;
+
+    private final ZoneId zone;
+    private final int[] capacities;
+    private final Map<Integer, ZoneRollups> zones = new ConcurrentHashMap<>();
+
+    public RollupStore(ZoneId zone) {
+        this(zone, DEFAULT_MINUTES, DEFAULT_HOURS, DEFAULT_DAYS);
+    }
+
+    /**
+     * Hour and day buckets start where the local clock of the given time zone shows a new hour or day, so they
+     * stay aligned across offset changes; an hour skipped when clocks go forward is an empty bucket, and an hour
+     * repeated when they go back is counted with the one it repeats. Minutes are aligned in UTC, which matches
+     * every offset of a whole number of minutes.
+     */
+    public RollupStore(ZoneId zone, int minutes, int hours, int days) {
+        if (minutes <= 0 || hours <= 0 || days <= 0) {
+            throw new IllegalArgumentException("Bucket counts must be positive");
+        }
+        this.zone = zone;
+        this.capacities = new int[] {minutes, hours, days};
+    }
+
+    public void add(int zoneId, long time, int value) {
+        time = clamp(time);
+        ZoneRollups rollups = zones.get(zoneId);
+        if (rollups == null) {
+            rollups = new ZoneRollups(time);
+            ZoneRollups existing = zones.putIfAbsent(zoneId, rollups);
+            if (existing != null) {
+                rollups = existing;
+            }
+        }
+        synchronized (rollups) {
+            for (Ring ring : rollups.rings) {
+                ring.add(time, value);
+            }
+        }
+    }
+
+    /**
+     * Returns the non-empty buckets of one resolution that overlap from..to, oldest first.
+     */
+    public List<Rollup> query(int zoneId, Resolution resolution, long from, long to) {
+        List<Rollup> buckets = new ArrayList<>();
+        ZoneRollups rollups = zones.get(zoneId);
+        if (rollups == null) {
+            return buckets;
+        }
+        from = clamp(from);
+        to = clamp(to);
+        synchronized (rollups) {
+            Ring ring = rollups.rings[resolution.ordinal()];
+            long first = Math.max(ring.bucketOf(from), ring.oldestBucket());
+            long last = Math.min(ring.bucketOf(to), ring.latest);
+            for (long bucket = first; bucket <= last; bucket++) {
+                Rollup rollup = new Rollup(ring.startOf(bucket), ring.startOf(bucket + 1) - 1);
+                if (ring.addTo(bucket, rollup)) {
+                    buckets.add(rollup);
+                }
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Aggregates the readings of the zone with from <= time <= to. Spans the rings cannot answer exactly, because
+     * they are older than the rings reach, precede the first reading this store saw for the zone or are only part
+     * of a minute, are read from the source instead.
+     */
+    public Rollup aggregate(int zoneId, long from, long to, ReadingSource source) throws IOException {
+        Rollup rollup = new Rollup(from, to);
+        from = clamp(from);
+        to = clamp(to);
+        List<long[]> uncovered = new ArrayList<>();
+        ZoneRollups rollups = zones.get(zoneId);
+        if (rollups == null) {
+            uncovered.add(new long[] {from, to});
+        } else {
+            synchronized (rollups) {
+                aggregate(rollups, Resolution.DAY.ordinal(), from, to, rollup, uncovered);
+            }
+        }
+
+        if (source != null) {
+            for (long[] span : uncovered) {
+                source.query(zoneId, span[0], span[1], (zone, time, value) -> rollup.add(value));
+            }
+        }
+        return rollup;
+    }
+
+    private void aggregate(ZoneRollups rollups, int level, long from, long to, Rollup rollup,
+                           List<long[]> uncovered) {
+        if (from > to) {
+            return;
+        }
+        if (level < 0) {
+            uncovered.add(new long[] {from, to});
+            return;
+        }
+        Ring ring = rollups.rings[level];
+        long firstComplete = Math.max(ring.oldestBucket(), ring.ceilBucket(rollups.firstTime));
+        long firstFull = Math.max(ring.ceilBucket(from), firstComplete);
+        long lastFull = ring.bucketOf(to + 1) - 1;
+        if (firstFull > lastFull) {
+            aggregate(rollups, level - 1, from, to, rollup, uncovered);
+            return;
+        }
+        for (long bucket = firstFull; bucket <= Math.min(lastFull, ring.latest); bucket++) {
+            ring.addTo(bucket, rollup);
+        }
+        aggregate(rollups, level - 1, from, ring.startOf(firstFull) - 1, rollup, uncovered);
+        aggregate(rollups, level - 1, ring.startOf(lastFull + 1), to, rollup, uncovered);
+    }
+
+    private static long clamp(long time) {
+        return Math.max(-MAX_TIME, Math.min(MAX_TIME, time));
+    }
+
+    private class ZoneRollups {
+        private final long firstTime;
+        private final Ring[] rings = new Ring[Resolution.values().length];
+
+        ZoneRollups(long firstTime) {
+            this.firstTime = firstTime;
+            for (Resolution resolution : Resolution.values()) {
+                rings[resolution.ordinal()] = new Ring(resolution.millis,
+                        resolution == Resolution.MINUTE ? null : zone, capacities[resolution.ordinal()]);
+            }
+        }
+    }
+
+    /**
+     * Buckets of one resolution; a bucket's slot is its number modulo the ring size. Without a time zone bucket n
+     * starts at n times the bucket length; with one, it starts when the local clock first shows the n-th unit
+     * since the epoch, and every instant belongs to the last bucket started by then.
+     */
+    private static class Ring {
+        private final long size;
+        private final ZoneId zone;
+        private final long[] buckets;
+        private final int[] counts;
+        private final int[] mins;
+        private final int[] maxs;
+        private final long[] sums;
+        private long latest = Long.MIN_VALUE;
+
+        private long cachedBucket;
+        private long cachedStart;
+        private long cachedEnd;
+
+        Ring(long size, ZoneId zone, int capacity) {
+            this.size = size;
+            this.zone = zone;
+            this.buckets = new long[capacity];
+            this.counts = new int[capacity];
+            this.mins = new int[capacity];
+            this.maxs = new int[capacity];
+            this.sums = new long[capacity];
+        }
+
+        void add(long time, int value) {
+            long bucket = bucketOf(time);
+            if (latest != Long.MIN_VALUE && bucket <= latest - buckets.length) {
+                return;
+            }
+            int slot = (int) Math.floorMod(bucket, (long) buckets.length);
+            if (counts[slot] == 0 || buckets[slot] != bucket) {
+                buckets[slot] = bucket;
+                counts[slot] = 0;
+                mins[slot] = value;
+                maxs[slot] = value;
+                sums[slot] = 0;
+            }
+            counts[slot]++;
+            mins[slot] = Math.min(mins[slot], value);
+            maxs[slot] = Math.max(maxs[slot], value);
+            sums[slot] += value;
+            latest = Math.max(latest, bucket);
+        }
+
+        long bucketOf(long time) {
+            if (zone == null) {
+                return Math.floorDiv(time, size);
+            }
+            if (time >= cachedStart && time < cachedEnd) {
+                return cachedBucket;
+            }
+            Instant instant = Instant.ofEpochMilli(time);
+            long local = instant.getEpochSecond() + zone.getRules().getOffset(instant).getTotalSeconds();
+            long bucket = Math.floorDiv(local, size / 1000L);
+            while (startOf(bucket) > time) {
+                bucket--;
+            }
+            while (startOf(bucket + 1) <= time) {
+                bucket++;
+            }
+            cachedBucket = bucket;
+            cachedStart = startOf(bucket);
+            cachedEnd = startOf(bucket + 1);
+            return bucket;
+        }
+
+        /**
+         * Returns the first bucket that starts at or after the time.
+         */
+        long ceilBucket(long time) {
+            long bucket = bucketOf(time);
+            return startOf(bucket) < time ? bucket + 1 : bucket;
+        }
+
+        long startOf(long bucket) {
+            if (zone == null) {
+                return bucket * size;
+            }
+            LocalDateTime local = LocalDateTime.ofEpochSecond(bucket * (size / 1000L), 0, ZoneOffset.UTC);
+            return ZonedDateTime.ofLocal(local, zone, null).toInstant().toEpochMilli();
+        }
+
+        long oldestBucket() {
+            return latest == Long.MIN_VALUE ? Long.MAX_VALUE : latest - buckets.length + 1;
+        }
+
+        boolean addTo(long bucket, Rollup rollup) {
+            int slot = (int) Math.floorMod(bucket, (long) buckets.length);
+            if (counts[slot] == 0 || buckets[slot] != bucket) {
+                return false;
+            }
+            rollup.add(counts[slot], mins[slot], maxs[slot], sums[slot]);
+            return true;
+        }
+    }
+}
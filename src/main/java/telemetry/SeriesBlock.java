@@ -0,0 +1,217 @@
+package telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Readings of one zone compressed Gorilla-style: timestamps as deltas of deltas and values as deltas, each
+ * with a short prefix code so a steady sensor period and an unchanged value cost one bit each.
+ * A block is appended to until it is sealed, and is immutable from then on.
+ */
+class SeriesBlock {
+    private static final int[] DOD_BITS = {0, 7, 9, 12, 64};
+    private static final int[] VALUE_BITS = {0, 4, 8, 33};
+
+    private long[] words;
+    private int bitLength;
+    private int count;
+    private long minTime = Long.MAX_VALUE;
+    private long maxTime = Long.MIN_VALUE;
+
+    private long lastTime;
+    private long lastDelta;
+    private int lastValue;
+
+    SeriesBlock(int capacity) {
+        words = new long[Math.max(2, capacity / 16)];
+    }
+
+    SeriesBlock(long[] words, int bitLength, int count, long minTime, long maxTime) {
+        this.words = words;
+        this.bitLength = bitLength;
+        this.count = count;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+    }
+
+    void append(long time, int value) {
+        if (count == 0) {
+            writeBits(time, 64);
+            writeBits(value, 32);
+        } else {
+            long delta = time - lastTime;
+            writeDeltaOfDelta(delta - lastDelta);
+            writeValueDelta((long) value - lastValue);
+            lastDelta = delta;
+        }
+        lastTime = time;
+        lastValue = value;
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+        count++;
+    }
+
+    /**
+     * Decodes the readings with from <= time <= to, in the order they were appended.
+     */
+    void decode(int zoneId, long from, long to, ReadingConsumer consumer) {
+        if (count == 0 || maxTime < from || minTime > to) {
+            return;
+        }
+
+        int position = 0;
+        long time = 0;
+        long delta = 0;
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                time = readBits(position, 64);
+                value = (int) readBits(position + 64, 32);
+                position += 96;
+            } else {
+                int prefix = prefixLength(position, 4);
+                position += prefix < 4 ? prefix + 1 : 4;
+                int bits = DOD_BITS[prefix];
+                long dod = 0;
+                if (bits > 0) {
+                    dod = unzigzag(readBits(position, bits));
+                    position += bits;
+                }
+                delta += dod;
+                time += delta;
+
+                prefix = prefixLength(position, 3);
+                position += prefix < 3 ? prefix + 1 : 3;
+                bits = VALUE_BITS[prefix];
+                if (bits > 0) {
+                    value = (int) (value + unzigzag(readBits(position, bits)));
+                    position += bits;
+                }
+            }
+            if (time >= from && time <= to) {
+                consumer.accept(zoneId, time, value);
+            }
+        }
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    int getBitLength() {
+        return bitLength;
+    }
+
+    long[] getWords() {
+        return words;
+    }
+
+    /**
+     * Returns an independent copy holding the readings appended so far; appending to either leaves the other
+     * unchanged.
+     */
+    SeriesBlock copy() {
+        SeriesBlock copy = new SeriesBlock(words.clone(), bitLength, count, minTime, maxTime);
+        copy.lastTime = lastTime;
+        copy.lastDelta = lastDelta;
+        copy.lastValue = lastValue;
+        return copy;
+    }
+
+    /**
+     * Trims the buffer to the bits written; nothing may be appended afterwards.
+     */
+    SeriesBlock seal() {
+        words = Arrays.copyOf(words, (bitLength + 63) >>> 6);
+        return this;
+    }
+
+    private void writeDeltaOfDelta(long dod) {
+        long zigzag = (dod << 1) ^ (dod >> 63);
+        if (dod == 0) {
+            writeBits(0, 1);
+        } else if (zigzag >>> 7 == 0) {
+            writeBits(0b10, 2);
+            writeBits(zigzag, 7);
+        } else if (zigzag >>> 9 == 0) {
+            writeBits(0b110, 3);
+            writeBits(zigzag, 9);
+        } else if (zigzag >>> 12 == 0) {
+            writeBits(0b1110, 4);
+            writeBits(zigzag, 12);
+        } else {
+            writeBits(0b1111, 4);
+            writeBits(zigzag, 64);
+        }
+    }
+
+    private void writeValueDelta(long delta) {
+        long zigzag = (delta << 1) ^ (delta >> 63);
+        if (delta == 0) {
+            writeBits(0, 1);
+        } else if (zigzag >>> 4 == 0) {
+            writeBits(0b10, 2);
+            writeBits(zigzag, 4);
+        } else if (zigzag >>> 8 == 0) {
+            writeBits(0b110, 3);
+            writeBits(zigzag, 8);
+        } else {
+            writeBits(0b111, 3);
+            writeBits(zigzag, 33);
+        }
+    }
+
+    private void writeBits(long value, int bits) {
+        int word = bitLength >>> 6;
+        if (word + 1 >= words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        if (bits < 64) {
+            value &= (1L << bits) - 1;
+        }
+        int offset = bitLength & 63;
+        int free = 64 - offset;
+        if (bits <= free) {
+            words[word] |= value << (free - bits);
+        } else {
+            words[word] |= value >>> (bits - free);
+            words[word + 1] |= value << (64 - (bits - free));
+        }
+        bitLength += bits;
+    }
+
+    private long readBits(int position, int bits) {
+        int word = position >>> 6;
+        int offset = position & 63;
+        int free = 64 - offset;
+        long value;
+        if (bits <= free) {
+            value = words[word] >>> (free - bits);
+        } else {
+            value = (words[word] << (bits - free)) | (words[word + 1] >>> (64 - (bits - free)));
+        }
+        return bits == 64 ? value : value & ((1L << bits) - 1);
+    }
+
+    /**
+     * Counts the leading one bits at the position, up to max.
+     */
+    private int prefixLength(int position, int max) {
+        int ones = 0;
+        while (ones < max && readBits(position + ones, 1) == 1) {
+            ones++;
+        }
+        return ones;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,251 @@
+package telemetry;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only journal of sensor readings, stored as fixed-size binary records in numbered segment files.
+ * Each recording thread writes into a ring of its own, so {@link #record} neither locks nor allocates; a
+ * background thread drains all rings every flush interval and commits them with one write and one force per
+ * round. Readings that arrive while a ring is full are dropped and counted.
+ */
+public class TelemetryJournal implements Closeable {
+    static final int MAGIC = 0x544C4D31;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 16;
+
+    private static final String SEGMENT_PREFIX = "telemetry-";
+    private static final String SEGMENT_SUFFIX = ".tlm";
+    private static final int DEFAULT_RING_CAPACITY = 1 << 14;
+    private static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    private static final long DEFAULT_FLUSH_INTERVAL = 100;
+    private static final int BATCH_BYTES = RECORD_SIZE << 12;
+    private static final Logger generalLogger = LogManager.getLogger("error");
+
+    private final Path directory;
+    private final int ringCapacity;
+    private final long segmentBytes;
+    private final long flushIntervalNanos;
+    private final List<ReadingRing> rings = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ReadingRing> localRing = new ThreadLocal<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BYTES);
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private FileChannel segment;
+    private int segmentNumber;
+    private long segmentSize;
+    private long written;
+
+    public TelemetryJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_RING_CAPACITY, DEFAULT_SEGMENT_BYTES, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    public TelemetryJournal(Path directory, int ringCapacity, long segmentBytes, long flushInterval)
+            throws IOException {
+        if (ringCapacity <= 0 || Integer.bitCount(ringCapacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a positive power of two");
+        }
+        if (segmentBytes < HEADER_SIZE + RECORD_SIZE || flushInterval <= 0) {
+            throw new IllegalArgumentException("Invalid segment size or flush interval");
+        }
+        this.directory = directory;
+        this.ringCapacity = ringCapacity;
+        this.segmentBytes = segmentBytes;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments(directory);
+        segmentNumber = segments.isEmpty() ? 0 : segmentNumber(segments.get(segments.size() - 1)) + 1;
+        openSegment();
+
+        writer = new Thread(this::writeLoop, "telemetry-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Records a reading. Safe to call from any thread; never blocks.
+     */
+    public boolean record(int zoneId, long time, int value) {
+        ReadingRing ring = localRing.get();
+        if (ring == null) {
+            ring = new ReadingRing(Thread.currentThread(), ringCapacity);
+            localRing.set(ring);
+            rings.add(ring);
+        }
+        if (!ring.offer(zoneId, time, value)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stops the writer after it has committed every reading recorded so far.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        segment.close();
+    }
+
+    /**
+     * Reads every record of the journal in the given directory, segment by segment in the order written.
+     * A record cut short by a crash at the end of a segment is skipped.
+     */
+    public static void read(Path directory, ReadingConsumer consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BATCH_BYTES);
+        for (Path file : listSegments(directory)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer.clear();
+                buffer.limit(HEADER_SIZE);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+                if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                    throw new IOException("Not a telemetry segment: " + file);
+                }
+
+                buffer.clear();
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    while (buffer.remaining() >= RECORD_SIZE) {
+                        consumer.accept(buffer.getInt(), buffer.getLong(), buffer.getInt());
+                    }
+                    buffer.compact();
+                }
+            }
+        }
+    }
+
+    private void writeLoop() {
+        boolean open = true;
+        while (open) {
+            open = running;
+            try {
+                commit();
+            } catch (IOException e) {
+                generalLogger.error("Telemetry journal write failed: " + e.getMessage());
+            }
+            if (open) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    private void commit() throws IOException {
+        long before = written;
+        boolean drained;
+        do {
+            drained = false;
+            for (ReadingRing ring : rings) {
+                if (ring.drainTo(batch) > 0) {
+                    drained = true;
+                }
+                if (!batch.hasRemaining()) {
+                    writeBatch();
+                }
+                if (ring.isAbandoned()) {
+                    rings.remove(ring);
+                }
+            }
+        } while (drained);
+        writeBatch();
+
+        if (written != before) {
+            segment.force(false);
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            if (segmentSize + RECORD_SIZE > segmentBytes) {
+                segment.force(false);
+                segment.close();
+                segmentNumber++;
+                openSegment();
+            }
+            int limit = batch.limit();
+            long room = (segmentBytes - segmentSize) / RECORD_SIZE * RECORD_SIZE;
+            batch.limit((int) Math.min(limit, batch.position() + room));
+            while (batch.hasRemaining()) {
+                int bytes = segment.write(batch);
+                segmentSize += bytes;
+                written += bytes;
+            }
+            batch.limit(limit);
+        }
+        batch.clear();
+    }
+
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).flip();
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+        segmentSize = HEADER_SIZE;
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                segments.add(file);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
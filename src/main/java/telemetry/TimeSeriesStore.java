@@ -0,0 +1,386 @@
+package telemetry;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Per-zone history of readings kept as compressed blocks of {@link SeriesBlock}.
+ * Every zone appends to an open block; full blocks are sealed and the most recent ones stay in memory, while
+ * older ones are handed to a background thread that writes them to append-only segment files in the store
+ * directory. A query decodes only the blocks whose time span overlaps the requested window. Without a directory
+ * each zone keeps a bounded number of sealed blocks and drops the oldest.
+ */
+public class TimeSeriesStore implements Closeable, ReadingSource {
+    static final int MAGIC = 0x54535331;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int BLOCK_HEADER_SIZE = 28;
+
+    private static final String SEGMENT_PREFIX = "history-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int DEFAULT_BLOCK_SIZE = 512;
+    private static final int DEFAULT_MEMORY_BLOCKS = 2;
+    private static final int DEFAULT_RETAINED_BLOCKS = 64;
+    private static final long SEGMENT_BYTES = 64L << 20;
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final Logger generalLogger = LogManager.getLogger("error");
+
+    private final Path directory;
+    private final int blockSize;
+    private final int memoryBlocks;
+    private final Map<Integer, Series> series = new ConcurrentHashMap<>();
+    private final Queue<BlockRef> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong droppedBlocks = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean closed;
+
+    private final List<FileChannel> segments = new ArrayList<>();
+    private FileChannel segment;
+    private int nextSegment;
+    private long segmentSize;
+
+    public TimeSeriesStore() {
+        this(DEFAULT_BLOCK_SIZE, DEFAULT_RETAINED_BLOCKS);
+    }
+
+    public TimeSeriesStore(Path directory) throws IOException {
+        this(directory, DEFAULT_BLOCK_SIZE, DEFAULT_MEMORY_BLOCKS);
+    }
+
+    /**
+     * Creates a store without a directory that keeps at most retainedBlocks sealed blocks per zone.
+     */
+    TimeSeriesStore(int blockSize, int retainedBlocks) {
+        if (blockSize <= 1 || retainedBlocks < 0) {
+            throw new IllegalArgumentException("Invalid block size or retained block count");
+        }
+        this.directory = null;
+        this.blockSize = blockSize;
+        this.memoryBlocks = retainedBlocks;
+        this.writer = null;
+    }
+
+    TimeSeriesStore(Path directory, int blockSize, int memoryBlocks) throws IOException {
+        if (blockSize <= 1 || memoryBlocks < 0) {
+            throw new IllegalArgumentException("Invalid block size or memory block count");
+        }
+        this.directory = directory;
+        this.blockSize = blockSize;
+        this.memoryBlocks = memoryBlocks;
+        load();
+
+        writer = new Thread(this::writeLoop, "history-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Appends a reading to the zone's open block. Never waits for disk.
+     *
+     * @throws IllegalStateException if the store has been closed
+     */
+    public void append(int zoneId, long time, int value) {
+        Series zone = series.computeIfAbsent(zoneId, Series::new);
+        synchronized (zone) {
+            if (closed) {
+                throw new IllegalStateException("History store is closed");
+            }
+            zone.open.append(time, value);
+            if (zone.open.getCount() >= blockSize) {
+                zone.blocks.add(new BlockRef(zone.zoneId, zone.open.seal()));
+                zone.open = new SeriesBlock(blockSize);
+                evict(zone);
+            }
+        }
+    }
+
+    /**
+     * Passes the zone's readings with from <= time <= to to the consumer, oldest block first.
+     * The zone is locked only while its blocks are collected; blocks on disk are read afterwards.
+     */
+    @Override
+    public void query(int zoneId, long from, long to, ReadingConsumer consumer) throws IOException {
+        Series zone = series.get(zoneId);
+        if (zone == null) {
+            return;
+        }
+        List<BlockRef> overlapping = new ArrayList<>();
+        SeriesBlock open;
+        synchronized (zone) {
+            for (BlockRef ref : zone.blocks) {
+                if (ref.maxTime >= from && ref.minTime <= to) {
+                    overlapping.add(ref);
+                }
+            }
+            open = zone.open.getCount() > 0 ? zone.open.copy() : null;
+        }
+        for (BlockRef ref : overlapping) {
+            ref.load().decode(zoneId, from, to, consumer);
+        }
+        if (open != null) {
+            open.decode(zoneId, from, to, consumer);
+        }
+    }
+
+    /**
+     * Returns the number of sealed blocks dropped because a zone held more than it may keep in memory.
+     */
+    public long getDroppedBlocks() {
+        return droppedBlocks.get();
+    }
+
+    /**
+     * Seals the open blocks and stops the writer after it has written every block still in memory.
+     * Appending afterwards is an error.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (directory == null) {
+            return;
+        }
+        for (Series zone : series.values()) {
+            synchronized (zone) {
+                if (zone.open.getCount() > 0) {
+                    zone.blocks.add(new BlockRef(zone.zoneId, zone.open.seal()));
+                    zone.open = new SeriesBlock(blockSize);
+                }
+                for (BlockRef ref : zone.blocks) {
+                    if (ref.block != null) {
+                        pending.add(ref);
+                    }
+                }
+            }
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        for (FileChannel channel : segments) {
+            channel.close();
+        }
+        segments.clear();
+        segment = null;
+    }
+
+    /**
+     * Queues the block that has just left the zone's in-memory window for writing or, without a directory,
+     * drops the oldest block once the zone holds too many.
+     */
+    private void evict(Series zone) {
+        if (directory == null) {
+            if (zone.blocks.size() > memoryBlocks) {
+                zone.blocks.remove(0);
+                droppedBlocks.incrementAndGet();
+            }
+            return;
+        }
+        int index = zone.blocks.size() - 1 - memoryBlocks;
+        if (index >= 0 && zone.blocks.get(index).block != null) {
+            pending.add(zone.blocks.get(index));
+        }
+    }
+
+    private void writeLoop() {
+        boolean open = true;
+        while (open) {
+            open = running;
+            BlockRef ref;
+            while ((ref = pending.poll()) != null) {
+                try {
+                    write(ref);
+                } catch (IOException e) {
+                    generalLogger.error("Cannot write humidity history: " + e.getMessage());
+                }
+            }
+            if (open) {
+                LockSupport.parkNanos(this, FLUSH_INTERVAL_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Writes a sealed block and then points its reference at the copy on disk. Runs on the writer thread only,
+     * which also owns the segment files; a block queued twice is written once.
+     */
+    private void write(BlockRef ref) throws IOException {
+        SeriesBlock block = ref.block;
+        if (block == null) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_HEADER_SIZE + 8 * block.getWords().length);
+        buffer.putInt(ref.zoneId).putLong(block.getMinTime()).putLong(block.getMaxTime()).putInt(block.getCount())
+                .putInt(block.getBitLength());
+        for (long word : block.getWords()) {
+            buffer.putLong(word);
+        }
+        buffer.flip();
+
+        if (segment == null || segmentSize > HEADER_SIZE && segmentSize + buffer.remaining() > SEGMENT_BYTES) {
+            openSegment();
+        }
+        long offset = segmentSize;
+        while (buffer.hasRemaining()) {
+            segmentSize += segment.write(buffer, segmentSize);
+        }
+        ref.moveToDisk(segment, offset);
+    }
+
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+        header.flip();
+        while (header.hasRemaining()) {
+            segment.write(header, header.position());
+        }
+        segments.add(segment);
+        segmentSize = HEADER_SIZE;
+    }
+
+    /**
+     * Rebuilds the block index from the segments left by earlier runs; block contents stay on disk.
+     */
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            int number = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                    name.length() - SEGMENT_SUFFIX.length()));
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            segments.add(channel);
+            nextSegment = number + 1;
+
+            header.clear().limit(HEADER_SIZE);
+            if (!readFully(channel, header, 0) || header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+                throw new IOException("Not a history segment: " + file);
+            }
+            long offset = HEADER_SIZE;
+            long size = channel.size();
+            while (offset + BLOCK_HEADER_SIZE <= size) {
+                header.clear();
+                readFully(channel, header, offset);
+                int zoneId = header.getInt(0);
+                int bitLength = header.getInt(24);
+                long blockBytes = BLOCK_HEADER_SIZE + 8L * ((bitLength + 63) >>> 6);
+                if (offset + blockBytes > size) {
+                    break;
+                }
+                BlockRef ref = new BlockRef(zoneId, header.getLong(4), header.getLong(12));
+                ref.moveToDisk(channel, offset);
+                series.computeIfAbsent(zoneId, Series::new).blocks.add(ref);
+                offset += blockBytes;
+            }
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    private class Series {
+        private final int zoneId;
+        private final List<BlockRef> blocks = new ArrayList<>();
+        private SeriesBlock open = new SeriesBlock(blockSize);
+
+        Series(int zoneId) {
+            this.zoneId = zoneId;
+        }
+    }
+
+    /**
+     * A sealed block, either held in memory or stored at an offset of a segment file. Only the writer moves a
+     * block to disk; readers check the block field first and may then rely on the location written before it.
+     */
+    private static class BlockRef {
+        private final int zoneId;
+        private final long minTime;
+        private final long maxTime;
+        private volatile SeriesBlock block;
+        private FileChannel channel;
+        private long offset;
+
+        BlockRef(int zoneId, SeriesBlock block) {
+            this(zoneId, block.getMinTime(), block.getMaxTime());
+            this.block = block;
+        }
+
+        BlockRef(int zoneId, long minTime, long maxTime) {
+            this.zoneId = zoneId;
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+        }
+
+        void moveToDisk(FileChannel channel, long offset) {
+            this.channel = channel;
+            this.offset = offset;
+            this.block = null;
+        }
+
+        SeriesBlock load() throws IOException {
+            SeriesBlock inMemory = block;
+            if (inMemory != null) {
+                return inMemory;
+            }
+            ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+            if (!readFully(channel, header, offset)) {
+                throw new IOException("Truncated history block at " + offset);
+            }
+            int count = header.getInt(20);
+            int bitLength = header.getInt(24);
+            ByteBuffer body = ByteBuffer.allocate(8 * ((bitLength + 63) >>> 6));
+            if (!readFully(channel, body, offset + BLOCK_HEADER_SIZE)) {
+                throw new IOException("Truncated history block at " + offset);
+            }
+            body.flip();
+            long[] words = new long[body.remaining() / 8];
+            body.asLongBuffer().get(words);
+            return new SeriesBlock(words, bitLength, count, minTime, maxTime);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ui;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Keeps the console view bounded to a number of lines. Drained messages are formatted into one batch; after
+ * each batch the view appends {@link #getAppended()} and deletes {@link #getTrimmed()} characters from its
+ * start, so a burst of output costs one text change whatever its size.
+ */
+public class ConsoleBuffer implements ObjLongConsumer<String> {
+    private final int maxLines;
+    private final ZoneId zone;
+    private final int[] lineLengths;
+    private int firstLine;
+    private int lineCount;
+    private int viewLength;
+    private int removed;
+    private final StringBuilder batch = new StringBuilder();
+    private String appended = "";
+    private int trimmed;
+
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedPrefix;
+
+    public ConsoleBuffer(int maxLines, ZoneId zone) {
+        if (maxLines <= 0) {
+            throw new IllegalArgumentException("Line limit must be positive");
+        }
+        this.maxLines = maxLines;
+        this.zone = zone;
+        this.lineLengths = new int[maxLines];
+    }
+
+    @Override
+    public void accept(String message, long time) {
+        int start = batch.length();
+        appendTime(time);
+        batch.append(message).append(System.lineSeparator());
+
+        if (lineCount == maxLines) {
+            removed += lineLengths[firstLine];
+            firstLine = (firstLine + 1) % maxLines;
+            lineCount--;
+        }
+        lineLengths[(firstLine + lineCount) % maxLines] = batch.length() - start;
+        lineCount++;
+    }
+
+    /**
+     * Closes the current batch and works out the text change it makes to the view.
+     */
+    public boolean finish() {
+        trimmed = Math.min(removed, viewLength);
+        appended = batch.substring(removed - trimmed);
+        viewLength += appended.length() - trimmed;
+        batch.setLength(0);
+        removed = 0;
+        return trimmed > 0 || !appended.isEmpty();
+    }
+
+    public String getAppended() {
+        return appended;
+    }
+
+    public int getTrimmed() {
+        return trimmed;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    private void appendTime(long time) {
+        long second = Math.floorDiv(time, 1000);
+        if (second != cachedSecond) {
+            long localSecond = second + zone.getRules().getOffset(Instant.ofEpochSecond(second)).getTotalSeconds();
+            LocalTime local = LocalTime.ofSecondOfDay(Math.floorMod(localSecond, 86400));
+            cachedSecond = second;
+            cachedPrefix = String.format("[%02d:%02d:%02d.", local.getHour(), local.getMinute(), local.getSecond());
+        }
+        int millis = (int) Math.floorMod(time, 1000L);
+        batch.append(cachedPrefix)
+                .append((char) ('0' + millis / 100))
+                .append((char) ('0' + millis / 10 % 10))
+                .append((char) ('0' + millis % 10))
+                .append("] ");
+    }
+}
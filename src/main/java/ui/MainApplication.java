@@ -0,0 +1,82 @@
+package ui;
+
+import core.App;
+import javafx.application.Application;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.scene.layout.AnchorPane;
+import javafx.stage.Stage;
+import telemetry.TelemetryJournal;
+import telemetry.TimeSeriesStore;
+import zone.ZonePopulation;
+import zone.ZoneSet;
+
+import java.nio.file.Paths;
+
+public class MainApplication extends Application {
+    private static final int DEFAULT_ZONE_COUNT = 15;
+    private static final String DEFAULT_TELEMETRY = "logs/telemetry";
+    private static final String DEFAULT_HISTORY = "logs/history";
+
+    private App app = new App();
+    private TelemetryJournal telemetryJournal;
+    private TimeSeriesStore humidityHistory;
+
+    public static void main(String... args) {
+        Application.launch(args);
+    }
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        ZoneSet mapZones = ZoneSet.range(1, DEFAULT_ZONE_COUNT);
+        String zones = getParameters().getNamed().get("zones");
+        if (zones != null) {
+            ZonePopulation population = ZonePopulation.parse(zones);
+            app.setZonePopulation(population);
+            mapZones = population.getZones();
+        }
+        String pumpCapacity = getParameters().getNamed().get("pump-capacity");
+        if (pumpCapacity != null) {
+            app.setPumpCapacity(Double.parseDouble(pumpCapacity));
+        }
+        String telemetry = getParameters().getNamed().getOrDefault("telemetry", DEFAULT_TELEMETRY);
+        if (!telemetry.equals("none")) {
+            telemetryJournal = new TelemetryJournal(Paths.get(telemetry));
+            app.setTelemetryJournal(telemetryJournal);
+        }
+        String history = getParameters().getNamed().getOrDefault("history", DEFAULT_HISTORY);
+        if (!history.equals("memory")) {
+            humidityHistory = new TimeSeriesStore(Paths.get(history));
+            app.setHumidityHistory(humidityHistory);
+        }
+
+        FXMLLoader loader = new FXMLLoader(getClass().getClassLoader().getResource("ui/main_window.fxml"));
+        AnchorPane root = loader.load();
+
+        MainWindow mainWindowController = loader.getController();
+        mainWindowController.setApp(app);
+        mainWindowController.initZoneMap(root, mapZones);
+        String consoleLines = getParameters().getNamed().get("console-lines");
+        if (consoleLines != null) {
+            mainWindowController.setConsoleLines(Integer.parseInt(consoleLines));
+        }
+        app.setEventSink(mainWindowController);
+
+        Scene scene = new Scene(root, 725, 500);
+        primaryStage.setTitle("Irrigation");
+        primaryStage.setScene(scene);
+        primaryStage.show();
+
+        app.startSensors();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (telemetryJournal != null) {
+            telemetryJournal.close();
+        }
+        if (humidityHistory != null) {
+            humidityHistory.close();
+        }
+    }
+}
@@ -1,35 +1,37 @@
 package ui;
 
 import core.App;
-import javafx.application.Platform;
-import javafx.collections.ObservableList;
+import core.EventSink;
+import javafx.animation.AnimationTimer;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.image.ImageView;
-import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.Paint;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
+import javafx.scene.layout.AnchorPane;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import parser.CompiledProgram;
+import zone.ZoneSet;
 import javafx.scene.image.Image;
 import java.awt.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.ParseException;
-import java.time.LocalTime;
-import java.util.*;
+import java.time.ZoneId;
 
-public class MainWindow {
+public class MainWindow implements EventSink {
     private static final Logger interruptLogger = LogManager.getLogger("interrupt");
     private static final Logger commandLogger = LogManager.getLogger("command");
     private static final Logger generalLogger = LogManager.getLogger("error");
+    private static final int MESSAGE_RING_CAPACITY = 1 << 14;
+    private static final int DEFAULT_CONSOLE_LINES = 5000;
+    private static final int DEFAULT_ZONE_COUNT = 15;
 
     private App app;
     @FXML
@@ -38,13 +40,27 @@ public class MainWindow {
     private TextField commandField;
     @FXML
     private TextArea textArea;
-    @FXML
-    private GridPane pane;
-    @FXML
-    private GridPane linePane;
 
-    private Circle[][] circlesArray = new Circle[3][5];
-    private Map<Integer, Line[]> linesDictionary = new HashMap<>();
+    private ZoneStateBoard zoneStates = new ZoneStateBoard(DEFAULT_ZONE_COUNT);
+    private ZoneMapView zoneMap;
+    private final MessageRing messages = new MessageRing(MESSAGE_RING_CAPACITY);
+    private ConsoleBuffer console = new ConsoleBuffer(DEFAULT_CONSOLE_LINES, ZoneId.systemDefault());
+    private long reportedDrops;
+    private AnimationTimer consoleTimer;
+
+    @FXML
+    private void initialize() {
+        consoleTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                flushConsole();
+                if (zoneMap != null) {
+                    zoneMap.render();
+                }
+            }
+        };
+        consoleTimer.start();
+    }
 
     @FXML
     protected void handleSendCommand(ActionEvent actionEvent) {
@@ -128,7 +144,8 @@ public class MainWindow {
         fileChooser.setTitle("Open Program File");
         fileChooser.setInitialDirectory(new File(System.getProperty("user.dir")));
         fileChooser.getExtensionFilters().addAll(
-                new FileChooser.ExtensionFilter("txt", "*.txt")
+                new FileChooser.ExtensionFilter("txt", "*.txt"),
+                new FileChooser.ExtensionFilter("bin", "*.bin")
         );
         File file = fileChooser.showOpenDialog(new Stage());
         if (file != null) {
@@ -138,13 +155,15 @@ public class MainWindow {
 
     private void openFile(File file){
         try {
-            Scanner input = new Scanner(file);
-            while (input.hasNext()) {
-                String string = input.nextLine();
-                app.handleCommands(string);
-                commandLogger.info(string);
+            if (CompiledProgram.isCompiled(file.toPath())) {
+                try (CompiledProgram commands = new CompiledProgram(file.toPath())) {
+                    app.handleCommands(commands);
+                }
+            } else {
+                try (Reader input = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    app.handleCommands(input);
+                }
             }
-            input.close();
         }
         catch (Exception ex){
             System.out.println(ex.getMessage());
@@ -155,124 +174,84 @@ public class MainWindow {
         this.app = app;
     }
 
-    public void print(String stringToPrint) {
-        Platform.runLater(() -> {
-            LocalTime time = LocalTime.now();
-            textArea.appendText("[" + time.toString() + "] " + stringToPrint + System.lineSeparator());
-        });
-    }
-
-    public void initGridPane(AnchorPane rootPane) {
-        pane = new GridPane();
-        pane.setLayoutX(14.0);
-        pane.setLayoutY(14.0);
-        pane.setPrefHeight(321.0);
-        pane.setPrefWidth(236.0);
-        linePane = new GridPane();
-        linePane.setLayoutX(14.0);
-        linePane.setLayoutY(14.0);
-        linePane.setPrefHeight(321.0);
-        linePane.setPrefWidth(236.0);
-        initZonesArray(circlesArray);
-        rootPane.getChildren().add(pane);
-        rootPane.getChildren().add(linePane);
+    /**
+     * Sets how many lines the console keeps. Must be called on the FX thread; clears the console.
+     */
+    public void setConsoleLines(int lines) {
+        console = new ConsoleBuffer(lines, ZoneId.systemDefault());
+        textArea.clear();
     }
 
-    public void changeZoneColor(int zoneId, Color color) {
-        Map<String, Integer> map = getIndex(zoneId);
-        Platform.runLater(() -> changeColorNodeByRowColumnIndex(map.get("row"), map.get("column"), color));
+    /**
+     * Queues the message for the console. Messages are drained into the text area once per pulse, so callers on
+     * any thread never wait for the FX thread.
+     */
+    @Override
+    public void print(String stringToPrint) {
+        messages.offer(System.currentTimeMillis(), stringToPrint);
     }
 
-    public void changeZoneBorderSize(int zoneId, double size) {
-        Map<String, Integer> map = getIndex(zoneId);
-        Platform.runLater(() -> changeStrokeNodeByRowColumnIndex(map.get("row"), map.get("column"), size));
-    }
+    private void flushConsole() {
+        messages.drain(console);
+        long dropped = messages.getDropped();
+        if (dropped != reportedDrops) {
+            console.accept((dropped - reportedDrops) + " messages dropped", System.currentTimeMillis());
+            reportedDrops = dropped;
+        }
+        if (!console.finish()) {
+            return;
+        }
 
-    private void initZonesArray(Circle[][] circlesMatrix) {
-        for(int i = 0; i < circlesMatrix.length; i++) {
-            ColumnConstraints column = new ColumnConstraints(90);
-            pane.getColumnConstraints().add(column);
-            linePane.getColumnConstraints().add(column);
-            for(int j = 0; j < circlesMatrix[i].length; j++) {
-                RowConstraints row = new RowConstraints(70);
-                pane.getRowConstraints().add(row);
-                linePane.getRowConstraints().add(row);
-                circlesMatrix[i][j] = new Circle(20);
-                pane.add(circlesMatrix[i][j], i, j);
-                drawLines(i, j);
-            }
+        if (console.getTrimmed() > 0) {
+            textArea.deleteText(0, console.getTrimmed());
         }
+        textArea.appendText(console.getAppended());
     }
 
-    private void drawLines(int i, int j){
-        double x = 0;
-        double y = 40;
-        double s = 2;
-        Line line1 = new Line(x+s, x+s,y-s, y-s);
-        line1.setStroke(Color.RED);
-        line1.setStrokeWidth(2);
-        line1.setVisible(false);
-        Line line2 = new Line(x+s, x+s,y-s, y-s);
-        line2.setRotate(90);
-        line2.setStroke(Color.RED);
-        line2.setStrokeWidth(2);
-        line2.setVisible(false);
-        linesDictionary.put(j*3+i+1, new Line[]{line1,line2});
-        linePane.add(line1, i, j);
-        linePane.add(line2, i, j);
+    @Override
+    public void wateringStarted(int zoneId) {
+        zoneStates.set(zoneId, ZoneStateBoard.WATERING, true);
     }
 
-    public void showLines(int index){
-        Line[] lines = linesDictionary.get(index);
-        for (Line line: lines) {
-            line.setVisible(true);
-        }
+    @Override
+    public void wateringStopped(int zoneId) {
+        zoneStates.set(zoneId, ZoneStateBoard.WATERING, false);
     }
 
-    public void hideLines(int index){
-        Line[] lines = linesDictionary.get(index);
-        for (Line line: lines) {
-            line.setVisible(false);
-        }
+    @Override
+    public void fertilizingStarted(int zoneId) {
+        zoneStates.set(zoneId, ZoneStateBoard.FERTILIZING, true);
     }
 
-    private static Map<String, Integer> getIndex(int zoneNumber) {
-        int row = Math.floorDiv(zoneNumber - 1, 3);
-        int column = (zoneNumber - 1) % 3;
+    @Override
+    public void fertilizingStopped(int zoneId) {
+        zoneStates.set(zoneId, ZoneStateBoard.FERTILIZING, false);
+    }
 
-        Map<String, Integer> map = new HashMap<>();
-        map.put("row", row);
-        map.put("column", column);
+    @Override
+    public void humidityMeasured(int zoneId, int humidity) {
+        print(String.format("Zone %d: humidity - %d", zoneId, humidity));
+    }
 
-        return map;
+    @Override
+    public void alarmRaised(int zoneId) {
+        zoneStates.set(zoneId, ZoneStateBoard.ALARM, true);
     }
 
-    private void changeColorNodeByRowColumnIndex (final int row, final int column, Paint color) {
-        ObservableList<Node> childrens = pane.getChildren();
-        Circle circle = null;
-        for (Node node : childrens) {
-            if(GridPane.getRowIndex(node) == row && GridPane.getColumnIndex(node) == column) {
-                circle = (Circle) node;
-                circle.setFill(color);
-                childrens.remove(node);
-                childrens.add(circle);
-                break;
-            }
-        }
+    @Override
+    public void alarmCleared(int zoneId) {
+        zoneStates.set(zoneId, ZoneStateBoard.ALARM, false);
     }
 
-    private void changeStrokeNodeByRowColumnIndex (final int row, final int column, double width) {
-        ObservableList<Node> childrens = pane.getChildren();
-        Circle circle = null;
-        for (Node node : childrens) {
-            if(GridPane.getRowIndex(node) == row && GridPane.getColumnIndex(node) == column) {
-                circle = (Circle) node;
-                circle.setStroke(Color.ORANGE);
-                circle.setStrokeWidth(width);
-                childrens.remove(node);
-                childrens.add(circle);
-                break;
-            }
-        }
+    /**
+     * Adds the zone map for the given zones to the window. Must be called before the window receives events.
+     */
+    public void initZoneMap(AnchorPane rootPane, ZoneSet zones) {
+        zoneStates = new ZoneStateBoard(zones);
+        Canvas canvas = new Canvas(240.0, 360.0);
+        canvas.setLayoutX(14.0);
+        canvas.setLayoutY(14.0);
+        zoneMap = new ZoneMapView(canvas, zoneStates);
+        rootPane.getChildren().add(canvas);
     }
 }
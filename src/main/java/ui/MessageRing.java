@@ -0,0 +1,79 @@
+package ui;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Bounded queue of console messages written by any number of threads and drained by one.
+ * Producers claim a slot with a single CAS and never block or allocate; when the ring is full the message is
+ * dropped and counted, so a flood of output costs the writers nothing and the reader at most one ring per drain.
+ */
+public class MessageRing {
+    private final String[] messages;
+    private final long[] times;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head;
+
+    public MessageRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a positive power of two");
+        }
+        messages = new String[capacity];
+        times = new long[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+    }
+
+    public boolean offer(long time, String message) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long available = sequences.get(slot) - position;
+            if (available < 0) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (available == 0 && tail.compareAndSet(position, position + 1)) {
+                messages[slot] = message;
+                times[slot] = time;
+                sequences.lazySet(slot, position + 1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Hands every message published so far to the consumer, oldest first. Must only be called by one thread.
+     */
+    public int drain(ObjLongConsumer<String> consumer) {
+        int drained = 0;
+        while (true) {
+            int slot = (int) head & mask;
+            if (sequences.get(slot) != head + 1) {
+                return drained;
+            }
+            String message = messages[slot];
+            long time = times[slot];
+            messages[slot] = null;
+            sequences.lazySet(slot, head + messages.length);
+            head++;
+            drained++;
+            consumer.accept(message, time);
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getCapacity() {
+        return messages.length;
+    }
+}
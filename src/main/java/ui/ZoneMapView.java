@@ -0,0 +1,138 @@
+package ui;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws the zones of a {@link ZoneStateBoard} as a grid of cells on a canvas, in board order. Only the cells on the current page
+ * whose zones changed since the last frame are repainted; paging and zooming repaint the page once.
+ * Scrolling pages through the rows, scrolling with Ctrl held zooms.
+ */
+public class ZoneMapView {
+    private static final double MIN_CELL_SIZE = 4;
+    private static final double MAX_CELL_SIZE = 70;
+    private static final double DETAIL_CELL_SIZE = 12;
+
+    private final Canvas canvas;
+    private final ZoneStateBoard board;
+    private double cellSize = MAX_CELL_SIZE;
+    private int columns;
+    private int visibleRows;
+    private int firstRow;
+    private boolean fullRepaint = true;
+
+    public ZoneMapView(Canvas canvas, ZoneStateBoard board) {
+        this.canvas = canvas;
+        this.board = board;
+        canvas.addEventHandler(ScrollEvent.SCROLL, this::handleScroll);
+        canvas.widthProperty().addListener(observable -> fullRepaint = true);
+        canvas.heightProperty().addListener(observable -> fullRepaint = true);
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Repaints what changed since the last frame. Must be called on the FX thread, once per pulse.
+     */
+    public void render() {
+        if (fullRepaint) {
+            fullRepaint = false;
+            board.drainDirty(index -> { });
+            layout();
+            GraphicsContext graphics = canvas.getGraphicsContext2D();
+            graphics.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            int first = firstRow * columns;
+            int last = Math.min(board.getZoneCount(), first + visibleRows * columns) - 1;
+            for (int index = first; index <= last; index++) {
+                paintCell(graphics, index);
+            }
+            return;
+        }
+
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        int first = firstRow * columns;
+        int last = first + visibleRows * columns - 1;
+        board.drainDirty(index -> {
+            if (index >= first && index <= last) {
+                paintCell(graphics, index);
+            }
+        });
+    }
+
+    public void scrollRows(int rows) {
+        int totalRows = columns == 0 ? 0 : (board.getZoneCount() + columns - 1) / columns;
+        int row = Math.max(0, Math.min(firstRow + rows, totalRows - visibleRows));
+        if (row != firstRow) {
+            firstRow = row;
+            fullRepaint = true;
+        }
+    }
+
+    public void setCellSize(double size) {
+        double clamped = Math.max(MIN_CELL_SIZE, Math.min(MAX_CELL_SIZE, size));
+        if (clamped == cellSize) {
+            return;
+        }
+        int firstZone = firstRow * columns;
+        cellSize = clamped;
+        layout();
+        firstRow = columns == 0 ? 0 : firstZone / columns;
+        scrollRows(0);
+        fullRepaint = true;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    private void handleScroll(ScrollEvent event) {
+        if (event.isControlDown()) {
+            setCellSize(cellSize * (event.getDeltaY() > 0 ? 1.25 : 0.8));
+        } else if (event.getDeltaY() != 0) {
+            int page = Math.max(1, visibleRows - 1);
+            scrollRows(event.getDeltaY() > 0 ? -page : page);
+        }
+        event.consume();
+    }
+
+    private void layout() {
+        columns = Math.max(1, (int) (canvas.getWidth() / cellSize));
+        visibleRows = Math.max(1, (int) (canvas.getHeight() / cellSize));
+    }
+
+    private void paintCell(GraphicsContext graphics, int index) {
+        double x = (index % columns) * cellSize;
+        double y = (index / columns - firstRow) * cellSize;
+        int state = board.getStateAt(index);
+        Color fill = (state & ZoneStateBoard.WATERING) != 0 ? Color.GREEN : Color.BLACK;
+
+        graphics.clearRect(x, y, cellSize, cellSize);
+        if (cellSize < DETAIL_CELL_SIZE) {
+            graphics.setFill((state & ZoneStateBoard.ALARM) != 0 ? Color.RED
+                    : (state & ZoneStateBoard.FERTILIZING) != 0 ? Color.ORANGE : fill);
+            graphics.fillRect(x, y, cellSize - 1, cellSize - 1);
+            return;
+        }
+
+        double inset = cellSize * 0.2;
+        double diameter = cellSize - 2 * inset;
+        graphics.setFill(fill);
+        graphics.fillOval(x + inset, y + inset, diameter, diameter);
+        if ((state & ZoneStateBoard.FERTILIZING) != 0) {
+            double width = Math.max(1, cellSize / 14);
+            graphics.setStroke(Color.ORANGE);
+            graphics.setLineWidth(width);
+            graphics.strokeOval(x + inset + width / 2, y + inset + width / 2, diameter - width, diameter - width);
+        }
+        if ((state & ZoneStateBoard.ALARM) != 0) {
+            graphics.setStroke(Color.RED);
+            graphics.setLineWidth(Math.max(1, cellSize / 35));
+            graphics.strokeLine(x + inset, y + inset, x + inset + diameter, y + inset + diameter);
+            graphics.strokeLine(x + inset + diameter, y + inset, x + inset, y + inset + diameter);
+        }
+    }
+}
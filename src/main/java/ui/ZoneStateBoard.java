@@ -0,0 +1,132 @@
+package ui;
+
+import zone.ZoneSet;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Display state of a set of zones, written by controller threads and read by the renderer.
+ * Zones are laid out densely by their rank in the set, so sparse or very high ids cost no more than low ones.
+ * Every change marks its zone in a dirty bitset; the renderer takes the marks a word at a time, so a burst of
+ * changes to one zone costs one repaint and idle zones cost nothing.
+ */
+public class ZoneStateBoard {
+    public static final int WATERING = 1;
+    public static final int FERTILIZING = 2;
+    public static final int ALARM = 4;
+    public static final int MAX_ZONE_COUNT = 1 << 24;
+
+    private final ZoneSet zones;
+    private final int[] rangeStarts;
+    private final int zoneCount;
+    private final AtomicIntegerArray states;
+    private final AtomicLongArray dirty;
+
+    public ZoneStateBoard(int zoneCount) {
+        this(checkCount(zoneCount));
+    }
+
+    public ZoneStateBoard(ZoneSet zones) {
+        if (zones.size() > MAX_ZONE_COUNT) {
+            throw new IllegalArgumentException("The zone map shows at most " + MAX_ZONE_COUNT + " zones, "
+                    + zones.size() + " requested");
+        }
+        this.zones = zones;
+        this.rangeStarts = new int[zones.getRangeCount()];
+        int count = 0;
+        for (int range = 0; range < rangeStarts.length; range++) {
+            rangeStarts[range] = count;
+            count += zones.getLast(range) - zones.getFirst(range) + 1;
+        }
+        this.zoneCount = count;
+        this.states = new AtomicIntegerArray(zoneCount);
+        this.dirty = new AtomicLongArray((zoneCount + 63) >>> 6);
+    }
+
+    private static ZoneSet checkCount(int zoneCount) {
+        if (zoneCount < 0) {
+            throw new IllegalArgumentException("Negative zone count");
+        }
+        return ZoneSet.range(1, zoneCount);
+    }
+
+    public int getZoneCount() {
+        return zoneCount;
+    }
+
+    /**
+     * Returns the zone's position on the board, or -1 if the board does not show it.
+     */
+    public int indexOf(int zoneId) {
+        int range = zones.rangeOf(zoneId);
+        return range < 0 ? -1 : rangeStarts[range] + (zoneId - zones.getFirst(range));
+    }
+
+    public int getZoneId(int index) {
+        int range = Arrays.binarySearch(rangeStarts, index);
+        if (range < 0) {
+            range = -range - 2;
+        }
+        return zones.getFirst(range) + (index - rangeStarts[range]);
+    }
+
+    public void set(int zoneId, int flag, boolean on) {
+        int index = indexOf(zoneId);
+        if (index < 0) {
+            return;
+        }
+
+        int state;
+        int updated;
+        do {
+            state = states.get(index);
+            updated = on ? state | flag : state & ~flag;
+            if (updated == state) {
+                return;
+            }
+        } while (!states.compareAndSet(index, state, updated));
+        markDirty(index);
+    }
+
+    public int getState(int zoneId) {
+        int index = indexOf(zoneId);
+        return index < 0 ? 0 : states.get(index);
+    }
+
+    public int getStateAt(int index) {
+        return states.get(index);
+    }
+
+    /**
+     * Passes the board index of every zone changed since the last call to the consumer, in ascending order, and
+     * clears the marks.
+     */
+    public void drainDirty(IntConsumer consumer) {
+        for (int word = 0; word < dirty.length(); word++) {
+            if (dirty.get(word) == 0) {
+                continue;
+            }
+            long bits = dirty.getAndSet(word, 0);
+            while (bits != 0) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                consumer.accept((word << 6) + bit);
+            }
+        }
+    }
+
+    private void markDirty(int index) {
+        int word = index >>> 6;
+        long bit = 1L << index;
+        long bits;
+        do {
+            bits = dirty.get(word);
+            if ((bits & bit) != 0) {
+                return;
+            }
+        } while (!dirty.compareAndSet(word, bits, bits | bit));
+    }
+}
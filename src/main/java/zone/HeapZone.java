@@ -0,0 +1,169 @@
+package zone;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zone kept in ordinary fields on the heap, as stored by {@link ZoneDAOLocal} and {@link ZoneDAOConcurrent} and used
+ * to pass zone settings into any store.
+ */
+public class HeapZone extends Zone {
+    private WateringStatus wateringStatus;
+    private LocalDateTime firstWatering;
+    private LocalTime wateringInterval;
+    private int waterVolume;
+    private double wateringDuration;
+    private Map.Entry<Integer, Integer> humidityRange;
+
+    private boolean waterSensorNotResponding;
+
+    private boolean fertilizerSensorNotResponding;
+
+    private int humidityValue;
+
+    private LocalTime sensorsCheckInterval;
+
+    private FertilizingStatus fertilizingStatus;
+    private int fertilizerVolume;
+
+    public HeapZone(int id) {
+        super(id);
+        sensorsCheckInterval = LocalTime.of(0, 1);
+        wateringStatus = WateringStatus.NOT_INITIALISED;
+        fertilizingStatus = FertilizingStatus.NOT_INITIALISED;
+    }
+
+    @Override
+    public WateringStatus getWateringStatus() {
+        return wateringStatus;
+    }
+
+    @Override
+    public void setWateringStatus(WateringStatus wateringStatus) {
+        this.wateringStatus = wateringStatus;
+    }
+
+    @Override
+    public LocalDateTime getFirstWatering() {
+        return firstWatering;
+    }
+
+    @Override
+    public void setFirstWatering(LocalDateTime firstWatering) {
+        this.firstWatering = firstWatering;
+    }
+
+    @Override
+    public LocalTime getWateringInterval() {
+        return wateringInterval;
+    }
+
+    @Override
+    public void setWateringInterval(LocalTime wateringInterval) {
+        this.wateringInterval = wateringInterval;
+    }
+
+    @Override
+    public int getWaterVolume() {
+        return waterVolume;
+    }
+
+    @Override
+    public void setWaterVolume(int waterVolume) {
+        this.waterVolume = waterVolume;
+    }
+
+    @Override
+    public double getWateringDuration() {
+        return wateringDuration;
+    }
+
+    @Override
+    public void setWateringDuration(double wateringDuration) {
+        this.wateringDuration = wateringDuration;
+    }
+
+    @Override
+    public Map.Entry<Integer, Integer> getHumidityRange() {
+        return humidityRange;
+    }
+
+    @Override
+    public void setHumidityRange(Map.Entry<Integer, Integer> humidityRange) {
+        this.humidityRange = humidityRange;
+    }
+
+    @Override
+    public boolean isWaterSensorNotResponding() {
+        return waterSensorNotResponding;
+    }
+
+    @Override
+    public void setWaterSensorNotResponding(boolean waterSensorNotResponding) {
+        this.waterSensorNotResponding = waterSensorNotResponding;
+    }
+
+    @Override
+    public boolean isFertilizerSensorNotResponding() {
+        return fertilizerSensorNotResponding;
+    }
+
+    @Override
+    public void setFertilizerSensorNotResponding(boolean fertilizerSensorNotResponding) {
+        this.fertilizerSensorNotResponding = fertilizerSensorNotResponding;
+    }
+
+    @Override
+    public int getHumidityValue() {
+        int min;
+        int max;
+
+        if (humidityRange != null) {
+            min = humidityRange.getKey();
+            max = humidityRange.getValue() + 1;
+        } else {
+            min = 0;
+            max = 100;
+        }
+
+        humidityValue = ThreadLocalRandom.current().nextInt(min, max);
+        return humidityValue;
+    }
+
+    @Override
+    public void setHumidityValue(int humidityValue) {
+        this.humidityValue = humidityValue;
+    }
+
+    @Override
+    public LocalTime getSensorsCheckInterval() {
+        return sensorsCheckInterval;
+    }
+
+    @Override
+    public void setSensorsCheckInterval(LocalTime sensorsCheckInterval) {
+        this.sensorsCheckInterval = sensorsCheckInterval;
+    }
+
+    @Override
+    public FertilizingStatus getFertilizingStatus() {
+        return fertilizingStatus;
+    }
+
+    @Override
+    public void setFertilizingStatus(FertilizingStatus fertilizingStatus) {
+        this.fertilizingStatus = fertilizingStatus;
+    }
+
+    @Override
+    public int getFertilizerVolume() {
+        return fertilizerVolume;
+    }
+
+    @Override
+    public void setFertilizerVolume(int fertilizerVolume) {
+        this.fertilizerVolume = fertilizerVolume;
+    }
+}
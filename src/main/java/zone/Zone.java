@@ -3,145 +3,67 @@ package zone;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
 
-public class Zone {
-    private int id;
+/**
+ * A zone's settings and sensor state. {@link HeapZone} keeps them in fields; the columnar and memory-mapped stores
+ * hand out views that read and write their own storage and carry nothing but the id and a position.
+ */
+public abstract class Zone {
+    private final int id;
 
-    private WateringStatus wateringStatus;
-    private LocalDateTime firstWatering;
-    private LocalTime wateringInterval;
-    private int waterVolume;
-    private double wateringDuration;
-    private Map.Entry<Integer, Integer> humidityRange;
-
-    private boolean waterSensorNotResponding;
-
-    private boolean fertilizerSensorNotResponding;
-
-    private int humidityValue;
-
-    private LocalTime sensorsCheckInterval;
-
-    private FertilizingStatus fertilizingStatus;
-    private int fertilizerVolume;
-
-    public Zone(int id) {
+    protected Zone(int id) {
         this.id = id;
-        sensorsCheckInterval = LocalTime.of(0, 1);
-        wateringStatus = WateringStatus.NOT_INITIALISED;
-        fertilizingStatus = FertilizingStatus.NOT_INITIALISED;
     }
 
-    public int getId() {
+    public final int getId() {
         return id;
     }
 
-    public WateringStatus getWateringStatus() {
-        return wateringStatus;
-    }
-
-    public void setWateringStatus(WateringStatus wateringStatus) {
-        this.wateringStatus = wateringStatus;
-    }
-
-    public LocalDateTime getFirstWatering() {
-        return firstWatering;
-    }
+    public abstract WateringStatus getWateringStatus();
 
-    public void setFirstWatering(LocalDateTime firstWatering) {
-        this.firstWatering = firstWatering;
-    }
+    public abstract void setWateringStatus(WateringStatus wateringStatus);
 
-    public LocalTime getWateringInterval() {
-        return wateringInterval;
-    }
+    public abstract LocalDateTime getFirstWatering();
 
-    public void setWateringInterval(LocalTime wateringInterval) {
-        this.wateringInterval = wateringInterval;
-    }
+    public abstract void setFirstWatering(LocalDateTime firstWatering);
 
-    public int getWaterVolume() {
-        return waterVolume;
-    }
+    public abstract LocalTime getWateringInterval();
 
-    public void setWaterVolume(int waterVolume) {
-        this.waterVolume = waterVolume;
-    }
+    public abstract void setWateringInterval(LocalTime wateringInterval);
 
-    public double getWateringDuration() {
-        return wateringDuration;
-    }
+    public abstract int getWaterVolume();
 
-    public void setWateringDuration(double wateringDuration) {
-        this.wateringDuration = wateringDuration;
-    }
+    public abstract void setWaterVolume(int waterVolume);
 
-    public Map.Entry<Integer, Integer> getHumidityRange() {
-        return humidityRange;
-    }
+    public abstract double getWateringDuration();
 
-    public void setHumidityRange(Map.Entry<Integer, Integer> humidityRange) {
-        this.humidityRange = humidityRange;
-    }
+    public abstract void setWateringDuration(double wateringDuration);
 
-    public boolean isWaterSensorNotResponding() {
-        return waterSensorNotResponding;
-    }
+    public abstract Map.Entry<Integer, Integer> getHumidityRange();
 
-    public void setWaterSensorNotResponding(boolean waterSensorNotResponding) {
-        this.waterSensorNotResponding = waterSensorNotResponding;
-    }
+    public abstract void setHumidityRange(Map.Entry<Integer, Integer> humidityRange);
 
-    public boolean isFertilizerSensorNotResponding() {
-        return fertilizerSensorNotResponding;
-    }
+    public abstract boolean isWaterSensorNotResponding();
 
-    public void setFertilizerSensorNotResponding(boolean fertilizerSensorNotResponding) {
-        this.fertilizerSensorNotResponding = fertilizerSensorNotResponding;
-    }
+    public abstract void setWaterSensorNotResponding(boolean waterSensorNotResponding);
 
-    public int getHumidityValue() {
-        int min;
-        int max;
+    public abstract boolean isFertilizerSensorNotResponding();
 
-        if (humidityRange != null) {
-            min = humidityRange.getKey();
-            max = humidityRange.getValue() + 1;
-        } else {
-            min = 0;
-            max = 100;
-        }
+    public abstract void setFertilizerSensorNotResponding(boolean fertilizerSensorNotResponding);
 
-        humidityValue = ThreadLocalRandom.current().nextInt(min, max);
-        return humidityValue;
-    }
+    public abstract int getHumidityValue();
 
-    public void setHumidityValue(int humidityValue) {
-        this.humidityValue = humidityValue;
-    }
+    public abstract void setHumidityValue(int humidityValue);
 
-    public LocalTime getSensorsCheckInterval() {
-        return sensorsCheckInterval;
-    }
+    public abstract LocalTime getSensorsCheckInterval();
 
-    public void setSensorsCheckInterval(LocalTime sensorsCheckInterval) {
-        this.sensorsCheckInterval = sensorsCheckInterval;
-    }
+    public abstract void setSensorsCheckInterval(LocalTime sensorsCheckInterval);
 
-    public FertilizingStatus getFertilizingStatus() {
-        return fertilizingStatus;
-    }
+    public abstract FertilizingStatus getFertilizingStatus();
 
-    public void setFertilizingStatus(FertilizingStatus fertilizingStatus) {
-        this.fertilizingStatus = fertilizingStatus;
-    }
+    public abstract void setFertilizingStatus(FertilizingStatus fertilizingStatus);
 
-    public int getFertilizerVolume() {
-        return fertilizerVolume;
-    }
+    public abstract int getFertilizerVolume();
 
-    public void setFertilizerVolume(int fertilizerVolume) {
-        this.fertilizerVolume = fertilizerVolume;
-    }
+    public abstract void setFertilizerVolume(int fertilizerVolume);
 }
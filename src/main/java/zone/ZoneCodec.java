@@ -0,0 +1,68 @@
+package zone;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class ZoneCodec {
+    static final long NO_DATE_TIME = Long.MIN_VALUE;
+    static final int NO_TIME = -1;
+
+    private ZoneCodec() {
+    }
+
+    static long encodeDateTime(LocalDateTime dateTime) {
+        return dateTime == null ? NO_DATE_TIME : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static LocalDateTime decodeDateTime(long epochSecond) {
+        return epochSecond == NO_DATE_TIME ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    static int encodeTime(LocalTime time) {
+        return time == null ? NO_TIME : time.toSecondOfDay();
+    }
+
+    static LocalTime decodeTime(int secondOfDay) {
+        return secondOfDay == NO_TIME ? null : LocalTime.ofSecondOfDay(secondOfDay);
+    }
+
+    /**
+     * Packs both bounds in full, so any range a {@link HeapZone} takes is stored unchanged. Whether a range is set
+     * at all is kept apart, by the caller.
+     */
+    static long encodeHumidityRange(Map.Entry<Integer, Integer> humidityRange) {
+        return ((long) humidityRange.getKey() << 32) | (humidityRange.getValue() & 0xFFFFFFFFL);
+    }
+
+    static Map.Entry<Integer, Integer> decodeHumidityRange(long packed) {
+        return new AbstractMap.SimpleImmutableEntry<>((int) (packed >> 32), (int) packed);
+    }
+
+    /**
+     * Draws a reading the way {@link HeapZone#getHumidityValue()} does.
+     */
+    static int randomHumidity(boolean hasRange, long packedRange) {
+        if (!hasRange) {
+            return ThreadLocalRandom.current().nextInt(0, 100);
+        }
+        return ThreadLocalRandom.current().nextInt((int) (packedRange >> 32), (int) packedRange + 1);
+    }
+
+    static void copy(Zone from, Zone to) {
+        to.setWateringStatus(from.getWateringStatus());
+        to.setFirstWatering(from.getFirstWatering());
+        to.setWateringInterval(from.getWateringInterval());
+        to.setWaterVolume(from.getWaterVolume());
+        to.setWateringDuration(from.getWateringDuration());
+        to.setHumidityRange(from.getHumidityRange());
+        to.setWaterSensorNotResponding(from.isWaterSensorNotResponding());
+        to.setFertilizerSensorNotResponding(from.isFertilizerSensorNotResponding());
+        to.setSensorsCheckInterval(from.getSensorsCheckInterval());
+        to.setFertilizingStatus(from.getFertilizingStatus());
+        to.setFertilizerVolume(from.getFertilizerVolume());
+    }
+}
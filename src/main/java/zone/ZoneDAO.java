@@ -1,6 +1,9 @@
 package zone;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.PrimitiveIterator;
 
 public interface ZoneDAO {
     Zone find(int id);
@@ -8,4 +11,45 @@ public interface ZoneDAO {
     boolean add(Zone zone);
     boolean update(Zone zone);
     boolean delete(int id);
+
+    default Zone create(int id) {
+        Zone zone = new HeapZone(id);
+        return add(zone) ? zone : null;
+    }
+
+    /**
+     * Bulk operations, so that a command over many zones costs one store operation instead of one per zone.
+     * Results are in ascending id order; ids without a zone (or, for createAll, with one) are skipped.
+     */
+    default List<Zone> findAll(ZoneSet ids) {
+        List<Zone> zones = new ArrayList<>();
+        for (PrimitiveIterator.OfInt iterator = ids.iterator(); iterator.hasNext(); ) {
+            Zone zone = find(iterator.nextInt());
+            if (zone != null) {
+                zones.add(zone);
+            }
+        }
+        return zones;
+    }
+
+    default List<Zone> createAll(ZoneSet ids) {
+        List<Zone> zones = new ArrayList<>();
+        for (PrimitiveIterator.OfInt iterator = ids.iterator(); iterator.hasNext(); ) {
+            Zone zone = create(iterator.nextInt());
+            if (zone != null) {
+                zones.add(zone);
+            }
+        }
+        return zones;
+    }
+
+    default int updateAll(Collection<? extends Zone> zones) {
+        int updated = 0;
+        for (Zone zone : zones) {
+            if (update(zone)) {
+                updated++;
+            }
+        }
+        return updated;
+    }
 }
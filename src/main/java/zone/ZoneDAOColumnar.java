@@ -0,0 +1,523 @@
+package zone;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+
+/**
+ * Zone store for very large installations.
+ * Zone fields are kept column by column in fixed-size pages of primitive arrays (epoch seconds, seconds of
+ * day, packed humidity range, status bytes), and {@link #find(int)} hands out a lightweight {@link Zone} view
+ * that reads and writes those columns directly. Pages never move once allocated, so views stay valid while
+ * the store grows; a view of a deleted zone throws {@link IllegalStateException}, even after its slot is reused.
+ */
+public class ZoneDAOColumnar implements ZoneDAO {
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final byte LIVE = 1;
+    private static final byte WATER_SENSOR_NOT_RESPONDING = 1 << 1;
+    private static final byte FERTILIZER_SENSOR_NOT_RESPONDING = 1 << 2;
+    private static final byte HAS_HUMIDITY_RANGE = 1 << 3;
+
+    private static final WateringStatus[] WATERING_STATUSES = WateringStatus.values();
+    private static final FertilizingStatus[] FERTILIZING_STATUSES = FertilizingStatus.values();
+    private static final Zone DEFAULTS = new HeapZone(0);
+
+    private volatile Page[] pages = new Page[0];
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int size;
+
+    private final ZoneSlotIndex index = new ZoneSlotIndex();
+
+    @Override
+    public synchronized Zone find(int id) {
+        int slot = index.get(id);
+        return slot < 0 ? null : view(slot);
+    }
+
+    @Override
+    public List<Zone> findAll() {
+        List<Zone> zones = new ArrayList<>();
+        forEach(zones::add, false);
+        return zones;
+    }
+
+    public List<Zone> findAllWateringEnabled() {
+        List<Zone> zones = new ArrayList<>();
+        forEach(zones::add, true);
+        return zones;
+    }
+
+    public void forEach(Consumer<Zone> action, boolean wateringEnabledOnly) {
+        Page[] current;
+        int slots;
+        synchronized (this) {
+            current = pages;
+            slots = slotCount;
+        }
+        byte enabled = (byte) WateringStatus.ENABLED.ordinal();
+        for (int p = 0; p < current.length && (p << PAGE_SHIFT) < slots; p++) {
+            Page page = current[p];
+            int limit = Math.min(PAGE_SIZE, slots - (p << PAGE_SHIFT));
+            for (int i = 0; i < limit; i++) {
+                if ((page.flags[i] & LIVE) != 0 && (!wateringEnabledOnly || page.wateringStatus[i] == enabled)) {
+                    action.accept(new ColumnarZone(this, page, i, page.ids[i]));
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean add(Zone zone) {
+        if (index.get(zone.getId()) >= 0) {
+            return false;
+        }
+
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : allocateSlot();
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int offset = slot & PAGE_MASK;
+        page.ids[offset] = zone.getId();
+        page.flags[offset] = LIVE;
+        ZoneCodec.copy(zone, new ColumnarZone(this, page, offset, zone.getId()));
+        index.put(zone.getId(), slot);
+        size++;
+        return true;
+    }
+
+    @Override
+    public synchronized Zone create(int id) {
+        return add(new HeapZone(id)) ? view(index.get(id)) : null;
+    }
+
+    @Override
+    public synchronized boolean update(Zone zone) {
+        int slot = index.get(zone.getId());
+        if (slot < 0) {
+            return false;
+        }
+
+        ColumnarZone view = view(slot);
+        if (!(zone instanceof ColumnarZone) || ((ColumnarZone) zone).page != view.page
+                || ((ColumnarZone) zone).offset != view.offset) {
+            ZoneCodec.copy(zone, view);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean delete(int id) {
+        int slot = index.get(id);
+        if (slot < 0) {
+            return false;
+        }
+
+        Page page = pages[slot >>> PAGE_SHIFT];
+        page.flags[slot & PAGE_MASK] = 0;
+        page.generations[slot & PAGE_MASK]++;
+        index.remove(id);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        size--;
+        return true;
+    }
+
+    /**
+     * Probes the index id by id when fewer ids are requested than zones are stored, and otherwise scans the id
+     * column page by page, so a wide range over a small store costs no more than the store itself.
+     */
+    @Override
+    public synchronized List<Zone> findAll(ZoneSet ids) {
+        List<Zone> zones = new ArrayList<>();
+        if (ids.size() <= size) {
+            for (PrimitiveIterator.OfInt iterator = ids.iterator(); iterator.hasNext(); ) {
+                int slot = index.get(iterator.nextInt());
+                if (slot >= 0) {
+                    zones.add(view(slot));
+                }
+            }
+            return zones;
+        }
+
+        for (int p = 0; p < pages.length && (p << PAGE_SHIFT) < slotCount; p++) {
+            Page page = pages[p];
+            int limit = Math.min(PAGE_SIZE, slotCount - (p << PAGE_SHIFT));
+            for (int i = 0; i < limit; i++) {
+                if ((page.flags[i] & LIVE) != 0 && ids.contains(page.ids[i])) {
+                    zones.add(new ColumnarZone(this, page, i, page.ids[i]));
+                }
+            }
+        }
+        zones.sort(Comparator.comparingInt(Zone::getId));
+        return zones;
+    }
+
+    /**
+     * Creates the missing zones in one pass: recycled slots are initialised one by one, and the rest are taken
+     * as one run of fresh slots whose columns are filled with the defaults page by page.
+     */
+    @Override
+    public synchronized List<Zone> createAll(ZoneSet ids) {
+        int[] missing = new int[(int) Math.min(ids.size(), 16)];
+        int count = 0;
+        for (PrimitiveIterator.OfInt iterator = ids.iterator(); iterator.hasNext(); ) {
+            int id = iterator.nextInt();
+            if (index.get(id) < 0) {
+                if (count == missing.length) {
+                    missing = Arrays.copyOf(missing, count * 2);
+                }
+                missing[count++] = id;
+            }
+        }
+
+        List<Zone> zones = new ArrayList<>(count);
+        int created = 0;
+        for (; created < count && freeCount > 0; created++) {
+            int slot = freeSlots[--freeCount];
+            fillDefaults(pages[slot >>> PAGE_SHIFT], slot & PAGE_MASK, (slot & PAGE_MASK) + 1);
+            zones.add(claim(slot, missing[created]));
+        }
+
+        int first = slotCount;
+        int fresh = count - created;
+        slotCount += fresh;
+        int pageCount = (slotCount + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+        if (pageCount > pages.length) {
+            Page[] grown = Arrays.copyOf(pages, pageCount);
+            for (int p = pages.length; p < pageCount; p++) {
+                grown[p] = new Page();
+            }
+            pages = grown;
+        }
+        for (int slot = first; slot < slotCount; slot = (slot | PAGE_MASK) + 1) {
+            int end = Math.min(slotCount - (slot & ~PAGE_MASK), PAGE_SIZE);
+            fillDefaults(pages[slot >>> PAGE_SHIFT], slot & PAGE_MASK, end);
+        }
+        for (int slot = first; slot < slotCount; slot++) {
+            zones.add(claim(slot, missing[created++]));
+        }
+        return zones;
+    }
+
+    /**
+     * Copies foreign zones into their slots; views of this store already hold their slot's values and are skipped.
+     */
+    @Override
+    public synchronized int updateAll(Collection<? extends Zone> zones) {
+        int updated = 0;
+        for (Zone zone : zones) {
+            int slot = index.get(zone.getId());
+            if (slot < 0) {
+                continue;
+            }
+            Page page = pages[slot >>> PAGE_SHIFT];
+            int offset = slot & PAGE_MASK;
+            if (!(zone instanceof ColumnarZone) || ((ColumnarZone) zone).page != page
+                    || ((ColumnarZone) zone).offset != offset) {
+                ZoneCodec.copy(zone, new ColumnarZone(this, page, offset, zone.getId()));
+            }
+            updated++;
+        }
+        return updated;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private ColumnarZone view(int slot) {
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int offset = slot & PAGE_MASK;
+        return new ColumnarZone(this, page, offset, page.ids[offset]);
+    }
+
+    private ColumnarZone claim(int slot, int id) {
+        Page page = pages[slot >>> PAGE_SHIFT];
+        int offset = slot & PAGE_MASK;
+        page.ids[offset] = id;
+        page.flags[offset] = LIVE;
+        index.put(id, slot);
+        size++;
+        return new ColumnarZone(this, page, offset, id);
+    }
+
+    private static void fillDefaults(Page page, int from, int to) {
+        Arrays.fill(page.wateringStatus, from, to, (byte) DEFAULTS.getWateringStatus().ordinal());
+        Arrays.fill(page.fertilizingStatus, from, to, (byte) DEFAULTS.getFertilizingStatus().ordinal());
+        Arrays.fill(page.firstWatering, from, to, ZoneCodec.encodeDateTime(DEFAULTS.getFirstWatering()));
+        Arrays.fill(page.wateringInterval, from, to, ZoneCodec.encodeTime(DEFAULTS.getWateringInterval()));
+        Arrays.fill(page.sensorsCheckInterval, from, to, ZoneCodec.encodeTime(DEFAULTS.getSensorsCheckInterval()));
+        Arrays.fill(page.waterVolume, from, to, DEFAULTS.getWaterVolume());
+        Arrays.fill(page.fertilizerVolume, from, to, DEFAULTS.getFertilizerVolume());
+        Arrays.fill(page.humidityValue, from, to, 0);
+        Arrays.fill(page.humidityRange, from, to, 0L);
+        Arrays.fill(page.wateringDuration, from, to, DEFAULTS.getWateringDuration());
+    }
+
+    private int allocateSlot() {
+        int slot = slotCount++;
+        if ((slot >>> PAGE_SHIFT) == pages.length) {
+            Page[] grown = Arrays.copyOf(pages, pages.length + 1);
+            grown[pages.length] = new Page();
+            pages = grown;
+        }
+        return slot;
+    }
+
+    private static class Page {
+        private final int[] ids = new int[PAGE_SIZE];
+        private final byte[] flags = new byte[PAGE_SIZE];
+        private final int[] generations = new int[PAGE_SIZE];
+        private final byte[] wateringStatus = new byte[PAGE_SIZE];
+        private final byte[] fertilizingStatus = new byte[PAGE_SIZE];
+        private final long[] firstWatering = new long[PAGE_SIZE];
+        private final int[] wateringInterval = new int[PAGE_SIZE];
+        private final int[] sensorsCheckInterval = new int[PAGE_SIZE];
+        private final int[] waterVolume = new int[PAGE_SIZE];
+        private final int[] fertilizerVolume = new int[PAGE_SIZE];
+        private final int[] humidityValue = new int[PAGE_SIZE];
+        private final long[] humidityRange = new long[PAGE_SIZE];
+        private final double[] wateringDuration = new double[PAGE_SIZE];
+    }
+
+    /**
+     * View of one slot: the id and the slot's position, nothing else. Getters and setters take the store's lock,
+     * like {@link #add(Zone)}, {@link #update(Zone)} and {@link #delete(int)} do, so a scheduler thread sees what
+     * the command thread wrote and never reads half of a long or double column. Each access checks the slot's
+     * generation, which {@link #delete(int)} advances.
+     */
+    private static class ColumnarZone extends Zone {
+        private final ZoneDAOColumnar store;
+        private final Page page;
+        private final int offset;
+        private final int generation;
+
+        ColumnarZone(ZoneDAOColumnar store, Page page, int offset, int id) {
+            super(id);
+            this.store = store;
+            this.page = page;
+            this.offset = offset;
+            this.generation = page.generations[offset];
+        }
+
+        @Override
+        public WateringStatus getWateringStatus() {
+            synchronized (store) {
+                checkLive();
+                return WATERING_STATUSES[page.wateringStatus[offset]];
+            }
+        }
+
+        @Override
+        public void setWateringStatus(WateringStatus wateringStatus) {
+            synchronized (store) {
+                checkLive();
+                page.wateringStatus[offset] = (byte) wateringStatus.ordinal();
+            }
+        }
+
+        @Override
+        public LocalDateTime getFirstWatering() {
+            synchronized (store) {
+                checkLive();
+                return ZoneCodec.decodeDateTime(page.firstWatering[offset]);
+            }
+        }
+
+        @Override
+        public void setFirstWatering(LocalDateTime firstWatering) {
+            synchronized (store) {
+                checkLive();
+                page.firstWatering[offset] = ZoneCodec.encodeDateTime(firstWatering);
+            }
+        }
+
+        @Override
+        public LocalTime getWateringInterval() {
+            synchronized (store) {
+                checkLive();
+                return ZoneCodec.decodeTime(page.wateringInterval[offset]);
+            }
+        }
+
+        @Override
+        public void setWateringInterval(LocalTime wateringInterval) {
+            synchronized (store) {
+                checkLive();
+                page.wateringInterval[offset] = ZoneCodec.encodeTime(wateringInterval);
+            }
+        }
+
+        @Override
+        public int getWaterVolume() {
+            synchronized (store) {
+                checkLive();
+                return page.waterVolume[offset];
+            }
+        }
+
+        @Override
+        public void setWaterVolume(int waterVolume) {
+            synchronized (store) {
+                checkLive();
+                page.waterVolume[offset] = waterVolume;
+            }
+        }
+
+        @Override
+        public double getWateringDuration() {
+            synchronized (store) {
+                checkLive();
+                return page.wateringDuration[offset];
+            }
+        }
+
+        @Override
+        public void setWateringDuration(double wateringDuration) {
+            synchronized (store) {
+                checkLive();
+                page.wateringDuration[offset] = wateringDuration;
+            }
+        }
+
+        @Override
+        public Map.Entry<Integer, Integer> getHumidityRange() {
+            synchronized (store) {
+                checkLive();
+                return hasFlag(HAS_HUMIDITY_RANGE) ? ZoneCodec.decodeHumidityRange(page.humidityRange[offset]) : null;
+            }
+        }
+
+        @Override
+        public void setHumidityRange(Map.Entry<Integer, Integer> humidityRange) {
+            synchronized (store) {
+                checkLive();
+                if (humidityRange != null) {
+                    page.humidityRange[offset] = ZoneCodec.encodeHumidityRange(humidityRange);
+                }
+                setFlag(HAS_HUMIDITY_RANGE, humidityRange != null);
+            }
+        }
+
+        @Override
+        public boolean isWaterSensorNotResponding() {
+            return hasFlag(WATER_SENSOR_NOT_RESPONDING);
+        }
+
+        @Override
+        public void setWaterSensorNotResponding(boolean waterSensorNotResponding) {
+            setFlag(WATER_SENSOR_NOT_RESPONDING, waterSensorNotResponding);
+        }
+
+        @Override
+        public boolean isFertilizerSensorNotResponding() {
+            return hasFlag(FERTILIZER_SENSOR_NOT_RESPONDING);
+        }
+
+        @Override
+        public void setFertilizerSensorNotResponding(boolean fertilizerSensorNotResponding) {
+            setFlag(FERTILIZER_SENSOR_NOT_RESPONDING, fertilizerSensorNotResponding);
+        }
+
+        @Override
+        public int getHumidityValue() {
+            synchronized (store) {
+                checkLive();
+                int humidityValue = ZoneCodec.randomHumidity(hasFlag(HAS_HUMIDITY_RANGE), page.humidityRange[offset]);
+                page.humidityValue[offset] = humidityValue;
+                return humidityValue;
+            }
+        }
+
+        @Override
+        public void setHumidityValue(int humidityValue) {
+            synchronized (store) {
+                checkLive();
+                page.humidityValue[offset] = humidityValue;
+            }
+        }
+
+        @Override
+        public LocalTime getSensorsCheckInterval() {
+            synchronized (store) {
+                checkLive();
+                return ZoneCodec.decodeTime(page.sensorsCheckInterval[offset]);
+            }
+        }
+
+        @Override
+        public void setSensorsCheckInterval(LocalTime sensorsCheckInterval) {
+            synchronized (store) {
+                checkLive();
+                page.sensorsCheckInterval[offset] = ZoneCodec.encodeTime(sensorsCheckInterval);
+            }
+        }
+
+        @Override
+        public FertilizingStatus getFertilizingStatus() {
+            synchronized (store) {
+                checkLive();
+                return FERTILIZING_STATUSES[page.fertilizingStatus[offset]];
+            }
+        }
+
+        @Override
+        public void setFertilizingStatus(FertilizingStatus fertilizingStatus) {
+            synchronized (store) {
+                checkLive();
+                page.fertilizingStatus[offset] = (byte) fertilizingStatus.ordinal();
+            }
+        }
+
+        @Override
+        public int getFertilizerVolume() {
+            synchronized (store) {
+                checkLive();
+                return page.fertilizerVolume[offset];
+            }
+        }
+
+        @Override
+        public void setFertilizerVolume(int fertilizerVolume) {
+            synchronized (store) {
+                checkLive();
+                page.fertilizerVolume[offset] = fertilizerVolume;
+            }
+        }
+
+        /**
+         * Fails once the zone has been deleted, whether or not its slot has been reused since.
+         */
+        private void checkLive() {
+            if (page.generations[offset] != generation) {
+                throw new IllegalStateException("Zone " + getId() + " has been deleted");
+            }
+        }
+
+        private boolean hasFlag(byte flag) {
+            synchronized (store) {
+                checkLive();
+                return (page.flags[offset] & flag) != 0;
+            }
+        }
+
+        private void setFlag(byte flag, boolean value) {
+            synchronized (store) {
+                checkLive();
+                page.flags[offset] = (byte) (value ? page.flags[offset] | flag : page.flags[offset] & ~flag);
+            }
+        }
+    }
+}
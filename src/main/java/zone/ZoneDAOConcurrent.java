@@ -0,0 +1,249 @@
+package zone;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe zone store keyed by primitive zone id.
+ * Zones live in open-addressed tables split into stripes: reads never lock, writes lock only their
+ * stripe, and {@link #findAll()} hands out a cached immutable snapshot until the set of zones changes.
+ */
+public class ZoneDAOConcurrent implements ZoneDAO {
+    private static final int DEFAULT_STRIPES = 16;
+    private static final int MIN_CAPACITY = 8;
+    private static final Object DELETED = new Object();
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(0, Collections.emptyList());
+
+    public ZoneDAOConcurrent() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ZoneDAOConcurrent(int concurrencyLevel) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(concurrencyLevel, 1 << 16)) * 2 - 1);
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeShift = 32 - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    @Override
+    public Zone find(int id) {
+        int hash = hash(id);
+        return stripeFor(hash).table.find(id, hash);
+    }
+
+    @Override
+    public List<Zone> findAll() {
+        Snapshot current = snapshot;
+        long observed = version.get();
+        if (current.version == observed) {
+            return current.zones;
+        }
+
+        List<Zone> zones = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.table.collect(zones);
+        }
+        Snapshot rebuilt = new Snapshot(observed, Collections.unmodifiableList(zones));
+        if (version.get() == observed) {
+            snapshot = rebuilt;
+        }
+        return rebuilt.zones;
+    }
+
+    @Override
+    public boolean add(Zone zone) {
+        int hash = hash(zone.getId());
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            if (!stripe.put(zone, hash, true)) {
+                return false;
+            }
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean update(Zone zone) {
+        int hash = hash(zone.getId());
+        Stripe stripe = stripeFor(hash);
+        Zone previous;
+        synchronized (stripe) {
+            previous = stripe.table.find(zone.getId(), hash);
+            if (previous == null) {
+                return false;
+            }
+            if (previous != zone) {
+                stripe.put(zone, hash, false);
+            }
+        }
+        if (previous != zone) {
+            version.incrementAndGet();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean delete(int id) {
+        int hash = hash(id);
+        Stripe stripe = stripeFor(hash);
+        synchronized (stripe) {
+            if (!stripe.remove(id, hash)) {
+                return false;
+            }
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.table.size;
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(int hash) {
+        return stripes[stripeShift == 32 ? 0 : hash >>> stripeShift];
+    }
+
+    private static int hash(int id) {
+        int hash = id * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Stripe {
+        private volatile Table table = new Table(MIN_CAPACITY);
+
+        boolean put(Zone zone, int hash, boolean onlyIfAbsent) {
+            Table current = table;
+            if ((current.size + current.deleted + 1) * 4 > current.capacity() * 3) {
+                current = current.resize();
+                table = current;
+            }
+            return current.put(zone, hash, onlyIfAbsent);
+        }
+
+        boolean remove(int id, int hash) {
+            return table.remove(id, hash);
+        }
+    }
+
+    private static class Table {
+        private final AtomicReferenceArray<Object> slots;
+        private final int mask;
+        private volatile int size;
+        private int deleted;
+
+        Table(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        Zone find(int id, int hash) {
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Object slot = slots.get(i);
+                if (slot == null) {
+                    return null;
+                }
+                if (slot != DELETED && ((Zone) slot).getId() == id) {
+                    return (Zone) slot;
+                }
+            }
+        }
+
+        boolean put(Zone zone, int hash, boolean onlyIfAbsent) {
+            int firstDeleted = -1;
+            int i = hash & mask;
+            for (; ; i = (i + 1) & mask) {
+                Object slot = slots.get(i);
+                if (slot == null) {
+                    break;
+                }
+                if (slot == DELETED) {
+                    if (firstDeleted < 0) {
+                        firstDeleted = i;
+                    }
+                } else if (((Zone) slot).getId() == zone.getId()) {
+                    if (onlyIfAbsent) {
+                        return false;
+                    }
+                    slots.set(i, zone);
+                    return true;
+                }
+            }
+            if (firstDeleted >= 0) {
+                slots.set(firstDeleted, zone);
+                deleted--;
+            } else {
+                slots.set(i, zone);
+            }
+            size++;
+            return true;
+        }
+
+        boolean remove(int id, int hash) {
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Object slot = slots.get(i);
+                if (slot == null) {
+                    return false;
+                }
+                if (slot != DELETED && ((Zone) slot).getId() == id) {
+                    slots.set(i, DELETED);
+                    size--;
+                    deleted++;
+                    return true;
+                }
+            }
+        }
+
+        Table resize() {
+            int capacity = capacity();
+            while ((size + 1) * 2 > capacity) {
+                capacity <<= 1;
+            }
+            Table resized = new Table(capacity);
+            for (int i = 0; i <= mask; i++) {
+                Object slot = slots.get(i);
+                if (slot != null && slot != DELETED) {
+                    Zone zone = (Zone) slot;
+                    resized.put(zone, hash(zone.getId()), false);
+                }
+            }
+            return resized;
+        }
+
+        void collect(List<Zone> zones) {
+            for (int i = 0; i <= mask; i++) {
+                Object slot = slots.get(i);
+                if (slot != null && slot != DELETED) {
+                    zones.add((Zone) slot);
+                }
+            }
+        }
+    }
+
+    private static class Snapshot {
+        private final long version;
+        private final List<Zone> zones;
+
+        Snapshot(long version, List<Zone> zones) {
+            this.version = version;
+            this.zones = zones;
+        }
+    }
+}
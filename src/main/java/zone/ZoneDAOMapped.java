@@ -0,0 +1,568 @@
+package zone;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+
+/**
+ * Zone store persisted in a memory-mapped file of fixed-size records.
+ * {@link #find(int)} hands out a {@link Zone} view whose setters write straight into the mapping, so every
+ * change reaches the file without rewriting it; reopening the file only rebuilds the id index. A view of a deleted
+ * zone throws {@link IllegalStateException}, even after its record is reused.
+ */
+public class ZoneDAOMapped implements ZoneDAO, Closeable {
+    private static final int MAGIC = 0x525A4F4E;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 56;
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_RECORD_SIZE = 8;
+    private static final int HEADER_SLOT_COUNT = 12;
+
+    private static final int ID = 0;
+    private static final int FLAGS = 4;
+    private static final int WATERING_STATUS = 5;
+    private static final int FERTILIZING_STATUS = 6;
+    private static final int FIRST_WATERING = 8;
+    private static final int WATERING_INTERVAL = 16;
+    private static final int SENSORS_CHECK_INTERVAL = 20;
+    private static final int WATER_VOLUME = 24;
+    private static final int FERTILIZER_VOLUME = 28;
+    private static final int HUMIDITY_VALUE = 32;
+    private static final int WATERING_DURATION = 40;
+    private static final int HUMIDITY_RANGE = 48;
+
+    private static final byte LIVE = 1;
+    private static final byte WATER_SENSOR_NOT_RESPONDING = 1 << 1;
+    private static final byte FERTILIZER_SENSOR_NOT_RESPONDING = 1 << 2;
+    private static final byte HAS_HUMIDITY_RANGE = 1 << 3;
+
+    private static final WateringStatus[] WATERING_STATUSES = WateringStatus.values();
+    private static final FertilizingStatus[] FERTILIZING_STATUSES = FertilizingStatus.values();
+    private static final byte[] EMPTY_RECORD = emptyRecord();
+
+    private final FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private int capacity;
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int[] generations = new int[0];
+    private final ZoneSlotIndex index = new ZoneSlotIndex();
+
+    public ZoneDAOMapped(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long fileSize = channel.size();
+            if (fileSize == 0) {
+                map(MIN_CAPACITY);
+                buffer.putInt(HEADER_MAGIC, MAGIC);
+                buffer.putInt(HEADER_VERSION, VERSION);
+                buffer.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+                buffer.putInt(HEADER_SLOT_COUNT, 0);
+            } else {
+                load(file, fileSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized Zone find(int id) {
+        int slot = index.get(id);
+        return slot < 0 ? null : new MappedZone(this, position(slot), id);
+    }
+
+    @Override
+    public List<Zone> findAll() {
+        MappedByteBuffer records;
+        int slots;
+        synchronized (this) {
+            records = buffer;
+            slots = slotCount;
+        }
+        List<Zone> zones = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++) {
+            int position = position(slot);
+            if ((records.get(position + FLAGS) & LIVE) != 0) {
+                zones.add(new MappedZone(this, position, records.getInt(position + ID)));
+            }
+        }
+        return zones;
+    }
+
+    @Override
+    public synchronized boolean add(Zone zone) {
+        return create(zone) != null;
+    }
+
+    @Override
+    public synchronized Zone create(int id) {
+        return create(new HeapZone(id));
+    }
+
+    @Override
+    public synchronized boolean update(Zone zone) {
+        int slot = index.get(zone.getId());
+        if (slot < 0) {
+            return false;
+        }
+
+        if (!(zone instanceof MappedZone) || ((MappedZone) zone).store != this) {
+            ZoneCodec.copy(zone, new MappedZone(this, position(slot), zone.getId()));
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean delete(int id) {
+        int slot = index.get(id);
+        if (slot < 0) {
+            return false;
+        }
+
+        buffer.put(position(slot) + FLAGS, (byte) 0);
+        generations[slot]++;
+        index.remove(id);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Probes the index id by id when fewer ids are requested than zones are stored, and otherwise scans the
+     * records in file order.
+     */
+    @Override
+    public synchronized List<Zone> findAll(ZoneSet ids) {
+        List<Zone> zones = new ArrayList<>();
+        if (ids.size() <= index.size()) {
+            for (PrimitiveIterator.OfInt iterator = ids.iterator(); iterator.hasNext(); ) {
+                int id = iterator.nextInt();
+                int slot = index.get(id);
+                if (slot >= 0) {
+                    zones.add(new MappedZone(this, position(slot), id));
+                }
+            }
+            return zones;
+        }
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            int position = position(slot);
+            if ((buffer.get(position + FLAGS) & LIVE) != 0 && ids.contains(buffer.getInt(position + ID))) {
+                zones.add(new MappedZone(this, position, buffer.getInt(position + ID)));
+            }
+        }
+        zones.sort(Comparator.comparingInt(Zone::getId));
+        return zones;
+    }
+
+    /**
+     * Creates the missing zones in one pass: the mapping is grown at most once, every record is written as one
+     * bulk copy of an empty record, and the slot count in the header is updated once.
+     */
+    @Override
+    public synchronized List<Zone> createAll(ZoneSet ids) {
+        int[] missing = new int[(int) Math.min(ids.size(), 16)];
+        int count = 0;
+        for (PrimitiveIterator.OfInt iterator = ids.iterator(); iterator.hasNext(); ) {
+            int id = iterator.nextInt();
+            if (index.get(id) < 0) {
+                if (count == missing.length) {
+                    missing = Arrays.copyOf(missing, count * 2);
+                }
+                missing[count++] = id;
+            }
+        }
+
+        long required = (long) slotCount + Math.max(0, count - freeCount);
+        if (required > capacity) {
+            try {
+                map((int) Math.min(Integer.MAX_VALUE, Math.max(required, Math.max(MIN_CAPACITY, capacity * 2L))));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        ByteBuffer records = buffer.duplicate();
+        List<Zone> zones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int slot = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+            int position = position(slot);
+            records.position(position);
+            records.put(EMPTY_RECORD);
+            buffer.putInt(position + ID, missing[i]);
+            buffer.put(position + FLAGS, LIVE);
+            index.put(missing[i], slot);
+            zones.add(new MappedZone(this, position, missing[i]));
+        }
+        buffer.putInt(HEADER_SLOT_COUNT, slotCount);
+        return zones;
+    }
+
+    /**
+     * Copies foreign zones into their records; views of this store already write through and are skipped.
+     */
+    @Override
+    public synchronized int updateAll(Collection<? extends Zone> zones) {
+        int updated = 0;
+        for (Zone zone : zones) {
+            int slot = index.get(zone.getId());
+            if (slot < 0) {
+                continue;
+            }
+            if (!(zone instanceof MappedZone) || ((MappedZone) zone).store != this) {
+                ZoneCodec.copy(zone, new MappedZone(this, position(slot), zone.getId()));
+            }
+            updated++;
+        }
+        return updated;
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    private Zone create(Zone zone) {
+        int id = zone.getId();
+        if (index.get(id) >= 0) {
+            return null;
+        }
+
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : allocateSlot();
+        int position = position(slot);
+        buffer.putInt(position + ID, id);
+        buffer.put(position + FLAGS, (byte) 0);
+        MappedZone record = new MappedZone(this, position, id);
+        ZoneCodec.copy(zone, record);
+        record.setHumidityValue(0);
+        setFlag(position, LIVE, true);
+        index.put(id, slot);
+        return record;
+    }
+
+    private int allocateSlot() {
+        if (slotCount == capacity) {
+            try {
+                map(Math.max(MIN_CAPACITY, capacity * 2));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        int slot = slotCount++;
+        buffer.putInt(HEADER_SLOT_COUNT, slotCount);
+        return slot;
+    }
+
+    private void load(Path file, long fileSize) throws IOException {
+        if (fileSize < HEADER_SIZE || (fileSize - HEADER_SIZE) % RECORD_SIZE != 0) {
+            throw new IOException("Not a zone file: " + file);
+        }
+        map((int) Math.min(Integer.MAX_VALUE, (fileSize - HEADER_SIZE) / RECORD_SIZE));
+        if (buffer.getInt(HEADER_MAGIC) != MAGIC || buffer.getInt(HEADER_VERSION) != VERSION
+                || buffer.getInt(HEADER_RECORD_SIZE) != RECORD_SIZE) {
+            throw new IOException("Not a zone file: " + file);
+        }
+
+        slotCount = buffer.getInt(HEADER_SLOT_COUNT);
+        if (slotCount < 0 || slotCount > capacity) {
+            throw new IOException("Corrupted zone file: " + file);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            int position = position(slot);
+            if ((buffer.get(position + FLAGS) & LIVE) != 0 && index.get(buffer.getInt(position + ID)) < 0) {
+                index.put(buffer.getInt(position + ID), slot);
+            } else {
+                buffer.put(position + FLAGS, (byte) 0);
+                if (freeCount == freeSlots.length) {
+                    freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+                }
+                freeSlots[freeCount++] = slot;
+            }
+        }
+    }
+
+    private void map(int records) throws IOException {
+        long size = HEADER_SIZE + (long) records * RECORD_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Zone file too large: " + records + " records");
+        }
+        generations = Arrays.copyOf(generations, records);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        capacity = records;
+    }
+
+    private static byte[] emptyRecord() {
+        Zone defaults = new HeapZone(0);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.put(WATERING_STATUS, (byte) defaults.getWateringStatus().ordinal());
+        record.put(FERTILIZING_STATUS, (byte) defaults.getFertilizingStatus().ordinal());
+        record.putLong(FIRST_WATERING, ZoneCodec.encodeDateTime(defaults.getFirstWatering()));
+        record.putInt(WATERING_INTERVAL, ZoneCodec.encodeTime(defaults.getWateringInterval()));
+        record.putInt(SENSORS_CHECK_INTERVAL, ZoneCodec.encodeTime(defaults.getSensorsCheckInterval()));
+        record.putInt(WATER_VOLUME, defaults.getWaterVolume());
+        record.putInt(FERTILIZER_VOLUME, defaults.getFertilizerVolume());
+        record.putDouble(WATERING_DURATION, defaults.getWateringDuration());
+        return record.array();
+    }
+
+    private static int position(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static int slot(int position) {
+        return (position - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private synchronized byte get(MappedZone zone, int field) {
+        zone.checkLive();
+        return buffer.get(zone.position + field);
+    }
+
+    private synchronized int getInt(MappedZone zone, int field) {
+        zone.checkLive();
+        return buffer.getInt(zone.position + field);
+    }
+
+    private synchronized long getLong(MappedZone zone, int field) {
+        zone.checkLive();
+        return buffer.getLong(zone.position + field);
+    }
+
+    private synchronized double getDouble(MappedZone zone, int field) {
+        zone.checkLive();
+        return buffer.getDouble(zone.position + field);
+    }
+
+    private synchronized void put(MappedZone zone, int field, byte value) {
+        zone.checkLive();
+        buffer.put(zone.position + field, value);
+    }
+
+    private synchronized void putInt(MappedZone zone, int field, int value) {
+        zone.checkLive();
+        buffer.putInt(zone.position + field, value);
+    }
+
+    private synchronized void putLong(MappedZone zone, int field, long value) {
+        zone.checkLive();
+        buffer.putLong(zone.position + field, value);
+    }
+
+    private synchronized void putDouble(MappedZone zone, int field, double value) {
+        zone.checkLive();
+        buffer.putDouble(zone.position + field, value);
+    }
+
+    private synchronized void putHumidityRange(MappedZone zone, Map.Entry<Integer, Integer> humidityRange) {
+        zone.checkLive();
+        if (humidityRange != null) {
+            buffer.putLong(zone.position + HUMIDITY_RANGE, ZoneCodec.encodeHumidityRange(humidityRange));
+        }
+        setFlag(zone.position, HAS_HUMIDITY_RANGE, humidityRange != null);
+    }
+
+    private synchronized void setFlag(MappedZone zone, byte flag, boolean value) {
+        zone.checkLive();
+        setFlag(zone.position, flag, value);
+    }
+
+    private synchronized void setFlag(int position, byte flag, boolean value) {
+        byte flags = buffer.get(position + FLAGS);
+        buffer.put(position + FLAGS, (byte) (value ? flags | flag : flags & ~flag));
+    }
+
+    /**
+     * View of one record: the id and the record's position, nothing else. Getters and setters go through the store
+     * under its lock, so they never interleave with a copy by {@link #update(Zone)} or with the mapping being grown,
+     * and a reading thread sees what the command thread wrote. Each access checks the record's generation, which
+     * {@link #delete(int)} advances.
+     */
+    private static class MappedZone extends Zone {
+        private final ZoneDAOMapped store;
+        private final int position;
+        private final int generation;
+
+        MappedZone(ZoneDAOMapped store, int position, int id) {
+            super(id);
+            this.store = store;
+            this.position = position;
+            this.generation = store.generations[slot(position)];
+        }
+
+        @Override
+        public WateringStatus getWateringStatus() {
+            return WATERING_STATUSES[store.get(this, WATERING_STATUS)];
+        }
+
+        @Override
+        public void setWateringStatus(WateringStatus wateringStatus) {
+            store.put(this, WATERING_STATUS, (byte) wateringStatus.ordinal());
+        }
+
+        @Override
+        public LocalDateTime getFirstWatering() {
+            return ZoneCodec.decodeDateTime(store.getLong(this, FIRST_WATERING));
+        }
+
+        @Override
+        public void setFirstWatering(LocalDateTime firstWatering) {
+            store.putLong(this, FIRST_WATERING, ZoneCodec.encodeDateTime(firstWatering));
+        }
+
+        @Override
+        public LocalTime getWateringInterval() {
+            return ZoneCodec.decodeTime(store.getInt(this, WATERING_INTERVAL));
+        }
+
+        @Override
+        public void setWateringInterval(LocalTime wateringInterval) {
+            store.putInt(this, WATERING_INTERVAL, ZoneCodec.encodeTime(wateringInterval));
+        }
+
+        @Override
+        public int getWaterVolume() {
+            return store.getInt(this, WATER_VOLUME);
+        }
+
+        @Override
+        public void setWaterVolume(int waterVolume) {
+            store.putInt(this, WATER_VOLUME, waterVolume);
+        }
+
+        @Override
+        public double getWateringDuration() {
+            return store.getDouble(this, WATERING_DURATION);
+        }
+
+        @Override
+        public void setWateringDuration(double wateringDuration) {
+            store.putDouble(this, WATERING_DURATION, wateringDuration);
+        }
+
+        @Override
+        public Map.Entry<Integer, Integer> getHumidityRange() {
+            synchronized (store) {
+                checkLive();
+                return (store.buffer.get(position + FLAGS) & HAS_HUMIDITY_RANGE) != 0
+                        ? ZoneCodec.decodeHumidityRange(store.buffer.getLong(position + HUMIDITY_RANGE)) : null;
+            }
+        }
+
+        @Override
+        public void setHumidityRange(Map.Entry<Integer, Integer> humidityRange) {
+            store.putHumidityRange(this, humidityRange);
+        }
+
+        @Override
+        public boolean isWaterSensorNotResponding() {
+            return (store.get(this, FLAGS) & WATER_SENSOR_NOT_RESPONDING) != 0;
+        }
+
+        @Override
+        public void setWaterSensorNotResponding(boolean waterSensorNotResponding) {
+            store.setFlag(this, WATER_SENSOR_NOT_RESPONDING, waterSensorNotResponding);
+        }
+
+        @Override
+        public boolean isFertilizerSensorNotResponding() {
+            return (store.get(this, FLAGS) & FERTILIZER_SENSOR_NOT_RESPONDING) != 0;
+        }
+
+        @Override
+        public void setFertilizerSensorNotResponding(boolean fertilizerSensorNotResponding) {
+            store.setFlag(this, FERTILIZER_SENSOR_NOT_RESPONDING, fertilizerSensorNotResponding);
+        }
+
+        @Override
+        public int getHumidityValue() {
+            synchronized (store) {
+                checkLive();
+                int humidityValue = ZoneCodec.randomHumidity(
+                        (store.buffer.get(position + FLAGS) & HAS_HUMIDITY_RANGE) != 0,
+                        store.buffer.getLong(position + HUMIDITY_RANGE));
+                store.buffer.putInt(position + HUMIDITY_VALUE, humidityValue);
+                return humidityValue;
+            }
+        }
+
+        @Override
+        public void setHumidityValue(int humidityValue) {
+            store.putInt(this, HUMIDITY_VALUE, humidityValue);
+        }
+
+        @Override
+        public LocalTime getSensorsCheckInterval() {
+            return ZoneCodec.decodeTime(store.getInt(this, SENSORS_CHECK_INTERVAL));
+        }
+
+        @Override
+        public void setSensorsCheckInterval(LocalTime sensorsCheckInterval) {
+            store.putInt(this, SENSORS_CHECK_INTERVAL, ZoneCodec.encodeTime(sensorsCheckInterval));
+        }
+
+        @Override
+        public FertilizingStatus getFertilizingStatus() {
+            return FERTILIZING_STATUSES[store.get(this, FERTILIZING_STATUS)];
+        }
+
+        @Override
+        public void setFertilizingStatus(FertilizingStatus fertilizingStatus) {
+            store.put(this, FERTILIZING_STATUS, (byte) fertilizingStatus.ordinal());
+        }
+
+        @Override
+        public int getFertilizerVolume() {
+            return store.getInt(this, FERTILIZER_VOLUME);
+        }
+
+        @Override
+        public void setFertilizerVolume(int fertilizerVolume) {
+            store.putInt(this, FERTILIZER_VOLUME, fertilizerVolume);
+        }
+
+        /**
+         * Fails once the zone has been deleted, whether or not its record has been reused since. Called under the
+         * store's lock.
+         */
+        private void checkLive() {
+            if (store.generations[slot(position)] != generation) {
+                throw new IllegalStateException("Zone " + getId() + " has been deleted");
+            }
+        }
+    }
+}
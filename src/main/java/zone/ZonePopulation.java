@@ -0,0 +1,55 @@
+package zone;
+
+public class ZonePopulation {
+    private final ZoneSet zones;
+
+    private ZonePopulation(ZoneSet zones) {
+        this.zones = zones;
+    }
+
+    public static ZonePopulation range(int first, int last) {
+        if (first > last) {
+            throw new IllegalArgumentException("Empty zone range: " + first + "-" + last);
+        }
+        return new ZonePopulation(ZoneSet.range(first, last));
+    }
+
+    public static ZonePopulation parse(String ranges) {
+        ZoneSet.Builder zones = new ZoneSet.Builder();
+        for (String part : ranges.split(",")) {
+            String range = part.trim();
+            if (range.isEmpty()) {
+                continue;
+            }
+            int hyphen = range.indexOf('-', 1);
+            try {
+                int first = Integer.parseInt(range.substring(0, hyphen < 0 ? range.length() : hyphen).trim());
+                int last = hyphen < 0 ? first : Integer.parseInt(range.substring(hyphen + 1).trim());
+                if (first > last) {
+                    throw new IllegalArgumentException("Empty zone range: " + range);
+                }
+                zones.add(first, last);
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("Invalid zone range: " + range, nfe);
+            }
+        }
+        return new ZonePopulation(zones.build());
+    }
+
+    public boolean contains(int zoneId) {
+        return zones.contains(zoneId);
+    }
+
+    public long size() {
+        return zones.size();
+    }
+
+    public ZoneSet getZones() {
+        return zones;
+    }
+
+    @Override
+    public String toString() {
+        return zones.toString();
+    }
+}
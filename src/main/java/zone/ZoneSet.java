@@ -0,0 +1,306 @@
+package zone;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of zone ids kept as sorted, disjoint, non-adjacent ranges.
+ * A range such as (1-1000000) costs two ints however many zones it covers, iteration walks the ranges
+ * without expanding them, and union, intersection and difference are linear merges over the ranges.
+ */
+public final class ZoneSet implements Iterable<Integer> {
+    public static final ZoneSet EMPTY = new ZoneSet(new int[0], new int[0]);
+
+    private final int[] firsts;
+    private final int[] lasts;
+    private final int rangeCount;
+
+    private ZoneSet(int[] firsts, int[] lasts) {
+        this.firsts = firsts;
+        this.lasts = lasts;
+        this.rangeCount = firsts.length;
+    }
+
+    public static ZoneSet of(int... zoneIds) {
+        Builder builder = new Builder();
+        for (int zoneId : zoneIds) {
+            builder.add(zoneId);
+        }
+        return builder.build();
+    }
+
+    public static ZoneSet range(int first, int last) {
+        return first > last ? EMPTY : new ZoneSet(new int[] {first}, new int[] {last});
+    }
+
+    public boolean contains(int zoneId) {
+        return rangeOf(zoneId) >= 0;
+    }
+
+    /**
+     * Returns the index of the range holding the zone, or -1 if the set does not contain it.
+     */
+    public int rangeOf(int zoneId) {
+        int index = Arrays.binarySearch(firsts, zoneId);
+        if (index >= 0) {
+            return index;
+        }
+        int range = -index - 2;
+        return range >= 0 && zoneId <= lasts[range] ? range : -1;
+    }
+
+    public long size() {
+        long size = 0;
+        for (int i = 0; i < rangeCount; i++) {
+            size += (long) lasts[i] - firsts[i] + 1;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return rangeCount == 0;
+    }
+
+    public int getRangeCount() {
+        return rangeCount;
+    }
+
+    public int getFirst(int range) {
+        return firsts[range];
+    }
+
+    public int getLast(int range) {
+        return lasts[range];
+    }
+
+    public ZoneSet union(ZoneSet other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+
+        Builder builder = new Builder(rangeCount + other.rangeCount);
+        int i = 0;
+        int j = 0;
+        while (i < rangeCount || j < other.rangeCount) {
+            if (j == other.rangeCount || (i < rangeCount && firsts[i] <= other.firsts[j])) {
+                builder.add(firsts[i], lasts[i]);
+                i++;
+            } else {
+                builder.add(other.firsts[j], other.lasts[j]);
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    public ZoneSet intersect(ZoneSet other) {
+        Builder builder = new Builder(Math.min(rangeCount, other.rangeCount));
+        int i = 0;
+        int j = 0;
+        while (i < rangeCount && j < other.rangeCount) {
+            int first = Math.max(firsts[i], other.firsts[j]);
+            int last = Math.min(lasts[i], other.lasts[j]);
+            if (first <= last) {
+                builder.add(first, last);
+            }
+            if (lasts[i] < other.lasts[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    public ZoneSet subtract(ZoneSet other) {
+        if (isEmpty() || other.isEmpty()) {
+            return this;
+        }
+
+        Builder builder = new Builder(rangeCount + other.rangeCount);
+        int j = 0;
+        for (int i = 0; i < rangeCount; i++) {
+            long first = firsts[i];
+            long last = lasts[i];
+            while (j < other.rangeCount && other.lasts[j] < first) {
+                j++;
+            }
+            for (int k = j; k < other.rangeCount && other.firsts[k] <= last; k++) {
+                if (other.firsts[k] > first) {
+                    builder.add((int) first, other.firsts[k] - 1);
+                }
+                first = Math.max(first, other.lasts[k] + 1L);
+            }
+            if (first <= last) {
+                builder.add((int) first, (int) last);
+            }
+        }
+        return builder.build();
+    }
+
+    public void forEachZone(IntConsumer action) {
+        for (int i = 0; i < rangeCount; i++) {
+            for (long zoneId = firsts[i]; zoneId <= lasts[i]; zoneId++) {
+                action.accept((int) zoneId);
+            }
+        }
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int range;
+            private long next = rangeCount > 0 ? firsts[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                return range < rangeCount;
+            }
+
+            @Override
+            public int nextInt() {
+                if (range == rangeCount) {
+                    throw new NoSuchElementException();
+                }
+                int zoneId = (int) next;
+                if (next++ == lasts[range] && ++range < rangeCount) {
+                    next = firsts[range];
+                }
+                return zoneId;
+            }
+        };
+    }
+
+    public int[] toArray() {
+        int[] zoneIds = new int[Math.toIntExact(size())];
+        int count = 0;
+        for (PrimitiveIterator.OfInt iterator = iterator(); iterator.hasNext(); ) {
+            zoneIds[count++] = iterator.nextInt();
+        }
+        return zoneIds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ZoneSet)) {
+            return false;
+        }
+        ZoneSet other = (ZoneSet) o;
+        return Arrays.equals(firsts, other.firsts) && Arrays.equals(lasts, other.lasts);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < rangeCount; i++) {
+            hash = 31 * (31 * hash + firsts[i]) + lasts[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < rangeCount; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(firsts[i]);
+            if (lasts[i] != firsts[i]) {
+                builder.append('-').append(lasts[i]);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Collects ranges in any order; ranges that overlap or touch are merged by {@link #build()}.
+     */
+    public static class Builder {
+        private int[] firsts;
+        private int[] lasts;
+        private int count;
+        private boolean sorted = true;
+
+        public Builder() {
+            this(4);
+        }
+
+        Builder(int capacity) {
+            firsts = new int[Math.max(1, capacity)];
+            lasts = new int[Math.max(1, capacity)];
+        }
+
+        public Builder add(int zoneId) {
+            return add(zoneId, zoneId);
+        }
+
+        public Builder add(int first, int last) {
+            if (first > last) {
+                return this;
+            }
+            if (count > 0) {
+                if (first < firsts[count - 1]) {
+                    sorted = false;
+                } else if (sorted && first <= lasts[count - 1] + 1L) {
+                    lasts[count - 1] = Math.max(lasts[count - 1], last);
+                    return this;
+                }
+            }
+            if (count == firsts.length) {
+                firsts = Arrays.copyOf(firsts, count * 2);
+                lasts = Arrays.copyOf(lasts, count * 2);
+            }
+            firsts[count] = first;
+            lasts[count] = last;
+            count++;
+            return this;
+        }
+
+        public ZoneSet build() {
+            if (count == 0) {
+                return EMPTY;
+            }
+            if (!sorted) {
+                merge();
+            }
+            return new ZoneSet(Arrays.copyOf(firsts, count), Arrays.copyOf(lasts, count));
+        }
+
+        public void clear() {
+            count = 0;
+            sorted = true;
+        }
+
+        private void merge() {
+            long[] ranges = new long[count];
+            for (int i = 0; i < count; i++) {
+                ranges[i] = ((long) firsts[i] << 32) | (lasts[i] & 0xFFFFFFFFL);
+            }
+            Arrays.sort(ranges);
+
+            int merged = 0;
+            for (long range : ranges) {
+                int first = (int) (range >> 32);
+                int last = (int) range;
+                if (merged > 0 && first <= lasts[merged - 1] + 1L) {
+                    lasts[merged - 1] = Math.max(lasts[merged - 1], last);
+                } else {
+                    firsts[merged] = first;
+                    lasts[merged] = last;
+                    merged++;
+                }
+            }
+            count = merged;
+            sorted = true;
+        }
+    }
+}
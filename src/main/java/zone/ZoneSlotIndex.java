@@ -0,0 +1,93 @@
+package zone;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressed map from zone id to record slot, without boxing.
+ * Deletion shifts the following entries back, so lookups never have to skip tombstones.
+ */
+class ZoneSlotIndex {
+    private static final int EMPTY = -1;
+
+    private int[] keys = new int[16];
+    private int[] slots = newSlots(16);
+    private int size;
+
+    int get(int id) {
+        int mask = keys.length - 1;
+        for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == EMPTY) {
+                return EMPTY;
+            }
+            if (keys[i] == id) {
+                return slot;
+            }
+        }
+    }
+
+    void put(int id, int slot) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            int[] oldKeys = keys;
+            int[] oldSlots = slots;
+            keys = new int[oldKeys.length * 2];
+            slots = newSlots(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldSlots[i] != EMPTY) {
+                    insert(oldKeys[i], oldSlots[i]);
+                }
+            }
+        }
+        insert(id, slot);
+        size++;
+    }
+
+    boolean remove(int id) {
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (slots[i] != EMPTY && keys[i] != id) {
+            i = (i + 1) & mask;
+        }
+        if (slots[i] == EMPTY) {
+            return false;
+        }
+        slots[i] = EMPTY;
+        size--;
+
+        for (int j = (i + 1) & mask; slots[j] != EMPTY; j = (j + 1) & mask) {
+            int home = mix(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                slots[i] = slots[j];
+                slots[j] = EMPTY;
+                i = j;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void insert(int id, int slot) {
+        int mask = keys.length - 1;
+        int i = mix(id) & mask;
+        while (slots[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        slots[i] = slot;
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static int mix(int id) {
+        int hash = id * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -4,13 +4,28 @@ import command.*;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import parser.Parser;
+import parser.ScanningLexer;
+import parser.TokenParser;
+import scheduler.VirtualTimeScheduler;
 import ui.MainWindow;
+import zone.WateringStatus;
 import zone.Zone;
 import zone.ZoneDAO;
+import zone.ZoneDAOColumnar;
+import zone.ZoneDAOConcurrent;
+import zone.ZoneDAOLocal;
+import zone.ZoneDAOMapped;
+import zone.ZonePopulation;
+import zone.ZoneSet;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.*;
 
 import static org.mockito.Mockito.*;
@@ -22,14 +37,14 @@ public class AppTest {
         Parser mockedParser = mock(Parser.class);
 
         String input = "ПідключитиПолив: (7-10, 12, 15), 2017-11-01 10:10, 00:30, 1, 2, 30-40;";
-        List<Command> commands = Collections.singletonList(new EnableWatering(new int[]{7, 8, 9, 10, 12, 15},
+        List<Command> commands = Collections.singletonList(new EnableWatering(ZoneSet.of(7, 8, 9, 10, 12, 15),
                 LocalDateTime.of(2017, 11, 1, 10, 10),
                 LocalTime.of(0, 30), 1, 2,
                 new AbstractMap.SimpleImmutableEntry<>(30, 40)));
         when(mockedParser.parse(input)).thenReturn(commands);
 
         App app = new App(mockedDAO, mockedParser);
-        app.setMainWindowController(mock(MainWindow.class));
+        app.setEventSink(mock(MainWindow.class));
         app.handleCommands(input);
 
         verify(mockedDAO, times(6)).find(anyInt());
@@ -43,23 +58,158 @@ public class AppTest {
 
         String input = "ПідключитиПолив: (7-10, 12, 15), 2017-11-01 10:10, 00:30, 1, 2, 30-40;" +
                 "ПоказатиПолив: (5, 7, 9);\nЗупинитиПолив: (3, 7);" + "ВідновитиПолив: (7, 12);";
-        List<Command> commands = Arrays.asList(new EnableWatering(new int[]{7, 8, 9, 10, 12, 15},
+        List<Command> commands = Arrays.asList(new EnableWatering(ZoneSet.of(7, 8, 9, 10, 12, 15),
                         LocalDateTime.of(2017, 11, 1, 10, 10),
                         LocalTime.of(0, 30), 1, 2,
                         new AbstractMap.SimpleImmutableEntry<>(30, 40)),
-                new ShowWatering(new int[] {5, 7, 9}),
-                new StopWatering(new int[] {3, 7}),
-                new ResumeWatering(new int[] {7, 12}));
+                new ShowWatering(ZoneSet.of(5, 7, 9)),
+                new StopWatering(ZoneSet.of(3, 7)),
+                new ResumeWatering(ZoneSet.of(7, 12)));
         when(mockedParser.parse(input)).thenReturn(commands);
 
         App app = new App(mockedDAO, mockedParser);
-        app.setMainWindowController(mock(MainWindow.class));
+        app.setEventSink(mock(MainWindow.class));
         app.handleCommands(input);
 
         verify(mockedDAO, times(13)).find(anyInt());
         verify(mockedDAO, times(8)).update(any());
     }
 
+    @Test
+    void runWateringScheduleInVirtualTime() throws ParseException {
+        ZoneDAO mockedDAO = mockZoneDAO();
+        Parser mockedParser = mock(Parser.class);
+        MainWindow mockedWindow = mock(MainWindow.class);
+
+        String input = "ПідключитиПолив: 7, 2017-11-01 10:10, 06:00, 1, 2, 30-40;";
+        List<Command> commands = Collections.singletonList(new EnableWatering(ZoneSet.of(7),
+                LocalDateTime.of(2017, 11, 1, 10, 10),
+                LocalTime.of(6, 0), 1, 2,
+                new AbstractMap.SimpleImmutableEntry<>(30, 40)));
+        when(mockedParser.parse(input)).thenReturn(commands);
+
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler(LocalDateTime.of(2017, 11, 1, 0, 0),
+                ZoneId.of("UTC"));
+        App app = new App(mockedDAO, mockedParser, scheduler);
+        app.setEventSink(mockedWindow);
+        app.handleCommands(input);
+        scheduler.advanceBy(Duration.ofDays(14));
+
+        verify(mockedWindow, times(55)).print("Watering zone 7");
+        verify(mockedWindow, times(55)).print("Watering zone stopped: 7");
+        Assertions.assertEquals(LocalDateTime.of(2017, 11, 15, 0, 0),
+                LocalDateTime.now(scheduler.getClock()));
+    }
+
+    @Test
+    void cancelRunningWateringOnReset() {
+        MainWindow mockedWindow = mock(MainWindow.class);
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler(LocalDateTime.of(2017, 11, 1, 0, 0),
+                ZoneId.of("UTC"));
+        App app = new App(mockZoneDAO(), mock(Parser.class), scheduler);
+        app.setEventSink(mockedWindow);
+        app.handleCommand(new EnableWatering(ZoneSet.of(7), LocalDateTime.of(2017, 11, 1, 10, 10),
+                LocalTime.of(6, 0), 1, 2, new AbstractMap.SimpleImmutableEntry<>(30, 40)));
+
+        scheduler.advanceTo(LocalDateTime.of(2017, 11, 1, 10, 11).atZone(ZoneId.of("UTC")).toInstant());
+        app.resetAllZones();
+        verify(mockedWindow).print("Watering zone stopped: 7");
+        scheduler.advanceBy(Duration.ofDays(1));
+
+        verify(mockedWindow, times(1)).print("Watering zone 7");
+        verify(mockedWindow, times(1)).print("Watering zone stopped: 7");
+    }
+
+    @Test
+    void materialiseZonesOnFirstReference() throws ParseException {
+        ZoneDAO zoneDAO = new ZoneDAOLocal();
+        Parser mockedParser = mock(Parser.class);
+        MainWindow mockedWindow = mock(MainWindow.class);
+
+        String input = "ПоказатиПолив: (3, 50, 150);ПідключитиУдобрювання: (3, 50, 150), 1;";
+        when(mockedParser.parse(input)).thenReturn(Arrays.asList(new ShowWatering(ZoneSet.of(3, 50, 150)),
+                new EnableFertilizing(ZoneSet.of(3, 50, 150), 1)));
+
+        App app = new App(zoneDAO, mockedParser, new VirtualTimeScheduler(LocalDateTime.of(2017, 11, 1, 0, 0),
+                ZoneId.of("UTC")));
+        app.setEventSink(mockedWindow);
+        app.setZonePopulation(ZonePopulation.parse("1-5, 100-200"));
+        Assertions.assertTrue(zoneDAO.findAll().isEmpty());
+
+        app.handleCommands(input);
+
+        Assertions.assertNotNull(zoneDAO.find(3));
+        Assertions.assertNull(zoneDAO.find(50));
+        Assertions.assertNotNull(zoneDAO.find(150));
+        Assertions.assertEquals(2, zoneDAO.findAll().size());
+        verify(mockedWindow, times(2)).print("Zone 50 doesn't exist");
+        verify(mockedWindow, never()).print(startsWith("Zone 3: watering enabled"));
+    }
+
+    @Test
+    void enableWateringAlikeInEveryStore() throws IOException, ParseException {
+        Path file = Files.createTempFile("zones", ".dat");
+        try (ZoneDAOMapped mapped = new ZoneDAOMapped(file)) {
+            for (ZoneDAO zoneDAO : Arrays.asList(new ZoneDAOLocal(), new ZoneDAOConcurrent(), new ZoneDAOColumnar(),
+                    mapped)) {
+                App app = new App(zoneDAO, new TokenParser(new ScanningLexer()), new VirtualTimeScheduler(
+                        LocalDateTime.of(2017, 11, 1, 0, 0), ZoneId.of("UTC")));
+                app.setEventSink(mock(MainWindow.class));
+                app.handleCommands("ПідключитиПолив: (1, 2), 2017-11-01 10:10, 00:30, 1, 2, 30-40000;");
+
+                for (int id = 1; id <= 2; id++) {
+                    Zone zone = zoneDAO.find(id);
+                    Assertions.assertEquals(WateringStatus.ENABLED, zone.getWateringStatus());
+                    Assertions.assertEquals(new AbstractMap.SimpleImmutableEntry<>(30, 40000),
+                            zone.getHumidityRange());
+                    int humidity = zone.getHumidityValue();
+                    Assertions.assertTrue(humidity >= 30 && humidity <= 40000);
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void showHumidityHistory() throws ParseException {
+        Parser mockedParser = mock(Parser.class);
+        MainWindow mockedWindow = mock(MainWindow.class);
+        String input = "ПоказатиІсторіюВологості: (3-5), 2017-11-01 01:00, 2017-11-01 01:30;";
+        when(mockedParser.parse(input)).thenReturn(Collections.singletonList(new ShowHumidityHistory(
+                ZoneSet.of(3, 4, 5), LocalDateTime.of(2017, 11, 1, 1, 0), LocalDateTime.of(2017, 11, 1, 1, 30))));
+
+        VirtualTimeScheduler scheduler = new VirtualTimeScheduler(LocalDateTime.of(2017, 11, 1, 0, 0),
+                ZoneId.of("UTC"));
+        ZoneDAO zoneDAO = new ZoneDAOLocal();
+        App app = new App(zoneDAO, mockedParser, scheduler);
+        app.setEventSink(mockedWindow);
+        app.startSensors();
+        app.handleCommand(new SetSensorPeriodicity(ZoneSet.of(3), LocalTime.of(0, 1)));
+        zoneDAO.create(4);
+        scheduler.advanceBy(Duration.ofHours(2));
+        app.handleCommands(input);
+
+        verify(mockedWindow).print(startsWith("Zone 3: humidity between 2017-11-01T01:00 and 2017-11-01T01:30 - " +
+                "31 readings"));
+        verify(mockedWindow).print("Zone 4: humidity between 2017-11-01T01:00 and 2017-11-01T01:30 - no readings");
+        Assertions.assertNull(zoneDAO.find(5));
+    }
+
+    @Test
+    void dispatchToRegisteredHandler() {
+        ZoneDAO mockedDAO = mockZoneDAO();
+        App app = new App(mockedDAO, mock(Parser.class));
+        app.setEventSink(mock(MainWindow.class));
+        List<ShowHumidity> handled = new ArrayList<>();
+        app.registerHandler(ShowHumidity.class, handled::add);
+
+        app.handleCommands(Arrays.asList(new ShowHumidity(ZoneSet.of(3)), new ShowFertilizing(ZoneSet.of(3))));
+
+        Assertions.assertEquals(1, handled.size());
+        verify(mockedDAO, times(1)).findAll(any(ZoneSet.class));
+    }
+
     @Test
     void throwErrorOnParserError() throws ParseException {
         ZoneDAO mockedDAO = mockZoneDAO();
@@ -77,18 +227,29 @@ public class AppTest {
 
     private ZoneDAO mockZoneDAO() {
         ZoneDAO mockedDAO = mock(ZoneDAO.class);
-        List<Zone> zones = new ArrayList<>();
+        Map<Integer, Zone> zones = new HashMap<>();
 
         when(mockedDAO.find(anyInt()))
-                .thenAnswer(invocation -> zones.get((int) invocation.getArgument(0) - 1));
+                .thenAnswer(invocation -> zones.get((int) invocation.getArgument(0)));
         when(mockedDAO.update(any()))
                 .thenReturn(true);
         when(mockedDAO.add(any()))
-                .thenAnswer(invocation -> zones.add(invocation.getArgument(0)));
+                .thenAnswer(invocation -> {
+                    Zone zone = invocation.getArgument(0);
+                    return zones.putIfAbsent(zone.getId(), zone) == null;
+                });
+        when(mockedDAO.create(anyInt()))
+                .thenCallRealMethod();
         when(mockedDAO.delete(anyInt()))
-                .thenAnswer(invocation -> (zones.remove(((int) invocation.getArgument(0)) - 1) != null));
+                .thenAnswer(invocation -> (zones.remove((int) invocation.getArgument(0)) != null));
         when(mockedDAO.findAll())
-                .thenReturn(zones);
+                .thenAnswer(invocation -> new ArrayList<>(zones.values()));
+        when(mockedDAO.findAll(any(ZoneSet.class)))
+                .thenCallRealMethod();
+        when(mockedDAO.createAll(any(ZoneSet.class)))
+                .thenCallRealMethod();
+        when(mockedDAO.updateAll(any()))
+                .thenCallRealMethod();
 
         return mockedDAO;
     }
@@ -0,0 +1,71 @@
+package parser;
+
+import command.Command;
+import command.ShowWatering;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import zone.ZoneSet;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+public class CachingParserTest {
+    @Test
+    void reuseCommandsOfRepeatedInput() throws ParseException {
+        Parser mockedParser = mock(Parser.class);
+        when(mockedParser.parse(anyString()))
+                .thenAnswer(invocation -> Collections.singletonList(new ShowWatering(ZoneSet.of(1))));
+        CachingParser parser = new CachingParser(mockedParser, 2, 100);
+
+        List<Command> first = parser.parse("ПоказатиПолив: (1-15);");
+        Assertions.assertSame(first, parser.parse("ПоказатиПолив: (1-15);"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> first.add(null));
+        verify(mockedParser, times(1)).parse("ПоказатиПолив: (1-15);");
+
+        parser.parse("a");
+        parser.parse("ПоказатиПолив: (1-15);");
+        parser.parse("b");
+        Assertions.assertEquals(1, parser.getEvictions());
+        parser.parse("ПоказатиПолив: (1-15);");
+        verify(mockedParser, times(1)).parse("ПоказатиПолив: (1-15);");
+
+        Assertions.assertEquals(3, parser.getHits());
+        Assertions.assertEquals(3, parser.getMisses());
+        Assertions.assertEquals(2, parser.size());
+    }
+
+    @Test
+    void bypassLongAndInvalidInput() throws ParseException {
+        Parser mockedParser = mock(Parser.class);
+        when(mockedParser.parse("long input")).thenReturn(Collections.emptyList());
+        when(mockedParser.parse("?")).thenThrow(ParseException.class);
+        CachingParser parser = new CachingParser(mockedParser, 2, 5);
+
+        parser.parse("long input");
+        parser.parse("long input");
+        Assertions.assertThrows(ParseException.class, () -> parser.parse("?"));
+        Assertions.assertThrows(ParseException.class, () -> parser.parse("?"));
+
+        verify(mockedParser, times(2)).parse("long input");
+        verify(mockedParser, times(2)).parse("?");
+        Assertions.assertEquals(0, parser.getHits());
+        Assertions.assertEquals(0, parser.size());
+    }
+
+    @Test
+    void streamPastTheCache() throws IOException, ParseException {
+        CachingParser parser = new CachingParser(new TokenParser(new ScanningLexer()));
+        CommandReader commands = parser.parse(new StringReader("ПоказатиПолив: 1; ПоказатиПолив: 1;"));
+
+        Assertions.assertNotNull(commands.next());
+        Assertions.assertNotNull(commands.next());
+        Assertions.assertNull(commands.next());
+        Assertions.assertEquals(0, parser.getMisses());
+        Assertions.assertEquals(0, parser.size());
+    }
+}
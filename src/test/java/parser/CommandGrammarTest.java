@@ -0,0 +1,71 @@
+package parser;
+
+import command.Command;
+import command.ShowWatering;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import zone.ZoneSet;
+
+import java.text.ParseException;
+import java.time.LocalTime;
+import java.util.List;
+
+public class CommandGrammarTest {
+    @Test
+    void findStandardCommandsInPlace() {
+        CommandGrammar grammar = CommandGrammar.standard();
+        Assertions.assertEquals(14, grammar.getSpecs().size());
+        Assertions.assertEquals(6, grammar.getMaxArity());
+        String source = "xx ПоказатиПолив: 1;";
+        Assertions.assertEquals(ShowWatering.NAME, grammar.find(source, 3, 16).getName());
+        Assertions.assertNull(grammar.find(source, 3, 15));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> grammar.register(new CommandSpec.Builder("Полити", args -> null).build()));
+
+        CommandGrammar extended = grammar.copy();
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> extended.register(new CommandSpec.Builder(ShowWatering.NAME, args -> null).build()));
+        extended.register(new CommandSpec.Builder("Полити", args -> null).argument(ArgumentType.ZONES).build());
+        Assertions.assertEquals(15, extended.getSpecs().size());
+        Assertions.assertNotNull(extended.find("ПоказатиПолив"));
+        Assertions.assertNull(grammar.find("Полити"));
+        Assertions.assertEquals(14, grammar.getSpecs().size());
+
+        CommandSpec.Builder builder = new CommandSpec.Builder("Полити", args -> null).argument(ArgumentType.ZONES);
+        CommandSpec spec = builder.build();
+        builder.optionalArgument(ArgumentType.TIME);
+        Assertions.assertEquals(1, spec.getArity());
+        Assertions.assertEquals(2, builder.build().getArity());
+    }
+
+    @Test
+    void parseRegisteredCommand() throws ParseException {
+        CommandGrammar grammar = new CommandGrammar();
+        grammar.register(new CommandSpec.Builder("Полити", args -> new Flush((ZoneSet) args[0], (LocalTime) args[1]))
+                .argument(ArgumentType.ZONES).optionalArgument(ArgumentType.TIME).build());
+        TokenParser parser = new TokenParser(new ScanningLexer(), grammar);
+
+        List<Command> commands = parser.parse("Полити: (1-3), 00:05; Полити: 4, ;");
+        Assertions.assertEquals(2, commands.size());
+        Assertions.assertEquals(ZoneSet.range(1, 3), ((Flush) commands.get(0)).zones);
+        Assertions.assertEquals(LocalTime.of(0, 5), ((Flush) commands.get(0)).duration);
+        Assertions.assertEquals(ZoneSet.of(4), ((Flush) commands.get(1)).zones);
+        Assertions.assertNull(((Flush) commands.get(1)).duration);
+        Assertions.assertThrows(ParseException.class, () -> parser.parse("ПоказатиПолив: 1;"));
+    }
+
+    private static class Flush implements Command {
+        private final ZoneSet zones;
+        private final LocalTime duration;
+
+        Flush(ZoneSet zones, LocalTime duration) {
+            this.zones = zones;
+            this.duration = duration;
+        }
+
+        @Override
+        public String getName() {
+            return "Полити";
+        }
+    }
+}
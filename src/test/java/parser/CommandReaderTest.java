@@ -0,0 +1,62 @@
+package parser;
+
+import command.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+
+public class CommandReaderTest {
+    @Test
+    void readCommandsSpanningLines() throws IOException, ParseException {
+        String programme = "ПідключитиПолив: (7-10, 12, 15),\n  2017-11-01 10:10, 00:30,\n  1, 2, 30-40;\n" +
+                "ПоказатиПолив: (5, 7, 9); ЗупинитиПолив:\n(3, 7);\n\n";
+        CommandReader commands = new TokenParser(new ScanningLexer()).parse(new TrickleReader(programme));
+
+        Command command = commands.next();
+        Assertions.assertEquals(EnableWatering.NAME, command.getName());
+        Assertions.assertArrayEquals(new int[] {7, 8, 9, 10, 12, 15}, ((EnableWatering) command).getZones().toArray());
+        Assertions.assertEquals(ShowWatering.NAME, commands.next().getName());
+        Assertions.assertEquals(StopWatering.NAME, commands.next().getName());
+        Assertions.assertEquals("ЗупинитиПолив:\n(3, 7);", commands.getCommandText());
+        Assertions.assertNull(commands.next());
+        Assertions.assertNull(commands.next());
+    }
+
+    @Test
+    void continueAfterInvalidCommand() throws IOException, ParseException {
+        String programme = "ПоказатиПолив: ?; ПоказатиПолив: 1; ПоказатиПолив: 2";
+        CommandReader commands = new TokenParser(new ScanningLexer()).parse(new TrickleReader(programme));
+
+        ParseException first = Assertions.assertThrows(ParseException.class, commands::next);
+        Assertions.assertEquals(programme.indexOf('?'), first.getErrorOffset());
+        Assertions.assertEquals(ShowWatering.NAME, commands.next().getName());
+        ParseException last = Assertions.assertThrows(ParseException.class, commands::next);
+        Assertions.assertEquals(programme.length(), last.getErrorOffset());
+        Assertions.assertNull(commands.next());
+    }
+
+    private static class TrickleReader extends Reader {
+        private final String input;
+        private int position;
+
+        TrickleReader(String input) {
+            this.input = input;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == input.length()) {
+                return -1;
+            }
+            buffer[offset] = input.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package parser;
+
+import command.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import zone.ZoneSet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompiledProgramTest {
+    private static final String PROGRAMME = "ПідключитиПолив: (7-10, 12, 15), 2017-11-10 16:17, 00:00:15, 1, 0.1, 30-40;" +
+            "ЗмінитиПолив: 3, , 00:05, , 12.125, ;" +
+            "ЗадатиПеріодичністьДатчиків: (1-5), 00:02;" +
+            "ПідключитиУдобрювання: (9, 10), 1;" +
+            "ЗупинитиПолив: (10-15);" +
+            "ПоказатиАктивніЗони: 2017-11-01 10:10, 2017-11-01 12:00;" +
+            "ПоказатиНаступніПоливи: 5;";
+
+    @Test
+    void loadCompiledCommands() throws IOException, ParseException {
+        List<Command> commands = new ArrayList<>(new TokenParser(new ScanningLexer()).parse(PROGRAMME));
+        commands.add(new ShowHumidity(ZoneSet.of(5, 3, 4, -1, 0, Integer.MAX_VALUE)));
+        Path file = Files.createTempFile("programme", ".bin");
+        try {
+            new ProgramCompiler().compile(commands, file);
+            Assertions.assertTrue(CompiledProgram.isCompiled(file));
+
+            try (CompiledProgram program = new CompiledProgram(file)) {
+                Assertions.assertEquals(commands.size(), program.size());
+                for (int i = 0; i < commands.size(); i++) {
+                    Assertions.assertEquals(commands.get(i).getName(), program.get(i).getName());
+                }
+
+                EnableWatering enableWatering = (EnableWatering) program.get(0);
+                Assertions.assertArrayEquals(new int[] {7, 8, 9, 10, 12, 15}, enableWatering.getZones().toArray());
+                Assertions.assertEquals(LocalDateTime.of(2017, 11, 10, 16, 17), enableWatering.getFirstWatering());
+                Assertions.assertEquals(LocalTime.of(0, 0, 15), enableWatering.getWateringInterval());
+                Assertions.assertEquals(1, enableWatering.getWaterVolume());
+                Assertions.assertEquals(0.1, enableWatering.getWateringDuration());
+                Assertions.assertEquals(new AbstractMap.SimpleImmutableEntry<>(30, 40),
+                        enableWatering.getHumidityRange());
+
+                ChangeWatering changeWatering = (ChangeWatering) program.get(1);
+                Assertions.assertArrayEquals(new int[] {3}, changeWatering.getZones().toArray());
+                Assertions.assertNull(changeWatering.getFirstWatering());
+                Assertions.assertEquals(LocalTime.of(0, 5), changeWatering.getWateringInterval());
+                Assertions.assertNull(changeWatering.getWaterVolume());
+                Assertions.assertEquals(Double.valueOf(12.125), changeWatering.getWateringDuration());
+                Assertions.assertNull(changeWatering.getHumidityRange());
+
+                Assertions.assertEquals(LocalTime.of(0, 2), ((SetSensorPeriodicity) program.get(2)).getCheckInterval());
+                Assertions.assertEquals(1, ((EnableFertilizing) program.get(3)).getFertilizerVolume());
+                Assertions.assertEquals(LocalDateTime.of(2017, 11, 1, 12, 0), ((ShowActiveZones) program.get(5)).getTo());
+                Assertions.assertEquals(5, ((ShowNextWaterings) program.get(6)).getCount());
+                Assertions.assertEquals(ZoneSet.of(-1, 0, 3, 4, 5, Integer.MAX_VALUE),
+                        ((ShowHumidity) program.get(7)).getZones());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void rejectForeignFiles() throws IOException {
+        Path file = Files.createTempFile("programme", ".txt");
+        try {
+            Files.write(file, PROGRAMME.getBytes(StandardCharsets.UTF_8));
+            Assertions.assertFalse(CompiledProgram.isCompiled(file));
+            Assertions.assertThrows(IOException.class, () -> new CompiledProgram(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package parser;
+
+import command.BasicCommand;
+import command.Command;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelParserTest {
+    private static final String[] LINES = {
+            "ПідключитиПолив: (%d-%d, 12), 2017-11-01 10:10, 00:30, 1, 2.5, 30-40;\n",
+            "ПоказатиПолив: (%d, %d);\n",
+            "ЗмінитиПолив: %d, , 01:00, %d, , ;\n"
+    };
+
+    @Test
+    void keepSourceOrderAcrossChunks() throws ParseException {
+        String programme = programme(3000);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Command> expected = new TokenParser(new ScanningLexer()).parse(programme);
+            List<Command> actual = new ParallelParser(new TokenParser(new ScanningLexer()), pool, 1000)
+                    .parse(programme);
+
+            Assertions.assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assertions.assertEquals(expected.get(i).getName(), actual.get(i).getName());
+                Assertions.assertEquals(((BasicCommand) expected.get(i)).getZones(),
+                        ((BasicCommand) actual.get(i)).getZones());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void reportFirstErrorAtOffsetInWholeInput() {
+        String programme = programme(1000) + "ПоказатиПолив: 1?;\n" + programme(1000) + "ПоказатиПолив 1;\n";
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParseException expected = Assertions.assertThrows(ParseException.class,
+                    () -> new TokenParser(new ScanningLexer()).parse(programme));
+            ParseException actual = Assertions.assertThrows(ParseException.class,
+                    () -> new ParallelParser(new TokenParser(new ScanningLexer()), pool, 1000).parse(programme));
+
+            Assertions.assertEquals(programme.indexOf('?'), actual.getErrorOffset());
+            Assertions.assertEquals(expected.getErrorOffset(), actual.getErrorOffset());
+            Assertions.assertEquals(expected.getMessage(), actual.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String programme(int commands) {
+        StringBuilder programme = new StringBuilder();
+        for (int i = 0; i < commands; i++) {
+            programme.append(String.format(LINES[i % LINES.length], i % 100 + 1, i % 100 + 3));
+        }
+        return programme.toString();
+    }
+}
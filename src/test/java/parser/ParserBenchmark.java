@@ -0,0 +1,90 @@
+package parser;
+
+import command.Command;
+
+import java.text.ParseException;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput benchmark: several command sources parse short independent inputs at once. Before parsing was
+ * reentrant the single parser held by App had to be shared behind a lock, which is measured for comparison.
+ * Run with: java parser.ParserBenchmark [threads] [seconds]
+ */
+public class ParserBenchmark {
+    private static final String[] INPUTS = {
+            "ПідключитиПолив: (%d-%d, 12), 2017-11-01 10:10, 00:30, 1, 2.5, 30-40;",
+            "ПоказатиПолив: (%d, %d);",
+            "ЗмінитиПолив: %d, , 01:00, %d, , ;",
+            "ЗадатиПеріодичністьДатчиків: (%d-%d), 00:02;"
+    };
+
+    public static void main(String... args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        for (int round = 0; round < 2; round++) {
+            run("TokenParser (synchronized)", new SynchronizedParser(new TokenParser(new ScanningLexer())),
+                    threads, seconds);
+            run("TokenParser (reentrant)", new TokenParser(new ScanningLexer()), threads, seconds);
+        }
+    }
+
+    private static void run(String name, Parser parser, int threadCount, int seconds) throws InterruptedException {
+        String[] inputs = new String[1024];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < inputs.length; i++) {
+            int zone = random.nextInt(1, 1000);
+            inputs[i] = String.format(INPUTS[i % INPUTS.length], zone, zone + random.nextInt(1, 50));
+        }
+
+        AtomicLong parsed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1000000000L;
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    long count = 0;
+                    int next = ThreadLocalRandom.current().nextInt(inputs.length);
+                    while (System.nanoTime() < deadline) {
+                        for (int i = 0; i < 1000; i++) {
+                            parser.parse(inputs[next]);
+                            next = (next + 1) % inputs.length;
+                        }
+                        count += 1000;
+                    }
+                    parsed.addAndGet(count);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ParseException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.println(String.format("%-28s %d threads: %,.0f inputs/s", name, threadCount,
+                parsed.get() / (double) seconds));
+    }
+
+    private static class SynchronizedParser implements Parser {
+        private final Parser parser;
+
+        SynchronizedParser(Parser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public synchronized Collection<Command> parse(String input) throws ParseException {
+            return parser.parse(input);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package parser;
+
+import command.Command;
+import command.EnableWatering;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import zone.ZoneSet;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public class ParserServiceTest {
+    @Test
+    void parseIndependentInputsConcurrently() throws ParseException {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            inputs.add(String.format("ПідключитиПолив: (%d-%d), 2017-11-01 10:10, 00:30, %d, 2.5, 30-40;" +
+                    "ПоказатиПолив: %d;", i, i + 5, i, i));
+        }
+
+        try (ParserService service = new ParserService(new TokenParser(new ScanningLexer()), 4)) {
+            List<Collection<Command>> results = service.parseAll(inputs);
+            Assertions.assertEquals(inputs.size(), results.size());
+            for (int i = 1; i <= results.size(); i++) {
+                List<Command> commands = new ArrayList<>(results.get(i - 1));
+                Assertions.assertEquals(2, commands.size());
+                EnableWatering enableWatering = (EnableWatering) commands.get(0);
+                Assertions.assertEquals(ZoneSet.range(i, i + 5), enableWatering.getZones());
+                Assertions.assertEquals(i, enableWatering.getWaterVolume());
+            }
+        }
+    }
+
+    @Test
+    void reportFirstFailedInput() {
+        try (ParserService service = new ParserService(new TokenParser(new ScanningLexer()), 2)) {
+            ParseException e = Assertions.assertThrows(ParseException.class, () -> service.parseAll(
+                    Arrays.asList("ПоказатиПолив: 1;", "ПоказатиПолив: x;", "Невідома: 1;")));
+            Assertions.assertEquals(15, e.getErrorOffset());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package parser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.List;
+
+public class ScanningLexerTest {
+    @Test
+    void produceSameTokensAsRegexLexer() throws ParseException {
+        String[] inputs = {
+                "ПідключитиПолив: (7-10, 12, 15), 2017-11-01 10:10, 30, 1, 1.5, 30-40;",
+                "ПоказатиПолив: 1;\nЗадатиПеріодичністьДатчиків: 1, 00:10;\r\nПоказатиРівеньВологості: (1-5, 7);",
+                "\t ЗупинитиПолив: (3,7) ; ВідновитиПолив:(7,12);  ",
+                "abc123DEF٣٤ ;",
+                ""
+        };
+
+        RegexLexer regexLexer = new RegexLexer();
+        ScanningLexer scanningLexer = new ScanningLexer();
+        for (String input : inputs) {
+            Assertions.assertEquals(regexLexer.tokenize(input), scanningLexer.tokenize(input));
+        }
+    }
+
+    @Test
+    void reportExactErrorOffset() {
+        ScanningLexer lexer = new ScanningLexer();
+        ParseException exception = Assertions.assertThrows(ParseException.class,
+                () -> lexer.tokenize("ПоказатиПолив: 1;\nПоказатиПолив: 1?;\nПоказатиПолив: 1?;"));
+
+        Assertions.assertEquals(34, exception.getErrorOffset());
+        Assertions.assertEquals("Unexpected character: ?;", exception.getMessage());
+    }
+
+    @Test
+    void tokenizeLargeProgramme() throws ParseException {
+        StringBuilder programme = new StringBuilder();
+        for (int i = 0; i < 50000; i++) {
+            programme.append("ПідключитиПолив: (7-10, 12, 15), 2017-11-01 10:10, 00:30, 1, 2, 30-40;\n");
+        }
+
+        List<Token> tokens = new ScanningLexer().tokenize(programme.toString());
+
+        Assertions.assertEquals(50000 * 33, tokens.size());
+        Assertions.assertEquals(new Token(TokenType.SEMICOLON_SEPARATOR, ";"), tokens.get(tokens.size() - 1));
+    }
+}
@@ -61,7 +61,7 @@ public class TokenParserTest {
 
         EnableWatering enableWatering = (EnableWatering) command;
 
-        Assertions.assertArrayEquals(new int[]{7, 8, 9, 10, 12, 15}, enableWatering.getZones());
+        Assertions.assertArrayEquals(new int[]{7, 8, 9, 10, 12, 15}, enableWatering.getZones().toArray());
         Assertions.assertEquals(LocalDateTime.of(2017, 11, 1, 10, 10),
                 enableWatering.getFirstWatering());
         Assertions.assertEquals(LocalTime.of(0,30), enableWatering.getWateringInterval());
@@ -237,7 +237,7 @@ public class TokenParserTest {
 
         ChangeWatering changeWatering = (ChangeWatering) command;
 
-        Assertions.assertArrayEquals(new int[]{1}, changeWatering.getZones());
+        Assertions.assertArrayEquals(new int[]{1}, changeWatering.getZones().toArray());
         Assertions.assertNull(changeWatering.getFirstWatering());
         Assertions.assertEquals(LocalTime.of(0,5), changeWatering.getWateringInterval());
         Assertions.assertNull(changeWatering.getWaterVolume());
@@ -307,17 +307,82 @@ public class TokenParserTest {
         Command first = list.get(0);
         Assertions.assertTrue(first instanceof EnableWatering);
         EnableWatering enableWatering = (EnableWatering) first;
-        Assertions.assertArrayEquals(new int[]{7, 8, 9, 10, 12, 15}, enableWatering.getZones());
+        Assertions.assertArrayEquals(new int[]{7, 8, 9, 10, 12, 15}, enableWatering.getZones().toArray());
 
         Command second = list.get(1);
         Assertions.assertTrue(second instanceof ShowWatering);
         ShowWatering showWatering = (ShowWatering) second;
-        Assertions.assertArrayEquals(new int[]{7, 9}, showWatering.getZones());
+        Assertions.assertArrayEquals(new int[]{7, 9}, showWatering.getZones().toArray());
 
         Command third = list.get(2);
         Assertions.assertTrue(third instanceof StopWatering);
         StopWatering stopWatering = (StopWatering) third;
-        Assertions.assertArrayEquals(new int[]{5}, stopWatering.getZones());
+        Assertions.assertArrayEquals(new int[]{5}, stopWatering.getZones().toArray());
+    }
+
+    @Test
+    void parseWateringCalendarCommands() throws ParseException {
+        List<Token> tokens = Arrays.asList(new Token(TokenType.STRING, "ПоказатиАктивніЗони"),
+                new Token(TokenType.COLON_SEPARATOR, ":"),
+                new Token(TokenType.INTEGER_NUMBER, "2017"),
+                new Token(TokenType.HYPHEN_SEPARATOR, "-"),
+                new Token(TokenType.INTEGER_NUMBER, "11"),
+                new Token(TokenType.HYPHEN_SEPARATOR, "-"),
+                new Token(TokenType.INTEGER_NUMBER, "01"),
+                new Token(TokenType.INTEGER_NUMBER, "10"),
+                new Token(TokenType.COLON_SEPARATOR, ":"),
+                new Token(TokenType.INTEGER_NUMBER, "10"),
+                new Token(TokenType.COMMA_SEPARATOR, ","),
+                new Token(TokenType.INTEGER_NUMBER, "2017"),
+                new Token(TokenType.HYPHEN_SEPARATOR, "-"),
+                new Token(TokenType.INTEGER_NUMBER, "11"),
+                new Token(TokenType.HYPHEN_SEPARATOR, "-"),
+                new Token(TokenType.INTEGER_NUMBER, "01"),
+                new Token(TokenType.INTEGER_NUMBER, "12"),
+                new Token(TokenType.COLON_SEPARATOR, ":"),
+                new Token(TokenType.INTEGER_NUMBER, "00"),
+                new Token(TokenType.SEMICOLON_SEPARATOR, ";"),
+                new Token(TokenType.STRING, "ПоказатиНаступніПоливи"),
+                new Token(TokenType.COLON_SEPARATOR, ":"),
+                new Token(TokenType.INTEGER_NUMBER, "5"),
+                new Token(TokenType.SEMICOLON_SEPARATOR, ";"));
+
+        String input = "ПоказатиАктивніЗони: 2017-11-01 10:10, 2017-11-01 12:00;ПоказатиНаступніПоливи: 5;";
+
+        Lexer mockedLexer = mock(Lexer.class);
+        when(mockedLexer.tokenize(input)).thenReturn(tokens);
+
+        TokenParser parser = new TokenParser(mockedLexer);
+        List<Command> list = parser.parse(input);
+
+        ShowActiveZones showActiveZones = (ShowActiveZones) list.get(0);
+        Assertions.assertEquals(LocalDateTime.of(2017, 11, 1, 10, 10), showActiveZones.getFrom());
+        Assertions.assertEquals(LocalDateTime.of(2017, 11, 1, 12, 0), showActiveZones.getTo());
+
+        ShowNextWaterings showNextWaterings = (ShowNextWaterings) list.get(1);
+        Assertions.assertEquals(5, showNextWaterings.getCount());
+    }
+
+    @Test
+    void parseValuesFromSourceOffsets() throws ParseException {
+        TokenParser parser = new TokenParser(new ScanningLexer());
+        List<Command> commands = parser.parse("ПідключитиПолив: (7-9, 12), 2017-11-01 10:10, 00:30:15, 1, 1.05, 30-40;\n" +
+                "ЗмінитиПолив: 3, , , 20, 12.125, ;");
+
+        EnableWatering enableWatering = (EnableWatering) commands.get(0);
+        Assertions.assertArrayEquals(new int[] {7, 8, 9, 12}, enableWatering.getZones().toArray());
+        Assertions.assertEquals(LocalDateTime.of(2017, 11, 1, 10, 10), enableWatering.getFirstWatering());
+        Assertions.assertEquals(LocalTime.of(0, 30, 15), enableWatering.getWateringInterval());
+        Assertions.assertEquals(1.05, enableWatering.getWateringDuration());
+
+        ChangeWatering changeWatering = (ChangeWatering) commands.get(1);
+        Assertions.assertNull(changeWatering.getFirstWatering());
+        Assertions.assertEquals(Integer.valueOf(20), changeWatering.getWaterVolume());
+        Assertions.assertEquals(Double.valueOf(12.125), changeWatering.getWateringDuration());
+        Assertions.assertNull(changeWatering.getHumidityRange());
+
+        Assertions.assertThrows(ParseException.class, () -> parser.parse("ПоказатиПолив: 99999999999;"));
+        Assertions.assertThrows(ParseException.class, () -> parser.parse("ПоказатиАктивніЗони: 2017-13-01 10:10, 2017-11-01 10:10;"));
     }
 
     @Test
@@ -416,4 +481,23 @@ public class TokenParserTest {
         Assertions.assertThrows(ParseException.class, () -> parser.parse(input1));
         Assertions.assertThrows(ParseException.class, () -> parser.parse(input2));
     }
+
+    @Test
+    void reportErrorOffsetsForLegacyLexers() throws ParseException {
+        TokenParser parser = new TokenParser(new RegexLexer());
+        String input = "ПоказатиПолив: 1;\n  Невідома: 1;";
+        ParseException mapped = Assertions.assertThrows(ParseException.class, () -> parser.parse(input));
+        Assertions.assertEquals(input.indexOf("Невідома"), mapped.getErrorOffset());
+
+        List<Token> tokens = Arrays.asList(new Token(TokenType.STRING, "ПоказатиПолив"),
+                new Token(TokenType.COLON_SEPARATOR, ":"),
+                new Token(TokenType.STRING, "Невідома"),
+                new Token(TokenType.COLON_SEPARATOR, ":"));
+        Lexer mockedLexer = mock(Lexer.class);
+        when(mockedLexer.tokenize("")).thenReturn(tokens);
+
+        ParseException indexed = Assertions.assertThrows(ParseException.class,
+                () -> new TokenParser(mockedLexer).parse(""));
+        Assertions.assertEquals(2, indexed.getErrorOffset());
+    }
 }
@@ -0,0 +1,59 @@
+package scheduler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PumpPlannerTest {
+    @Test
+    void staggerWateringsExceedingCapacity() {
+        PumpPlanner planner = new PumpPlanner(2);
+
+        long[] starts = new long[5];
+        for (int zoneId = 1; zoneId <= 5; zoneId++) {
+            starts[zoneId - 1] = planner.reserve(zoneId, 1, 0, 600).getStart();
+        }
+
+        Assertions.assertArrayEquals(new long[] {0, 0, 600, 600, 1200}, starts);
+        Assertions.assertEquals(2, planner.getPlannedFlow(0));
+        Assertions.assertEquals(1, planner.getPlannedFlow(1200));
+        Assertions.assertEquals(0, planner.getPlannedFlow(1800));
+    }
+
+    @Test
+    void fitAroundExistingReservations() {
+        PumpPlanner planner = new PumpPlanner(3);
+
+        Assertions.assertEquals(0, planner.reserve(1, 2, 0, 100).getStart());
+        Assertions.assertEquals(100, planner.reserve(2, 2, 0, 100).getStart());
+        Assertions.assertEquals(0, planner.reserve(3, 1, 0, 100).getStart());
+        Assertions.assertEquals(100, planner.reserve(4, 1, 0, 50).getStart());
+        Assertions.assertEquals(200, planner.reserve(5, 2, 0, 100).getStart());
+    }
+
+    @Test
+    void releaseRemainingFlow() {
+        PumpPlanner planner = new PumpPlanner(1);
+        planner.reserve(1, 1, 0, 1000);
+        PumpPlanner.Reservation pending = planner.reserve(2, 1, 0, 1000);
+
+        Assertions.assertEquals(1000, pending.getStart());
+        Assertions.assertTrue(planner.hasPendingStart(2, 500));
+
+        planner.release(1, 500);
+        planner.release(2, 500);
+
+        Assertions.assertTrue(pending.isCancelled());
+        Assertions.assertFalse(planner.hasPendingStart(2, 500));
+        Assertions.assertEquals(500, planner.reserve(3, 1, 500, 100).getStart());
+    }
+
+    @Test
+    void giveWholePumpToZoneAboveCapacity() {
+        PumpPlanner planner = new PumpPlanner(1);
+        planner.reserve(1, 0.5, 0, 100);
+
+        Assertions.assertEquals(100, planner.reserve(2, 5, 0, 100).getStart());
+        Assertions.assertEquals(0, planner.reserve(3, 0.5, 0, 100).getStart());
+        Assertions.assertEquals(200, planner.reserve(4, 0.6, 0, 100).getStart());
+    }
+}
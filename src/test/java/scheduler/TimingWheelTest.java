@@ -0,0 +1,91 @@
+package scheduler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TimingWheelTest {
+    @Test
+    void expireEntriesAtTheirTick() {
+        TimingWheel wheel = new TimingWheel(0);
+        long[] expiries = new long[] {1, 5, 255, 256, 257, 65535, 65536, 70000, 16777216, 20000000};
+        Map<TimingWheel.Entry, Long> entries = new HashMap<>();
+        for (long expiry : expiries) {
+            TimingWheel.Entry entry = new TimingWheel.Entry();
+            entry.expiryTick = expiry;
+            wheel.add(entry);
+            entries.put(entry, expiry);
+        }
+
+        Map<TimingWheel.Entry, Long> fired = new HashMap<>();
+        wheel.advance(20000000, entry -> fired.put(entry, wheel.getCurrentTick()));
+
+        Assertions.assertEquals(entries, fired);
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void expireEntriesAddedAfterAdvancing() {
+        TimingWheel wheel = new TimingWheel(0);
+        wheel.advance(1000, entry -> Assertions.fail("Nothing was scheduled"));
+
+        TimingWheel.Entry entry = new TimingWheel.Entry();
+        entry.expiryTick = 1000 + 300;
+        wheel.add(entry);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(5000, expired -> fired.add(wheel.getCurrentTick()));
+
+        Assertions.assertEquals(Collections.singletonList(1300L), fired);
+    }
+
+    @Test
+    void fireOverdueEntryOnNextTick() {
+        TimingWheel wheel = new TimingWheel(100);
+        TimingWheel.Entry entry = new TimingWheel.Entry();
+        entry.expiryTick = 10;
+        wheel.add(entry);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(200, expired -> fired.add(wheel.getCurrentTick()));
+
+        Assertions.assertEquals(Collections.singletonList(101L), fired);
+    }
+
+    @Test
+    void removeEntry() {
+        TimingWheel wheel = new TimingWheel(0);
+        TimingWheel.Entry first = new TimingWheel.Entry();
+        first.expiryTick = 70000;
+        TimingWheel.Entry second = new TimingWheel.Entry();
+        second.expiryTick = 70000;
+        wheel.add(first);
+        wheel.add(second);
+
+        Assertions.assertTrue(wheel.remove(first));
+        Assertions.assertFalse(wheel.remove(first));
+
+        List<TimingWheel.Entry> fired = new ArrayList<>();
+        wheel.advance(80000, fired::add);
+
+        Assertions.assertEquals(Collections.singletonList(second), fired);
+    }
+
+    @Test
+    void runPeriodicTaskUntilCancelled() throws InterruptedException {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler(Clock.systemUTC(), 1, 2);
+        CountDownLatch latch = new CountDownLatch(3);
+
+        ScheduledTask task = scheduler.scheduleAtFixedRate(latch::countDown, 0, 5);
+
+        Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(task.cancel());
+        Assertions.assertTrue(task.isCancelled());
+        Assertions.assertEquals(0, scheduler.size());
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,63 @@
+package scheduler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class WateringCalendarTest {
+    @Test
+    void findZonesActiveBetween() {
+        WateringCalendar calendar = new WateringCalendar(10000);
+        calendar.put(1, 100, 1000, 50, 0);
+        calendar.put(2, 400, 500, 200, 0);
+        calendar.put(3, 0, 3000, 10, 0);
+
+        Assertions.assertEquals(new TreeSet<>(Arrays.asList(1, 3)), calendar.findZonesActiveBetween(0, 120, 0));
+        Assertions.assertEquals(new TreeSet<>(Collections.singletonList(2)), calendar.findZonesActiveBetween(500, 600, 0));
+        Assertions.assertEquals(new TreeSet<>(Arrays.asList(1, 2)), calendar.findZonesActiveBetween(1050, 1120, 0));
+        Assertions.assertTrue(calendar.findZonesActiveBetween(150, 400, 0).isEmpty());
+    }
+
+    @Test
+    void findNextWaterings() {
+        WateringCalendar calendar = new WateringCalendar(10000);
+        calendar.put(1, 100, 1000, 50, 0);
+        calendar.put(2, 400, 500, 200, 0);
+
+        List<WateringWindow> next = calendar.findNextWaterings(4, 150);
+
+        Assertions.assertEquals(4, next.size());
+        long[] starts = next.stream().mapToLong(WateringWindow::getStart).toArray();
+        int[] zones = next.stream().mapToInt(WateringWindow::getZoneId).toArray();
+        Assertions.assertArrayEquals(new long[] {400, 900, 1100, 1400}, starts);
+        Assertions.assertArrayEquals(new int[] {2, 2, 1, 2}, zones);
+    }
+
+    @Test
+    void updateZoneSchedule() {
+        WateringCalendar calendar = new WateringCalendar(10000);
+        calendar.put(1, 100, 1000, 50, 0);
+        calendar.put(1, 300, 1000, 50, 0);
+
+        Assertions.assertTrue(calendar.findZonesActiveBetween(100, 150, 0).isEmpty());
+        Assertions.assertEquals(Collections.singleton(1), calendar.findZonesActiveBetween(300, 350, 0));
+
+        calendar.remove(1);
+
+        Assertions.assertEquals(0, calendar.size());
+        Assertions.assertTrue(calendar.findNextWaterings(10, 0).isEmpty());
+    }
+
+    @Test
+    void rollHorizonForward() {
+        WateringCalendar calendar = new WateringCalendar(1000);
+        calendar.put(1, 0, 100, 10, 0);
+
+        Assertions.assertEquals(10, calendar.size());
+        Assertions.assertTrue(calendar.findZonesActiveBetween(5000, 5005, 0).isEmpty());
+        Assertions.assertEquals(Collections.singleton(1), calendar.findZonesActiveBetween(5000, 5005, 4500));
+        Assertions.assertEquals(5000, calendar.findNextWaterings(1, 4950).get(0).getStart());
+        Assertions.assertEquals(10, calendar.size());
+    }
+}
@@ -0,0 +1,73 @@
+package simulation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import zone.ZonePopulation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class SimulationTest {
+    @Test
+    void simulateProgrammeOverHorizon() throws ParseException {
+        Simulation simulation = new Simulation(LocalDateTime.of(2017, 11, 10, 0, 0), ZonePopulation.range(1, 15), null);
+        simulation.load("ПідключитиПолив: (1-2), 2017-11-10 06:00, 12:00, 5, 30, 30-40;");
+        simulation.run(Duration.ofDays(2));
+
+        SimulationRecorder recorder = simulation.getRecorder();
+        Assertions.assertEquals(4, recorder.getWaterings(1));
+        Assertions.assertEquals(20, recorder.getWaterUsed(1));
+        Assertions.assertEquals(20, recorder.getWaterUsed(2));
+        Assertions.assertEquals(0, recorder.getWaterUsed(3));
+        Assertions.assertEquals(4, recorder.getOverlappingWaterings());
+        Assertions.assertEquals(2, recorder.getMaxConcurrentWaterings());
+        Assertions.assertEquals(2 * (2 * 24 * 60 + 1), recorder.getSensorSamples());
+    }
+
+    @Test
+    void staggerWateringsByPumpCapacity() throws ParseException {
+        Simulation simulation = new Simulation(LocalDateTime.of(2017, 11, 10, 0, 0), ZonePopulation.range(1, 15), null);
+        simulation.setPumpCapacity(2);
+        simulation.load("ПідключитиПолив: (1-4), 2017-11-10 06:00, 12:00, 10, 10, 30-40;");
+        simulation.run(Duration.ofDays(1));
+
+        SimulationRecorder recorder = simulation.getRecorder();
+        Assertions.assertEquals(2, recorder.getMaxConcurrentWaterings());
+        for (int zoneId = 1; zoneId <= 4; zoneId++) {
+            Assertions.assertEquals(2, recorder.getWaterings(zoneId));
+        }
+    }
+
+    @Test
+    void recordSparsePopulation() throws ParseException {
+        Simulation simulation = new Simulation(LocalDateTime.of(2017, 11, 10, 0, 0),
+                ZonePopulation.parse("1, 1000000000"), null);
+        simulation.load("ПідключитиПолив: 1000000000, 2017-11-10 06:00, 12:00, 5, 30, 30-40;");
+        simulation.run(Duration.ofDays(1));
+
+        SimulationRecorder recorder = simulation.getRecorder();
+        Assertions.assertEquals(2, recorder.getWaterings(1000000000));
+        Assertions.assertEquals(0, recorder.getWaterings(1));
+        ByteArrayOutputStream summary = new ByteArrayOutputStream();
+        recorder.writeSummary(new PrintStream(summary, true));
+        Assertions.assertTrue(summary.toString().contains("1000000000          2        10"));
+    }
+
+    @Test
+    void writeEventTrace() throws ParseException {
+        StringWriter trace = new StringWriter();
+        Simulation simulation = new Simulation(LocalDateTime.of(2017, 11, 10, 0, 0), ZonePopulation.range(1, 15), trace);
+        simulation.load("ПідключитиПолив: 3, 2017-11-10 06:00, 12:00, 5, 30, 30-40;" +
+                "ЗадатиПеріодичністьДатчиків: (1-15), 23:00;");
+        simulation.run(Duration.ofHours(7));
+
+        String expected = "0 H 3 ";
+        Assertions.assertTrue(trace.toString().contains(expected));
+        Assertions.assertTrue(trace.toString().contains("21600 W+ 3\n"));
+        Assertions.assertTrue(trace.toString().endsWith("23400 W- 3\n"));
+    }
+}
@@ -0,0 +1,103 @@
+package telemetry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Random;
+
+public class RollupStoreTest {
+    private static final long MINUTE = 60_000L;
+    private static final long START = 1509494400000L;
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    @Test
+    void aggregateLikeRawReadings() throws IOException {
+        long start = ZonedDateTime.of(2017, 10, 25, 0, 0, 0, 0, BERLIN).toInstant().toEpochMilli();
+        TimeSeriesStore raw = new TimeSeriesStore();
+        RollupStore rollups = new RollupStore(BERLIN, 90, 30, 5);
+        Random random = new Random(42);
+        int minutes = 12 * 24 * 60;
+        int restart = 2 * 24 * 60 + 17;
+        for (int i = 0; i < minutes; i++) {
+            int value = random.nextInt(100);
+            raw.append(5, start + i * MINUTE, value);
+            if (i >= restart) {
+                rollups.add(5, start + i * MINUTE, value);
+            }
+        }
+
+        long[] rawReads = new long[1];
+        ReadingSource counting = (zoneId, from, to, consumer) -> raw.query(zoneId, from, to,
+                (zone, time, value) -> {
+                    rawReads[0]++;
+                    consumer.accept(zone, time, value);
+                });
+        for (int i = 0; i < 200; i++) {
+            long from = start + random.nextInt(minutes) * MINUTE + (i % 2 == 0 ? 0 : random.nextInt((int) MINUTE));
+            long to = from + random.nextInt(minutes) * MINUTE + random.nextInt((int) MINUTE) - MINUTE / 2;
+            Rollup expected = new Rollup(from, to);
+            raw.query(5, from, to, (zone, time, value) -> expected.add(value));
+
+            Rollup actual = rollups.aggregate(5, from, to, counting);
+            Assertions.assertEquals(expected.getCount(), actual.getCount());
+            Assertions.assertEquals(expected.getSum(), actual.getSum());
+            Assertions.assertEquals(expected.getMin(), actual.getMin());
+            Assertions.assertEquals(expected.getMax(), actual.getMax());
+        }
+
+        rawReads[0] = 0;
+        long lastDay = start + (minutes - 24 * 60) * MINUTE;
+        Rollup day = rollups.aggregate(5, lastDay, lastDay + 24 * 60 * MINUTE - 1, counting);
+        Assertions.assertEquals(24 * 60, day.getCount());
+        Assertions.assertEquals(0, rawReads[0]);
+        Assertions.assertEquals(0, rollups.aggregate(6, start, start + MINUTE, counting).getCount());
+    }
+
+    @Test
+    void queryBucketsOfOneResolution() {
+        RollupStore rollups = new RollupStore(ZoneOffset.UTC);
+        for (int i = 0; i < 180; i++) {
+            rollups.add(1, START + i * MINUTE, i < 60 ? 10 : 20 + i % 2);
+        }
+
+        List<Rollup> hours = rollups.query(1, RollupStore.Resolution.HOUR, START, START + 180 * MINUTE);
+        Assertions.assertEquals(3, hours.size());
+        Assertions.assertEquals(START + 60 * MINUTE, hours.get(1).getStart());
+        Assertions.assertEquals(60, hours.get(1).getCount());
+        Assertions.assertEquals(10.0, hours.get(0).getAverage());
+        Assertions.assertEquals(20, hours.get(2).getMin());
+        Assertions.assertEquals(21, hours.get(2).getMax());
+        Assertions.assertEquals(1, rollups.query(1, RollupStore.Resolution.DAY, START, START).size());
+        Assertions.assertEquals(180, rollups.query(1, RollupStore.Resolution.MINUTE, 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void alignBucketsToLocalClock() {
+        RollupStore rollups = new RollupStore(BERLIN);
+        long start = ZonedDateTime.of(2017, 10, 28, 20, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+        for (int i = 0; i < 30 * 60; i++) {
+            rollups.add(1, start + i * MINUTE, 1);
+        }
+
+        long midnight = ZonedDateTime.of(2017, 10, 29, 0, 0, 0, 0, BERLIN).toInstant().toEpochMilli();
+        long nextMidnight = ZonedDateTime.of(2017, 10, 30, 0, 0, 0, 0, BERLIN).toInstant().toEpochMilli();
+        List<Rollup> days = rollups.query(1, RollupStore.Resolution.DAY, midnight, midnight);
+        Assertions.assertEquals(1, days.size());
+        Assertions.assertEquals(midnight, days.get(0).getStart());
+        Assertions.assertEquals(nextMidnight - 1, days.get(0).getEnd());
+        Assertions.assertEquals(25 * 60, days.get(0).getCount());
+
+        long twoAm = ZonedDateTime.of(2017, 10, 29, 2, 0, 0, 0, BERLIN).toInstant().toEpochMilli();
+        List<Rollup> hours = rollups.query(1, RollupStore.Resolution.HOUR, twoAm, twoAm);
+        Assertions.assertEquals(twoAm, hours.get(0).getStart());
+        Assertions.assertEquals(twoAm + 2 * 60 * MINUTE - 1, hours.get(0).getEnd());
+        Assertions.assertEquals(2 * 60, hours.get(0).getCount());
+        Assertions.assertEquals(3, rollups.query(1, RollupStore.Resolution.HOUR, twoAm - 1, twoAm + 2 * 60 * MINUTE)
+                .size());
+    }
+}
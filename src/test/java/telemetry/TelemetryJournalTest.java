@@ -0,0 +1,96 @@
+package telemetry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class TelemetryJournalTest {
+    @Test
+    void readBackRecordsFromAllThreads() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("telemetry");
+        try {
+            int threads = 3;
+            int perThread = 50000;
+            try (TelemetryJournal journal = new TelemetryJournal(directory, 1 << 16, 1 << 20, 10)) {
+                List<Thread> writers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int zoneId = t + 1;
+                    Thread writer = new Thread(() -> {
+                        for (int i = 0; i < perThread; i++) {
+                            journal.record(zoneId, 1000L + i, i % 100);
+                        }
+                    });
+                    writers.add(writer);
+                    writer.start();
+                }
+                for (Thread writer : writers) {
+                    writer.join();
+                }
+                Assertions.assertEquals(0, journal.getDropped());
+            }
+
+            long[] counts = new long[threads + 1];
+            long[] lastTimes = new long[threads + 1];
+            TelemetryJournal.read(directory, (zoneId, time, value) -> {
+                Assertions.assertEquals(lastTimes[zoneId] == 0 ? 1000L : lastTimes[zoneId] + 1, time);
+                Assertions.assertEquals((time - 1000) % 100, value);
+                lastTimes[zoneId] = time;
+                counts[zoneId]++;
+            });
+            for (int zoneId = 1; zoneId <= threads; zoneId++) {
+                Assertions.assertEquals(perThread, counts[zoneId]);
+            }
+            Assertions.assertTrue(segments(directory).size() > 1);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    void dropReadingsWhenRingIsFull() throws IOException {
+        Path directory = Files.createTempDirectory("telemetry");
+        try {
+            try (TelemetryJournal journal = new TelemetryJournal(directory, 4, 1 << 20, 60000)) {
+                int recorded = 0;
+                for (int i = 0; i < 10; i++) {
+                    if (journal.record(7, i, 50)) {
+                        recorded++;
+                    }
+                }
+                Assertions.assertEquals(10 - recorded, journal.getDropped());
+            }
+            try (TelemetryJournal journal = new TelemetryJournal(directory)) {
+                journal.record(8, 20, 60);
+            }
+
+            List<Integer> zones = new ArrayList<>();
+            TelemetryJournal.read(directory, (zoneId, time, value) -> zones.add(zoneId));
+            Assertions.assertEquals(8, (int) zones.get(zones.size() - 1));
+            Assertions.assertEquals(2, segments(directory).size());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package telemetry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class TimeSeriesStoreTest {
+    private static final long START = 1509530400000L;
+
+    @Test
+    void decodeIrregularSeries() throws IOException {
+        TimeSeriesStore store = new TimeSeriesStore();
+        long[] times = {START, START + 60000, START + 120000, START + 180003, START + 240000, START + 239000,
+                START + 86400000L, Long.MAX_VALUE / 2};
+        int[] values = {40, 40, 41, 33, 200, -5, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        for (int i = 0; i < times.length; i++) {
+            store.append(3, times[i], values[i]);
+        }
+
+        List<Long> decodedTimes = new ArrayList<>();
+        List<Integer> decodedValues = new ArrayList<>();
+        store.query(3, Long.MIN_VALUE, Long.MAX_VALUE, (zoneId, time, value) -> {
+            decodedTimes.add(time);
+            decodedValues.add(value);
+        });
+        for (int i = 0; i < times.length; i++) {
+            Assertions.assertEquals(times[i], (long) decodedTimes.get(i));
+            Assertions.assertEquals(values[i], (int) decodedValues.get(i));
+        }
+
+        List<Integer> window = new ArrayList<>();
+        store.query(3, START + 60000, START + 180003, (zoneId, time, value) -> window.add(value));
+        Assertions.assertEquals(3, window.size());
+        store.query(4, Long.MIN_VALUE, Long.MAX_VALUE, (zoneId, time, value) -> Assertions.fail("No zone 4"));
+    }
+
+    @Test
+    void sealOldBlocksToDisk() throws IOException {
+        Path directory = Files.createTempDirectory("history");
+        try {
+            try (TimeSeriesStore store = new TimeSeriesStore(directory, 16, 1)) {
+                for (int i = 0; i < 1000; i++) {
+                    store.append(1, START + i * 60000L, 30 + i % 20);
+                    store.append(2, START + i * 60000L, 50);
+                }
+                Assertions.assertEquals(100, countBetween(store, 1, START + 100 * 60000L, START + 199 * 60000L));
+            }
+            Assertions.assertFalse(files(directory).isEmpty());
+
+            try (TimeSeriesStore store = new TimeSeriesStore(directory)) {
+                Assertions.assertEquals(1000, countBetween(store, 1, Long.MIN_VALUE, Long.MAX_VALUE));
+                List<Integer> values = new ArrayList<>();
+                store.query(1, START + 998 * 60000L, Long.MAX_VALUE, (zoneId, time, value) -> values.add(value));
+                Assertions.assertEquals(2, values.size());
+                Assertions.assertEquals(48, (int) values.get(0));
+                Assertions.assertEquals(1000, countBetween(store, 2, Long.MIN_VALUE, Long.MAX_VALUE));
+            }
+        } finally {
+            for (Path file : files(directory)) {
+                Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    void dropOldestBlocksInMemory() throws IOException {
+        TimeSeriesStore store = new TimeSeriesStore(16, 2);
+        for (int i = 0; i < 100; i++) {
+            store.append(1, START + i * 60000L, i);
+        }
+        List<Integer> values = new ArrayList<>();
+        store.query(1, Long.MIN_VALUE, Long.MAX_VALUE, (zoneId, time, value) -> values.add(value));
+        Assertions.assertEquals(36, values.size());
+        Assertions.assertEquals(64, (int) values.get(0));
+        Assertions.assertEquals(99, (int) values.get(values.size() - 1));
+        Assertions.assertEquals(4, store.getDroppedBlocks());
+    }
+
+    @Test
+    void rejectAppendAfterClose() throws IOException {
+        Path directory = Files.createTempDirectory("history");
+        try {
+            TimeSeriesStore store = new TimeSeriesStore(directory, 16, 0);
+            for (int i = 0; i < 40; i++) {
+                store.append(1, START + i * 60000L, i);
+            }
+            store.close();
+            Assertions.assertThrows(IllegalStateException.class, () -> store.append(1, START, 0));
+            Assertions.assertThrows(IllegalStateException.class, () -> store.append(2, START, 0));
+            Assertions.assertEquals(1, files(directory).size());
+
+            try (TimeSeriesStore reopened = new TimeSeriesStore(directory)) {
+                Assertions.assertEquals(40, countBetween(reopened, 1, Long.MIN_VALUE, Long.MAX_VALUE));
+                Assertions.assertEquals(0, countBetween(reopened, 2, Long.MIN_VALUE, Long.MAX_VALUE));
+            }
+        } finally {
+            for (Path file : files(directory)) {
+                Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static int countBetween(TimeSeriesStore store, int zoneId, long from, long to) throws IOException {
+        int[] count = new int[1];
+        store.query(zoneId, from, to, (zone, time, value) -> count[0]++);
+        return count[0];
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted(Comparator.naturalOrder()).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ui;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+
+public class ConsoleBufferTest {
+    private static final String EOL = System.lineSeparator();
+
+    @Test
+    void trimOldLinesPastLimit() {
+        ConsoleBuffer console = new ConsoleBuffer(3, ZoneOffset.UTC);
+        StringBuilder view = new StringBuilder();
+
+        console.accept("a", 3723004L);
+        console.accept("b", 3723050L);
+        Assertions.assertTrue(console.finish());
+        apply(console, view);
+        Assertions.assertEquals("[01:02:03.004] a" + EOL + "[01:02:03.050] b" + EOL, view.toString());
+
+        for (String line : new String[] {"c", "d", "e", "f"}) {
+            console.accept(line, 0);
+        }
+        Assertions.assertTrue(console.finish());
+        apply(console, view);
+        Assertions.assertEquals("[00:00:00.000] d" + EOL + "[00:00:00.000] e" + EOL + "[00:00:00.000] f" + EOL,
+                view.toString());
+        Assertions.assertEquals(3, console.getLineCount());
+        Assertions.assertFalse(console.finish());
+    }
+
+    private static void apply(ConsoleBuffer console, StringBuilder view) {
+        view.delete(0, console.getTrimmed()).append(console.getAppended());
+    }
+}
@@ -0,0 +1,63 @@
+package ui;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MessageRingTest {
+    @Test
+    void dropMessagesWhenFull() {
+        MessageRing ring = new MessageRing(4);
+        for (int i = 0; i < 6; i++) {
+            ring.offer(i, "message " + i);
+        }
+        Assertions.assertEquals(2, ring.getDropped());
+
+        List<String> drained = new ArrayList<>();
+        Assertions.assertEquals(4, ring.drain((message, time) -> drained.add(message + " at " + time)));
+        Assertions.assertEquals("message 0 at 0", drained.get(0));
+        Assertions.assertEquals("message 3 at 3", drained.get(3));
+
+        Assertions.assertTrue(ring.offer(7, "message 7"));
+        Assertions.assertEquals(1, ring.drain((message, time) -> drained.add(message)));
+        Assertions.assertEquals(0, ring.drain((message, time) -> drained.add(message)));
+    }
+
+    @Test
+    void drainWhileProducersWrite() throws InterruptedException {
+        MessageRing ring = new MessageRing(1 << 10);
+        int producers = 4;
+        int perProducer = 20000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(i, String.valueOf(producer))) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        int received = 0;
+        while (received < producers * perProducer) {
+            received += ring.drain((message, time) -> {
+                int producer = Integer.parseInt(message);
+                Assertions.assertEquals(lastSeen[producer] + 1, time);
+                lastSeen[producer] = time;
+            });
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(producers * perProducer, received);
+    }
+}
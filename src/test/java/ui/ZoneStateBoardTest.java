@@ -0,0 +1,51 @@
+package ui;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import zone.ZoneSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ZoneStateBoardTest {
+    @Test
+    void drainEachChangedZoneOnce() {
+        ZoneStateBoard board = new ZoneStateBoard(100000);
+        board.set(99999, ZoneStateBoard.WATERING, true);
+        board.set(7, ZoneStateBoard.WATERING, true);
+        board.set(7, ZoneStateBoard.FERTILIZING, true);
+        board.set(7, ZoneStateBoard.WATERING, false);
+        board.set(64, ZoneStateBoard.ALARM, false);
+        board.set(100001, ZoneStateBoard.WATERING, true);
+
+        List<Integer> dirty = new ArrayList<>();
+        board.drainDirty(dirty::add);
+        Assertions.assertEquals(Arrays.asList(6, 99998), dirty);
+        Assertions.assertEquals(ZoneStateBoard.FERTILIZING, board.getState(7));
+        Assertions.assertEquals(0, board.getState(100001));
+
+        dirty.clear();
+        board.drainDirty(dirty::add);
+        Assertions.assertTrue(dirty.isEmpty());
+    }
+
+    @Test
+    void layOutSparseZonesDensely() {
+        ZoneStateBoard board = new ZoneStateBoard(new ZoneSet.Builder().add(2000000000, 2000000015).add(-3)
+                .add(Integer.MAX_VALUE).build());
+        Assertions.assertEquals(18, board.getZoneCount());
+        Assertions.assertEquals(0, board.indexOf(-3));
+        Assertions.assertEquals(17, board.indexOf(Integer.MAX_VALUE));
+        Assertions.assertEquals(-1, board.indexOf(2000000016));
+        Assertions.assertEquals(2000000004, board.getZoneId(5));
+
+        board.set(2000000004, ZoneStateBoard.ALARM, true);
+        board.set(7, ZoneStateBoard.ALARM, true);
+        List<Integer> dirty = new ArrayList<>();
+        board.drainDirty(dirty::add);
+        Assertions.assertEquals(Arrays.asList(5), dirty);
+        Assertions.assertEquals(ZoneStateBoard.ALARM, board.getStateAt(5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ZoneStateBoard(ZoneSet.range(1, 1 << 30)));
+    }
+}
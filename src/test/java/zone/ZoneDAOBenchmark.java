@@ -0,0 +1,131 @@
+package zone;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark: timer-like reader threads look zones up while one writer thread keeps updating,
+ * adding and deleting them. ZoneDAOLocal is not thread-safe, so it is measured behind a single lock.
+ * Run with: java zone.ZoneDAOBenchmark [zones] [readers] [seconds]
+ */
+public class ZoneDAOBenchmark {
+    public static void main(String... args) throws InterruptedException {
+        int zones = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        for (int round = 0; round < 2; round++) {
+            run("ZoneDAOLocal (synchronized)", new SynchronizedZoneDAO(new ZoneDAOLocal()), zones, readers, seconds);
+            run("ZoneDAOConcurrent", new ZoneDAOConcurrent(), zones, readers, seconds);
+        }
+    }
+
+    private static void run(String name, ZoneDAO zoneDAO, int zones, int readers, int seconds)
+            throws InterruptedException {
+        for (int id = 1; id <= zones; id++) {
+            zoneDAO.add(new HeapZone(id));
+        }
+
+        AtomicLong reads = new AtomicLong();
+        AtomicLong snapshots = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1000000000L;
+
+        Thread[] threads = new Thread[readers + 1];
+        for (int i = 0; i < readers; i++) {
+            threads[i] = new Thread(() -> {
+                await(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                long snapshotCount = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int j = 0; j < 1000; j++) {
+                        zoneDAO.find(random.nextInt(1, zones + 1));
+                    }
+                    count += 1000;
+                    if (random.nextInt(100) == 0) {
+                        zoneDAO.findAll();
+                        snapshotCount++;
+                    }
+                }
+                reads.addAndGet(count);
+                snapshots.addAndGet(snapshotCount);
+            });
+        }
+        threads[readers] = new Thread(() -> {
+            await(start);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long count = 0;
+            while (System.nanoTime() < deadline) {
+                int id = random.nextInt(1, zones + 1);
+                Zone zone = zoneDAO.find(id);
+                if (zone == null) {
+                    zoneDAO.add(new HeapZone(id));
+                } else if (random.nextInt(16) == 0) {
+                    zoneDAO.delete(id);
+                } else {
+                    zone.setHumidityValue(random.nextInt(100));
+                    zoneDAO.update(zone);
+                }
+                count++;
+            }
+            writes.addAndGet(count);
+        });
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.println(String.format("%-28s %d zones, %d readers: %,.0f reads/s, %,.0f snapshots/s, %,.0f writes/s",
+                name, zones, readers, reads.get() / (double) seconds, snapshots.get() / (double) seconds,
+                writes.get() / (double) seconds));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class SynchronizedZoneDAO implements ZoneDAO {
+        private final ZoneDAO zoneDAO;
+
+        SynchronizedZoneDAO(ZoneDAO zoneDAO) {
+            this.zoneDAO = zoneDAO;
+        }
+
+        @Override
+        public synchronized Zone find(int id) {
+            return zoneDAO.find(id);
+        }
+
+        @Override
+        public synchronized List<Zone> findAll() {
+            return zoneDAO.findAll();
+        }
+
+        @Override
+        public synchronized boolean add(Zone zone) {
+            return zoneDAO.add(zone);
+        }
+
+        @Override
+        public synchronized boolean update(Zone zone) {
+            return zoneDAO.update(zone);
+        }
+
+        @Override
+        public synchronized boolean delete(int id) {
+            return zoneDAO.delete(id);
+        }
+    }
+}
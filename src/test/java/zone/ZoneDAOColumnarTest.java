@@ -0,0 +1,152 @@
+package zone;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ZoneDAOColumnarTest {
+    @Test
+    void storeAllZoneFields() {
+        ZoneDAOColumnar zoneDAO = new ZoneDAOColumnar();
+        Zone zone = new HeapZone(42);
+        zone.setWateringStatus(WateringStatus.ENABLED);
+        zone.setFirstWatering(LocalDateTime.of(2017, 11, 10, 6, 30));
+        zone.setWateringInterval(LocalTime.of(12, 0));
+        zone.setWaterVolume(30);
+        zone.setWateringDuration(2.5);
+        zone.setHumidityRange(new AbstractMap.SimpleImmutableEntry<>(40, 60));
+        zone.setFertilizerSensorNotResponding(true);
+        zone.setFertilizingStatus(FertilizingStatus.DISABLED);
+        zone.setFertilizerVolume(5);
+        Assertions.assertTrue(zoneDAO.add(zone));
+
+        Zone stored = zoneDAO.find(42);
+        Assertions.assertNotSame(zone, stored);
+        Assertions.assertEquals(42, stored.getId());
+        Assertions.assertEquals(WateringStatus.ENABLED, stored.getWateringStatus());
+        Assertions.assertEquals(LocalDateTime.of(2017, 11, 10, 6, 30), stored.getFirstWatering());
+        Assertions.assertEquals(LocalTime.of(12, 0), stored.getWateringInterval());
+        Assertions.assertEquals(30, stored.getWaterVolume());
+        Assertions.assertEquals(2.5, stored.getWateringDuration());
+        Assertions.assertEquals(new AbstractMap.SimpleImmutableEntry<>(40, 60), stored.getHumidityRange());
+        Assertions.assertFalse(stored.isWaterSensorNotResponding());
+        Assertions.assertTrue(stored.isFertilizerSensorNotResponding());
+        Assertions.assertEquals(LocalTime.of(0, 1), stored.getSensorsCheckInterval());
+        Assertions.assertEquals(FertilizingStatus.DISABLED, stored.getFertilizingStatus());
+        Assertions.assertEquals(5, stored.getFertilizerVolume());
+        int humidity = stored.getHumidityValue();
+        Assertions.assertTrue(humidity >= 40 && humidity <= 60);
+    }
+
+    @Test
+    void viewsWriteThrough() {
+        ZoneDAOColumnar zoneDAO = new ZoneDAOColumnar();
+        zoneDAO.add(new HeapZone(1));
+
+        Zone view = zoneDAO.find(1);
+        view.setWateringStatus(WateringStatus.DISABLED);
+        view.setHumidityRange(null);
+        view.setFirstWatering(null);
+        Assertions.assertEquals(WateringStatus.DISABLED, zoneDAO.find(1).getWateringStatus());
+        Assertions.assertNull(zoneDAO.find(1).getHumidityRange());
+        Assertions.assertNull(zoneDAO.find(1).getFirstWatering());
+
+        Zone replacement = new HeapZone(1);
+        replacement.setWaterVolume(7);
+        Assertions.assertTrue(zoneDAO.update(replacement));
+        Assertions.assertEquals(7, view.getWaterVolume());
+        Assertions.assertEquals(WateringStatus.NOT_INITIALISED, view.getWateringStatus());
+        Assertions.assertFalse(zoneDAO.update(new HeapZone(2)));
+    }
+
+    @Test
+    void rejectViewsOfDeletedZones() {
+        ZoneDAOColumnar zoneDAO = new ZoneDAOColumnar();
+        zoneDAO.createAll(ZoneSet.range(1, 3));
+        Zone stale = zoneDAO.find(2);
+        Assertions.assertTrue(zoneDAO.delete(2));
+        Assertions.assertThrows(IllegalStateException.class, stale::getWaterVolume);
+
+        Zone recycled = zoneDAO.create(4);
+        Assertions.assertThrows(IllegalStateException.class, () -> stale.setWaterVolume(9));
+        Assertions.assertThrows(IllegalStateException.class, () -> stale.setHumidityRange(null));
+        Assertions.assertEquals(0, recycled.getWaterVolume());
+        Assertions.assertEquals(4, zoneDAO.find(4).getId());
+        Assertions.assertEquals(3, zoneDAO.findAll().size());
+    }
+
+    @Test
+    void scanEnabledZonesAcrossPages() {
+        ZoneDAOColumnar zoneDAO = new ZoneDAOColumnar();
+        for (int id = 0; id < 10000; id++) {
+            zoneDAO.add(new HeapZone(id));
+            if (id % 100 == 0) {
+                zoneDAO.find(id).setWateringStatus(WateringStatus.ENABLED);
+            }
+        }
+        for (int id = 0; id < 10000; id += 200) {
+            Assertions.assertTrue(zoneDAO.delete(id));
+        }
+        Assertions.assertFalse(zoneDAO.delete(0));
+        Assertions.assertNull(zoneDAO.find(200));
+
+        List<Zone> enabled = zoneDAO.findAllWateringEnabled();
+        Assertions.assertEquals(50, enabled.size());
+        for (Zone zone : enabled) {
+            Assertions.assertEquals(100, zone.getId() % 200);
+        }
+        Assertions.assertEquals(9950, zoneDAO.findAll().size());
+
+        Assertions.assertTrue(zoneDAO.add(new HeapZone(-1)));
+        Assertions.assertEquals(WateringStatus.NOT_INITIALISED, zoneDAO.find(-1).getWateringStatus());
+        Assertions.assertEquals(9951, zoneDAO.size());
+    }
+
+    @Test
+    void createAndFindInBulk() {
+        ZoneDAOColumnar zoneDAO = new ZoneDAOColumnar();
+        zoneDAO.createAll(ZoneSet.range(1, 5000));
+        zoneDAO.find(3).setWaterVolume(9);
+        Assertions.assertTrue(zoneDAO.delete(3));
+        Assertions.assertTrue(zoneDAO.delete(4000));
+
+        List<Zone> created = zoneDAO.createAll(new ZoneSet.Builder().add(0, 10).add(9000, 9100).build());
+        Assertions.assertEquals(103, created.size());
+        Assertions.assertEquals(0, created.get(0).getId());
+        Assertions.assertEquals(3, created.get(1).getId());
+        Assertions.assertEquals(9100, created.get(102).getId());
+        Zone defaults = new HeapZone(3);
+        for (Zone zone : Arrays.asList(zoneDAO.find(3), zoneDAO.find(9050), zoneDAO.find(2500))) {
+            Assertions.assertEquals(defaults.getWateringStatus(), zone.getWateringStatus());
+            Assertions.assertEquals(defaults.getSensorsCheckInterval(), zone.getSensorsCheckInterval());
+            Assertions.assertEquals(defaults.getWaterVolume(), zone.getWaterVolume());
+            Assertions.assertNull(zone.getFirstWatering());
+            Assertions.assertNull(zone.getHumidityRange());
+        }
+
+        List<Zone> few = zoneDAO.findAll(ZoneSet.of(7, 4000, 9001));
+        List<Zone> many = zoneDAO.findAll(ZoneSet.range(Integer.MIN_VALUE, 8));
+        Assertions.assertEquals(Arrays.asList(7, 9001), ids(few));
+        Assertions.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8), ids(many));
+        Assertions.assertEquals(5101, zoneDAO.size());
+
+        Zone replacement = new HeapZone(9);
+        replacement.setWaterVolume(4);
+        Assertions.assertEquals(2, zoneDAO.updateAll(Arrays.asList(replacement, zoneDAO.find(10), new HeapZone(4000))));
+        Assertions.assertEquals(4, zoneDAO.find(9).getWaterVolume());
+    }
+
+    private static List<Integer> ids(List<Zone> zones) {
+        List<Integer> ids = new ArrayList<>();
+        for (Zone zone : zones) {
+            ids.add(zone.getId());
+        }
+        return ids;
+    }
+}
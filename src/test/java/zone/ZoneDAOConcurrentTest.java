@@ -0,0 +1,107 @@
+package zone;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ZoneDAOConcurrentTest {
+    @Test
+    void addFindUpdateDelete() {
+        ZoneDAOConcurrent zoneDAO = new ZoneDAOConcurrent(4);
+        for (int id = -500; id <= 500; id++) {
+            Assertions.assertTrue(zoneDAO.add(new HeapZone(id)));
+        }
+        Assertions.assertFalse(zoneDAO.add(new HeapZone(7)));
+        Assertions.assertEquals(1001, zoneDAO.size());
+
+        Zone replacement = new HeapZone(7);
+        Assertions.assertTrue(zoneDAO.update(replacement));
+        Assertions.assertSame(replacement, zoneDAO.find(7));
+        Assertions.assertFalse(zoneDAO.update(new HeapZone(1000)));
+
+        for (int id = -500; id <= 500; id += 2) {
+            Assertions.assertTrue(zoneDAO.delete(id));
+        }
+        Assertions.assertFalse(zoneDAO.delete(-500));
+        Assertions.assertNull(zoneDAO.find(-500));
+        Assertions.assertEquals(-499, zoneDAO.find(-499).getId());
+        Assertions.assertEquals(500, zoneDAO.size());
+    }
+
+    @Test
+    void reuseSnapshotUntilZonesChange() {
+        ZoneDAOConcurrent zoneDAO = new ZoneDAOConcurrent();
+        Zone zone = new HeapZone(1);
+        zoneDAO.add(zone);
+        zoneDAO.add(new HeapZone(2));
+
+        List<Zone> snapshot = zoneDAO.findAll();
+        Assertions.assertEquals(2, snapshot.size());
+        zoneDAO.update(zone);
+        Assertions.assertSame(snapshot, zoneDAO.findAll());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new HeapZone(3)));
+
+        zoneDAO.delete(2);
+        Assertions.assertEquals(2, snapshot.size());
+        Assertions.assertEquals(1, zoneDAO.findAll().size());
+    }
+
+    @Test
+    void concurrentWritersAndReaders() throws InterruptedException {
+        ZoneDAOConcurrent zoneDAO = new ZoneDAOConcurrent();
+        int writers = 4;
+        int zonesPerWriter = 10000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger mismatches = new AtomicInteger();
+        Thread[] threads = new Thread[writers * 2];
+        for (int w = 0; w < writers; w++) {
+            int offset = w * zonesPerWriter;
+            threads[w] = new Thread(() -> {
+                await(start);
+                for (int id = offset; id < offset + zonesPerWriter; id++) {
+                    zoneDAO.add(new HeapZone(id));
+                    if (id % 3 == 0) {
+                        zoneDAO.delete(id);
+                    }
+                }
+            });
+            threads[writers + w] = new Thread(() -> {
+                await(start);
+                for (int id = offset; id < offset + zonesPerWriter; id++) {
+                    Zone zone = zoneDAO.find(id);
+                    if (zone != null && zone.getId() != id) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(0, mismatches.get());
+        Set<Integer> ids = new HashSet<>();
+        for (Zone zone : zoneDAO.findAll()) {
+            Assertions.assertTrue(ids.add(zone.getId()));
+            Assertions.assertNotEquals(0, zone.getId() % 3);
+        }
+        Assertions.assertEquals(writers * zonesPerWriter - writers * zonesPerWriter / 3 - 1, ids.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package zone;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.AbstractMap;
+import java.util.List;
+
+public class ZoneDAOMappedTest {
+    @Test
+    void persistZonesAcrossReopen() throws IOException {
+        Path file = Files.createTempFile("zones", ".bin");
+        Files.delete(file);
+        try {
+            try (ZoneDAOMapped zoneDAO = new ZoneDAOMapped(file)) {
+                for (int id = 1; id <= 5000; id++) {
+                    zoneDAO.create(id);
+                }
+                Zone zone = zoneDAO.find(42);
+                zone.setWateringStatus(WateringStatus.ENABLED);
+                zone.setFirstWatering(LocalDateTime.of(2017, 11, 10, 6, 30));
+                zone.setWateringInterval(LocalTime.of(12, 0));
+                zone.setWaterVolume(30);
+                zone.setWateringDuration(2.5);
+                zone.setHumidityRange(new AbstractMap.SimpleImmutableEntry<>(40, 60));
+                zone.setWaterSensorNotResponding(true);
+
+                Zone replacement = new HeapZone(7);
+                replacement.setFertilizingStatus(FertilizingStatus.ENABLED);
+                replacement.setFertilizerVolume(5);
+                Assertions.assertTrue(zoneDAO.update(replacement));
+                Assertions.assertTrue(zoneDAO.delete(100));
+            }
+
+            try (ZoneDAOMapped zoneDAO = new ZoneDAOMapped(file)) {
+                Assertions.assertEquals(4999, zoneDAO.size());
+                Assertions.assertEquals(4999, zoneDAO.findAll().size());
+                Assertions.assertNull(zoneDAO.find(100));
+
+                Zone zone = zoneDAO.find(42);
+                Assertions.assertEquals(WateringStatus.ENABLED, zone.getWateringStatus());
+                Assertions.assertEquals(LocalDateTime.of(2017, 11, 10, 6, 30), zone.getFirstWatering());
+                Assertions.assertEquals(LocalTime.of(12, 0), zone.getWateringInterval());
+                Assertions.assertEquals(30, zone.getWaterVolume());
+                Assertions.assertEquals(2.5, zone.getWateringDuration());
+                Assertions.assertEquals(new AbstractMap.SimpleImmutableEntry<>(40, 60), zone.getHumidityRange());
+                Assertions.assertTrue(zone.isWaterSensorNotResponding());
+                Assertions.assertFalse(zone.isFertilizerSensorNotResponding());
+                Assertions.assertEquals(LocalTime.of(0, 1), zone.getSensorsCheckInterval());
+
+                Assertions.assertEquals(FertilizingStatus.ENABLED, zoneDAO.find(7).getFertilizingStatus());
+                Assertions.assertEquals(5, zoneDAO.find(7).getFertilizerVolume());
+                Assertions.assertNull(zoneDAO.find(8).getHumidityRange());
+
+                Assertions.assertTrue(zoneDAO.add(new HeapZone(100)));
+                Assertions.assertFalse(zoneDAO.add(new HeapZone(100)));
+                Assertions.assertEquals(WateringStatus.NOT_INITIALISED, zoneDAO.find(100).getWateringStatus());
+            }
+            Assertions.assertEquals(64 + 8192 * 56, Files.size(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void createAndFindInBulk() throws IOException {
+        Path file = Files.createTempFile("zones", ".bin");
+        Files.delete(file);
+        try {
+            try (ZoneDAOMapped zoneDAO = new ZoneDAOMapped(file)) {
+                Assertions.assertEquals(3000, zoneDAO.createAll(ZoneSet.range(1, 3000)).size());
+                Zone stale = zoneDAO.find(5);
+                stale.setWateringStatus(WateringStatus.ENABLED);
+                Assertions.assertTrue(zoneDAO.delete(5));
+                Assertions.assertThrows(IllegalStateException.class, stale::getWateringStatus);
+                Assertions.assertEquals(2, zoneDAO.createAll(ZoneSet.of(5, 2999, 3001)).size());
+                Assertions.assertThrows(IllegalStateException.class, () -> stale.setWaterVolume(9));
+                Assertions.assertEquals(WateringStatus.NOT_INITIALISED, zoneDAO.find(5).getWateringStatus());
+                Assertions.assertEquals(0, zoneDAO.find(5).getWaterVolume());
+                Assertions.assertEquals(3, zoneDAO.findAll(ZoneSet.of(1, 5, 3001, 4000)).size());
+            }
+
+            try (ZoneDAOMapped zoneDAO = new ZoneDAOMapped(file)) {
+                List<Zone> zones = zoneDAO.findAll(ZoneSet.range(2995, Integer.MAX_VALUE));
+                Assertions.assertEquals(7, zones.size());
+                Assertions.assertEquals(2995, zones.get(0).getId());
+                Assertions.assertEquals(3001, zones.get(6).getId());
+                Assertions.assertEquals(LocalTime.of(0, 1), zones.get(6).getSensorsCheckInterval());
+                Assertions.assertNull(zones.get(6).getHumidityRange());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void rejectForeignFile() throws IOException {
+        Path file = Files.createTempFile("zones", ".bin");
+        try {
+            Files.write(file, new byte[64 + 56]);
+            Assertions.assertThrows(IOException.class, () -> new ZoneDAOMapped(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package zone;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ZoneSetTest {
+    @Test
+    void mergeRangesWithoutExpanding() {
+        ZoneSet zones = new ZoneSet.Builder().add(1, 1000000).add(12).add(1000001, 1000005).add(-5, -3)
+                .add(2000000).build();
+        Assertions.assertEquals(3, zones.getRangeCount());
+        Assertions.assertEquals(1000009, zones.size());
+        Assertions.assertEquals("-5--3, 1-1000005, 2000000", zones.toString());
+        Assertions.assertTrue(zones.contains(500000));
+        Assertions.assertFalse(zones.contains(0));
+        Assertions.assertFalse(zones.contains(2000001));
+        Assertions.assertArrayEquals(new int[] {1, 2, 3, 5, 7}, ZoneSet.of(7, 3, 1, 2, 5, 3).toArray());
+        Assertions.assertArrayEquals(new int[] {Integer.MAX_VALUE - 1, Integer.MAX_VALUE},
+                ZoneSet.range(Integer.MAX_VALUE - 1, Integer.MAX_VALUE).toArray());
+        Assertions.assertTrue(ZoneSet.range(5, 4).isEmpty());
+
+        long[] sum = new long[1];
+        zones.forEachZone(zoneId -> sum[0] += zoneId);
+        Assertions.assertEquals(-12 + 1000005L * 1000006 / 2 + 2000000, sum[0]);
+    }
+
+    @Test
+    void combineSets() {
+        ZoneSet enabled = ZoneSet.of(2, 3, 4, 10, 11, 20);
+        ZoneSet requested = new ZoneSet.Builder().add(1, 3).add(9, 15).build();
+        Assertions.assertEquals(ZoneSet.of(2, 3, 10, 11), requested.intersect(enabled));
+        Assertions.assertEquals(new ZoneSet.Builder().add(1, 4).add(9, 15).add(20).build(),
+                requested.union(enabled));
+        Assertions.assertEquals(ZoneSet.EMPTY, requested.intersect(ZoneSet.of(5, 6)));
+        Assertions.assertSame(requested, requested.union(ZoneSet.EMPTY));
+        Assertions.assertEquals(new ZoneSet.Builder().add(1).add(5, 9).add(12, 15).build(),
+                requested.union(ZoneSet.range(5, 8)).subtract(enabled));
+        Assertions.assertEquals(ZoneSet.EMPTY, requested.subtract(ZoneSet.range(Integer.MIN_VALUE, Integer.MAX_VALUE)));
+    }
+}